@@ -0,0 +1,57 @@
+package com.docmanagement.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Splits the documents of one status (the PENDING backlog, or the COMPLETED documents for the
+// search index rebuild) into contiguous id ranges, one per worker step
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentIdRangePartitioner implements Partitioner {
+
+    static final String MIN_ID = "minId";
+    static final String MAX_ID = "maxId";
+
+    private final String description;
+    private final Supplier<Optional<long[]>> idRange;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        long[] range = idRange.get().orElse(null);
+        if (range == null) {
+            // Nothing to do, but the step still needs one (empty) partition
+            partitions.put("partition0", context(0, -1));
+            return partitions;
+        }
+
+        long min = range[0];
+        long max = range[1];
+        long span = max - min + 1;
+        int count = (int) Math.max(1, Math.min(gridSize, span));
+        long size = (span + count - 1) / count;
+
+        for (int i = 0; i < count; i++) {
+            long start = min + i * size;
+            long end = Math.min(max, start + size - 1);
+            partitions.put("partition" + i, context(start, end));
+        }
+
+        log.info("Split {} documents {}..{} into {} partitions", description, min, max, count);
+        return partitions;
+    }
+
+    private ExecutionContext context(long minId, long maxId) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(MIN_ID, minId);
+        context.putLong(MAX_ID, maxId);
+        return context;
+    }
+}
@@ -1,38 +1,86 @@
 package com.docmanagement.batch;
 
 import com.docmanagement.model.Document;
-import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.repository.DocumentClaimRepository;
 import com.docmanagement.repository.DocumentRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
+// Keyset-paging reader over one id range. Each page is claimed (PENDING -> PROCESSING) inside the
+// chunk transaction that processes it, so a failed chunk hands its documents back to PENDING.
+// The last id read is saved with every commit, a restarted partition continues from there.
 @Component
-@RequiredArgsConstructor
-public class DocumentReader implements ItemReader<Document> {
+@StepScope
+public class DocumentReader implements ItemStreamReader<Document> {
+
+    static final String LAST_ID = "lastId";
 
     private final DocumentRepository documentRepository;
-    private final AtomicInteger counter = new AtomicInteger(0);
-    private List<Document> pendingDocuments;
+    private final DocumentClaimRepository documentClaimRepository;
+    private final long minId;
+    private final long maxId;
+    private final int pageSize;
+    private final Deque<Document> page = new ArrayDeque<>();
+    private long lastId;
+    private long readCount;
+
+    public DocumentReader(DocumentRepository documentRepository,
+                          DocumentClaimRepository documentClaimRepository,
+                          @Value("#{stepExecutionContext['minId']}") Long minId,
+                          @Value("#{stepExecutionContext['maxId']}") Long maxId,
+                          @Value("${document.batch.chunk-size:10}") int pageSize) {
+        this.documentRepository = documentRepository;
+        this.documentClaimRepository = documentClaimRepository;
+        this.minId = minId;
+        this.maxId = maxId;
+        // Same as the chunk size, so a page is claimed by the transaction that processes it
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        lastId = executionContext.containsKey(LAST_ID) ? executionContext.getLong(LAST_ID) : minId - 1;
+        readCount = 0;
+    }
 
     @Override
     public Document read() {
-        if (pendingDocuments == null) {
-            Pageable pageable = PageRequest.of(0, 100);
-            pendingDocuments = documentRepository.findByStatus(DocumentStatus.PENDING, pageable).getContent();
-            counter.set(0);
+        while (page.isEmpty() && lastId < maxId) {
+            // Never claim past the end of the current chunk, nothing may stay buffered at commit
+            int remainingInChunk = pageSize - (int) (readCount % pageSize);
+            List<Long> claimed = documentClaimRepository.claimPending(lastId, maxId, remainingInChunk);
+            if (claimed.isEmpty()) {
+                lastId = maxId;
+                break;
+            }
+
+            documentRepository.findAllById(claimed).stream()
+                    .sorted(Comparator.comparing(Document::getId))
+                    .forEach(page::add);
+            if (page.isEmpty()) {
+                // Deleted between claim and load
+                lastId = claimed.stream().mapToLong(Long::longValue).max().getAsLong();
+            }
         }
 
-        if (counter.get() >= pendingDocuments.size()) {
-            pendingDocuments = null;
-            return null;
+        Document document = page.poll();
+        if (document != null) {
+            lastId = document.getId();
+            readCount++;
         }
+        return document;
+    }
 
-        return pendingDocuments.get(counter.getAndIncrement());
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(LAST_ID, lastId);
     }
 }
@@ -1,7 +1,7 @@
 package com.docmanagement.batch;
 
 import com.docmanagement.model.Document;
-import com.docmanagement.repository.DocumentRepository;
+import com.docmanagement.processing.IngestionPipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.item.Chunk;
@@ -13,11 +13,11 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class DocumentWriter implements ItemWriter<Document> {
 
-    private final DocumentRepository documentRepository;
+    private final IngestionPipeline ingestionPipeline;
 
     @Override
-    public void write(Chunk<? extends Document> documents) {
+    public void write(Chunk<? extends Document> documents) throws Exception {
         log.info("Writing {} documents", documents.size());
-        documentRepository.saveAll(documents.getItems());
+        ingestionPipeline.persist(documents.getItems());
     }
 }
@@ -0,0 +1,24 @@
+package com.docmanagement.batch;
+
+import com.docmanagement.model.Document;
+import com.docmanagement.processing.IngestionPipeline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.stereotype.Component;
+
+// Failures are rethrown: the chunk rolls back, leaving the document as it was, and the step skips it
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexRebuildProcessor implements ItemProcessor<Document, Document> {
+
+    private final IngestionPipeline ingestionPipeline;
+
+    @Override
+    public Document process(Document document) throws Exception {
+        log.debug("Rebuilding search data of document {}", document.getId());
+        ingestionPipeline.rebuild(document);
+        return document;
+    }
+}
@@ -0,0 +1,79 @@
+package com.docmanagement.batch;
+
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.repository.DocumentRepository;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+// Keyset-paging reader over the COMPLETED documents of one id range. Nothing is claimed: the
+// documents stay COMPLETED and searchable while they are rebuilt. Like DocumentReader, the last id
+// read is saved with every commit and a restarted partition continues after it.
+@Component
+@StepScope
+public class SearchIndexRebuildReader implements ItemStreamReader<Document> {
+
+    private final DocumentRepository documentRepository;
+    private final long minId;
+    private final long maxId;
+    private final int pageSize;
+    private final Deque<Document> page = new ArrayDeque<>();
+    private long lastId;
+
+    public SearchIndexRebuildReader(DocumentRepository documentRepository,
+                                    @Value("#{stepExecutionContext['minId']}") Long minId,
+                                    @Value("#{stepExecutionContext['maxId']}") Long maxId,
+                                    @Value("${document.batch.chunk-size:10}") int pageSize) {
+        this.documentRepository = documentRepository;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        lastId = executionContext.containsKey(DocumentReader.LAST_ID)
+                ? executionContext.getLong(DocumentReader.LAST_ID) : minId - 1;
+        page.clear();
+    }
+
+    @Override
+    public Document read() {
+        while (page.isEmpty() && lastId < maxId) {
+            List<Long> ids = documentRepository.findIdsByStatusInRange(
+                    DocumentStatus.COMPLETED, lastId, maxId, PageRequest.of(0, pageSize));
+            if (ids.isEmpty()) {
+                lastId = maxId;
+                break;
+            }
+
+            documentRepository.findAllById(ids).stream()
+                    .sorted(Comparator.comparing(Document::getId))
+                    .forEach(page::add);
+            if (page.isEmpty()) {
+                // Deleted in between
+                lastId = ids.get(ids.size() - 1);
+            }
+        }
+
+        Document document = page.poll();
+        if (document != null) {
+            lastId = document.getId();
+        }
+        return document;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(DocumentReader.LAST_ID, lastId);
+    }
+}
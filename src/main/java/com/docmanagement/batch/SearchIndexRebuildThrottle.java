@@ -0,0 +1,77 @@
+package com.docmanagement.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Paces the search index rebuild so it can run next to live traffic. Registered on the step's chunk
+// loop, so it waits before each chunk transaction opens and never holds a connection while sleeping.
+// The rate is shared by all partitions; the load check pauses while the database is busier than the
+// configured number of active queries.
+@Component
+@Slf4j
+public class SearchIndexRebuildThrottle implements RepeatListener {
+
+    private static final String ACTIVE_QUERIES =
+            "SELECT count(*) FROM pg_stat_activity WHERE state = 'active' " +
+            "AND datname = current_database() AND pid <> pg_backend_pid()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double documentsPerSecond;
+    private final int maxActiveQueries;
+    private final long backoffMillis;
+    private final int chunkSize;
+    private long nextChunkNanos = System.nanoTime();
+
+    public SearchIndexRebuildThrottle(JdbcTemplate jdbcTemplate,
+                                      @Value("${document.reindex.documents-per-second:20}") double documentsPerSecond,
+                                      @Value("${document.reindex.max-active-queries:0}") int maxActiveQueries,
+                                      @Value("${document.reindex.backoff-ms:1000}") long backoffMillis,
+                                      @Value("${document.batch.chunk-size:10}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.documentsPerSecond = documentsPerSecond;
+        this.maxActiveQueries = maxActiveQueries;
+        this.backoffMillis = backoffMillis;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void before(RepeatContext context) {
+        try {
+            awaitDatabaseLoad();
+            TimeUnit.NANOSECONDS.sleep(reserveChunk(System.nanoTime()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public double getDocumentsPerSecond() {
+        return documentsPerSecond;
+    }
+
+    // Books the next chunk-sized slot and returns how long to wait for it; 0 rate means unthrottled
+    synchronized long reserveChunk(long now) {
+        if (documentsPerSecond <= 0) {
+            return 0;
+        }
+        long slot = Math.max(now, nextChunkNanos);
+        nextChunkNanos = slot + (long) (chunkSize * TimeUnit.SECONDS.toNanos(1) / documentsPerSecond);
+        return slot - now;
+    }
+
+    private void awaitDatabaseLoad() throws InterruptedException {
+        if (maxActiveQueries <= 0) {
+            return;
+        }
+        Integer active;
+        while ((active = jdbcTemplate.queryForObject(ACTIVE_QUERIES, Integer.class)) != null && active > maxActiveQueries) {
+            log.debug("Search index rebuild paused, {} active queries", active);
+            Thread.sleep(backoffMillis);
+        }
+    }
+}
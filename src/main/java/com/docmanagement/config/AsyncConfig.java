@@ -1,14 +1,18 @@
 package com.docmanagement.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
     @Bean(name = "taskExecutor")
@@ -21,4 +25,59 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    // Runs the partitions of processDocumentsJob, one worker step per thread
+    @Bean(name = "batchTaskExecutor")
+    public ThreadPoolTaskExecutor batchTaskExecutor(@Value("${document.batch.partitions:0}") int partitions) {
+        int threads = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setThreadNamePrefix("BatchPartition-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Tika workers: the pool size is the number of extractions allowed at once, the unit of
+    // back-pressure for the document queue consumers. DocumentProcessingService never submits more
+    // than that; the queue only covers the moment between a parse ending and its thread going idle.
+    @Bean(name = "extractionExecutor")
+    public ThreadPoolTaskExecutor extractionExecutor(@Value("${document.extraction.pool-size:0}") int poolSize) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setThreadNamePrefix("Extraction-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Applies search index updates one at a time, in the order their transactions committed
+    @Bean(name = "searchIndexExecutor")
+    public ThreadPoolTaskExecutor searchIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("SearchIndex-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Q&A fan-out: the chunk and document searches of a question run here side by side
+    @Bean(name = "qaExecutor")
+    public ThreadPoolTaskExecutor qaExecutor(@Value("${search.qa.pool-size:16}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 4);
+        // When saturated a search is rejected rather than run on the request thread, where it would ignore
+        // its deadline; QAQueryExecutor treats it like a source that missed the deadline
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("QA-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -1,17 +1,29 @@
 package com.docmanagement.config;
 
+import com.docmanagement.batch.DocumentIdRangePartitioner;
 import com.docmanagement.batch.DocumentProcessor;
 import com.docmanagement.batch.DocumentReader;
 import com.docmanagement.batch.DocumentWriter;
+import com.docmanagement.batch.SearchIndexRebuildProcessor;
+import com.docmanagement.batch.SearchIndexRebuildReader;
+import com.docmanagement.batch.SearchIndexRebuildThrottle;
 import com.docmanagement.model.Document;
+import com.docmanagement.repository.DocumentClaimRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.batch.repeat.support.RepeatTemplate;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 @Configuration
@@ -23,21 +35,92 @@ public class BatchConfig {
     private final DocumentReader documentReader;
     private final DocumentProcessor documentProcessor;
     private final DocumentWriter documentWriter;
+    private final DocumentClaimRepository documentClaimRepository;
+    private final SearchIndexRebuildReader searchIndexRebuildReader;
+    private final SearchIndexRebuildProcessor searchIndexRebuildProcessor;
+    private final SearchIndexRebuildThrottle searchIndexRebuildThrottle;
+
+    @Value("${document.batch.chunk-size:10}")
+    private int chunkSize;
+
+    @Value("${document.reindex.skip-limit:100}")
+    private int rebuildSkipLimit;
 
     @Bean
-    public Job processDocumentsJob() {
+    public Job processDocumentsJob(@Qualifier("batchTaskExecutor") TaskExecutor batchTaskExecutor,
+                                   @Value("${document.batch.partitions:0}") int partitions) {
         return new JobBuilder("processDocumentsJob", jobRepository)
-                .start(processDocumentsStep())
+                .start(processDocumentsManagerStep(batchTaskExecutor, partitions))
+                .build();
+    }
+
+    // Fans the id ranges out to worker steps running in parallel on the batch executor
+    private Step processDocumentsManagerStep(TaskExecutor batchTaskExecutor, int partitions) {
+        return new StepBuilder("processDocumentsStep.manager", jobRepository)
+                .partitioner("processDocumentsStep",
+                        new DocumentIdRangePartitioner("pending", documentClaimRepository::findPendingIdRange))
+                .step(processDocumentsStep())
+                .gridSize(partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors())
+                .taskExecutor(batchTaskExecutor)
                 .build();
     }
 
     @Bean
     public Step processDocumentsStep() {
         return new StepBuilder("processDocumentsStep", jobRepository)
-                .<Document, Document>chunk(10, transactionManager)
+                .<Document, Document>chunk(chunkSize, transactionManager)
                 .reader(documentReader)
                 .processor(documentProcessor)
                 .writer(documentWriter)
                 .build();
     }
+
+    // Runs the rebuild in the background. run() returns once the execution is recorded in the job
+    // repository, so a second launch from any node is refused there rather than by a local flag.
+    @Bean
+    public JobLauncher rebuildJobLauncher() throws Exception {
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(new SimpleAsyncTaskExecutor("SearchIndexRebuild-"));
+        launcher.afterPropertiesSet();
+        return launcher;
+    }
+
+    // Walks every COMPLETED document in id order and regenerates its chunks, stored text and search
+    // vectors in place, in parallel id-range partitions paced by SearchIndexRebuildThrottle
+    @Bean
+    public Job rebuildSearchIndexJob(@Qualifier("batchTaskExecutor") TaskExecutor batchTaskExecutor,
+                                     @Value("${document.batch.partitions:0}") int partitions) {
+        return new JobBuilder("rebuildSearchIndexJob", jobRepository)
+                .start(rebuildSearchIndexManagerStep(batchTaskExecutor, partitions))
+                .build();
+    }
+
+    private Step rebuildSearchIndexManagerStep(TaskExecutor batchTaskExecutor, int partitions) {
+        return new StepBuilder("rebuildSearchIndexStep.manager", jobRepository)
+                .partitioner("rebuildSearchIndexStep",
+                        new DocumentIdRangePartitioner("completed", documentClaimRepository::findCompletedIdRange))
+                .step(rebuildSearchIndexStep())
+                .gridSize(partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors())
+                .taskExecutor(batchTaskExecutor)
+                .build();
+    }
+
+    // A document that fails is rolled back to its previous state and skipped; past the skip limit
+    // the job fails and can be restarted from where each partition stopped
+    @Bean
+    public Step rebuildSearchIndexStep() {
+        RepeatTemplate chunkLoop = new RepeatTemplate();
+        chunkLoop.registerListener(searchIndexRebuildThrottle);
+        return new StepBuilder("rebuildSearchIndexStep", jobRepository)
+                .<Document, Document>chunk(chunkSize, transactionManager)
+                .reader(searchIndexRebuildReader)
+                .processor(searchIndexRebuildProcessor)
+                .writer(documentWriter)
+                .faultTolerant()
+                .skip(Exception.class)
+                .skipLimit(rebuildSkipLimit)
+                .stepOperations(chunkLoop)
+                .build();
+    }
 }
@@ -1,26 +1,66 @@
 package com.docmanagement.config;
 
+import com.docmanagement.search.QAAnswerCache;
+import com.docmanagement.service.DocumentCacheLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+// Each cache is sized by the serialized size of its values (cache.specs.*) and records stats,
+// which the actuator publishes as cache.* metrics
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheSpecProperties.class)
 public class CacheConfig {
 
+    public static final String DOCUMENTS_CACHE = "documents";
+    // Listing pages, keyed by their DocumentFilterRequest
+    public static final String DOCUMENT_PAGES_CACHE = "document-pages";
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("documents", "questions");
-        cacheManager.setCaffeine(
-                Caffeine.newBuilder()
-                        .expireAfterWrite(10, TimeUnit.MINUTES)
-                        .maximumSize(500)
-        );
+    public CacheManager cacheManager(CacheSpecProperties properties, ObjectMapper objectMapper,
+                                     DocumentCacheLoader documentCacheLoader) {
+        SerializedSizeWeigher weigher = new SerializedSizeWeigher(objectMapper);
+        Map<String, CacheLoader<Object, Object>> loaders = Map.of(DOCUMENTS_CACHE, documentCacheLoader);
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Caches not listed here are still bounded by the default spec
+        cacheManager.setCaffeine(builder(new CacheSpecProperties.Spec(), weigher));
+
+        Set<String> names = new LinkedHashSet<>(List.of(DOCUMENTS_CACHE, DOCUMENT_PAGES_CACHE, QAAnswerCache.CACHE_NAME));
+        names.addAll(properties.getSpecs().keySet());
+        for (String name : names) {
+            CacheSpecProperties.Spec spec = properties.getSpecs().getOrDefault(name, new CacheSpecProperties.Spec());
+            Caffeine<Object, Object> builder = builder(spec, weigher);
+            if (spec.getRefreshAfterWrite() == null) {
+                cacheManager.registerCustomCache(name, builder.build());
+                continue;
+            }
+            CacheLoader<Object, Object> loader = loaders.get(name);
+            if (loader == null) {
+                throw new IllegalStateException("Cache '" + name + "' has refresh-after-write but no loader");
+            }
+            cacheManager.registerCustomCache(name, builder.refreshAfterWrite(spec.getRefreshAfterWrite()).build(loader));
+        }
         return cacheManager;
     }
+
+    static Caffeine<Object, Object> builder(CacheSpecProperties.Spec spec, SerializedSizeWeigher weigher) {
+        return Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight().toBytes())
+                .weigher(weigher)
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .recordStats();
+    }
 }
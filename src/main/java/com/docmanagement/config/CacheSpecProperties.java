@@ -0,0 +1,26 @@
+package com.docmanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-cache Caffeine settings from cache.specs.<name>; caches without an entry use the defaults
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CacheSpecProperties {
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+        // Bound on the summed serialized size of the cached values
+        private DataSize maximumWeight = DataSize.ofMegabytes(16);
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+        // Entries read after this age are reloaded in the background; needs a loader for the cache
+        private Duration refreshAfterWrite;
+    }
+}
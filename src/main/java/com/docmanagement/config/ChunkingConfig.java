@@ -0,0 +1,36 @@
+package com.docmanagement.config;
+
+import com.docmanagement.processing.BoundaryAwareChunkingStrategy;
+import com.docmanagement.processing.ChunkingStrategy;
+import com.docmanagement.processing.FixedSizeChunkingStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ChunkingConfig {
+
+    // "boundary" splits on paragraph/sentence/word breaks, "fixed" keeps the old fixed-width cut
+    @Bean
+    public ChunkingStrategy chunkingStrategy(
+            @Value("${document.chunking.strategy:boundary}") String strategy,
+            @Value("${document.chunking.chunk-size:1000}") int chunkSize,
+            @Value("${document.chunking.min-size:0}") int minSize,
+            @Value("${document.chunking.max-size:0}") int maxSize,
+            @Value("${document.chunking.overlap:0}") int overlap,
+            @Value("${document.chunking.max-tokens:0}") int maxTokens) {
+        if ("fixed".equalsIgnoreCase(strategy)) {
+            return new FixedSizeChunkingStrategy(chunkSize);
+        }
+        if (!"boundary".equalsIgnoreCase(strategy)) {
+            throw new IllegalArgumentException("Unknown chunking strategy: " + strategy);
+        }
+
+        return new BoundaryAwareChunkingStrategy(
+                chunkSize,
+                minSize > 0 ? minSize : Math.max(1, chunkSize / 2),
+                maxSize > 0 ? maxSize : chunkSize + chunkSize / 4,
+                overlap,
+                maxTokens);
+    }
+}
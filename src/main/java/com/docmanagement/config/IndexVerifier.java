@@ -0,0 +1,63 @@
+package com.docmanagement.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Warns at startup when indexes the queries rely on are missing, e.g. because a migration was
+// skipped or an index was dropped by hand. Never blocks startup.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndexVerifier {
+
+    // Every index the migrations create or rename must be listed here
+    static final List<String> EXPECTED_INDEXES = List.of(
+            "idx_document_contents_content_vector",
+            "idx_document_chunks_content_vector",
+            "idx_documents_pending_id",
+            "idx_documents_status_created_at",
+            "idx_documents_user_created_at",
+            "idx_documents_created_at_id",
+            "idx_documents_content_hash",
+            "idx_documents_title_trgm",
+            "idx_document_keywords_keyword_lower",
+            "idx_document_keywords_document_id",
+            "idx_document_chunks_document_order",
+            "idx_document_chunks_content_trgm",
+            "idx_document_blobs_released_at",
+            "idx_user_roles_user_id");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyIndexes() {
+        try {
+            Set<String> missing = findMissingIndexes();
+            if (missing.isEmpty()) {
+                log.info("All {} expected indexes are present", EXPECTED_INDEXES.size());
+            } else {
+                log.warn("Missing database indexes {}, queries on the affected tables will fall back to " +
+                        "sequential scans. Check the Flyway migration history.", missing);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not verify database indexes", e);
+        }
+    }
+
+    Set<String> findMissingIndexes() {
+        Set<String> present = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class));
+        Set<String> missing = new LinkedHashSet<>(EXPECTED_INDEXES);
+        missing.removeAll(present);
+        return missing;
+    }
+}
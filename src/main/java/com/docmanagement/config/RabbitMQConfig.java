@@ -1,10 +1,12 @@
 package com.docmanagement.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,6 +17,19 @@ public class RabbitMQConfig {
     public static final String DOCUMENT_EXCHANGE = "document.exchange";
     public static final String DOCUMENT_ROUTING_KEY = "document.routingkey";
 
+    // Failed documents wait here for the retry delay, then expire back onto the document exchange
+    public static final String RETRY_QUEUE = "document.retry.queue";
+    public static final String RETRY_EXCHANGE = "document.retry.exchange";
+
+    // Documents that used up their attempts; kept for inspection and manual replay
+    public static final String DEAD_LETTER_QUEUE = "document.dlq";
+    public static final String DEAD_LETTER_EXCHANGE = "document.dlx";
+    public static final String DEAD_LETTER_ROUTING_KEY = "document.dead";
+
+    // Document lifecycle events fanned out to every node; each node reads them from its own
+    // server-named queue, which disappears with the node
+    public static final String DOCUMENT_EVENTS_EXCHANGE = "document.events";
+
     @Bean
     public Queue documentQueue() {
         return new Queue(DOCUMENT_QUEUE, true);
@@ -30,6 +45,66 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(documentQueue).to(documentExchange).with(DOCUMENT_ROUTING_KEY);
     }
 
+    @Bean
+    public Queue retryQueue(@Value("${document.queue.retry.delay-ms:30000}") long retryDelayMs) {
+        return QueueBuilder.durable(RETRY_QUEUE)
+                .ttl((int) retryDelayMs)
+                .deadLetterExchange(DOCUMENT_EXCHANGE)
+                .deadLetterRoutingKey(DOCUMENT_ROUTING_KEY)
+                .build();
+    }
+
+    @Bean
+    public DirectExchange retryExchange() {
+        return new DirectExchange(RETRY_EXCHANGE);
+    }
+
+    @Bean
+    public Binding retryBinding(Queue retryQueue, DirectExchange retryExchange) {
+        return BindingBuilder.bind(retryQueue).to(retryExchange).with(DOCUMENT_ROUTING_KEY);
+    }
+
+    @Bean
+    public Queue deadLetterQueue() {
+        return new Queue(DEAD_LETTER_QUEUE, true);
+    }
+
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Binding deadLetterBinding(Queue deadLetterQueue, DirectExchange deadLetterExchange) {
+        return BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(DEAD_LETTER_ROUTING_KEY);
+    }
+
+    @Bean
+    public FanoutExchange documentEventsExchange() {
+        return new FanoutExchange(DOCUMENT_EVENTS_EXCHANGE);
+    }
+
+    @Bean
+    public Queue documentEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding documentEventsBinding(Queue documentEventsQueue, FanoutExchange documentEventsExchange) {
+        return BindingBuilder.bind(documentEventsQueue).to(documentEventsExchange);
+    }
+
+    // The default factory hands out message batches for the document queue; events are consumed one by one
+    @Bean
+    public SimpleRabbitListenerContainerFactory documentEventsContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        return factory;
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -0,0 +1,52 @@
+package com.docmanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Weigher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Weighs cache entries by the size of their JSON form, counted without buffering it. Cached values
+// are response DTOs, so this tracks their heap footprint closely enough to size caches in bytes.
+@RequiredArgsConstructor
+@Slf4j
+public class SerializedSizeWeigher implements Weigher<Object, Object> {
+
+    // Used when a value cannot be serialized, so it still counts against the bound
+    static final int FALLBACK_WEIGHT = 4 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        if (value instanceof NullValue) {
+            return 1;
+        }
+        CountingOutputStream out = new CountingOutputStream();
+        try {
+            objectMapper.writeValue(out, value);
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(1, out.count));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not weigh cached {}: {}", value.getClass().getSimpleName(), e.getMessage());
+            return FALLBACK_WEIGHT;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.docmanagement.controller;
 
 import com.docmanagement.dto.response.ApiResponse;
+import com.docmanagement.dto.response.ContentDictionaryResponse;
+import com.docmanagement.dto.response.SearchIndexRebuildResponse;
 import com.docmanagement.dto.response.UserSummaryResponse;
 import com.docmanagement.model.Role;
+import com.docmanagement.service.ContentDictionaryService;
+import com.docmanagement.service.DocumentService;
+import com.docmanagement.service.SearchIndexRebuildService;
+import com.docmanagement.service.StorageMigrationService;
 import com.docmanagement.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -24,6 +31,10 @@ import java.util.Set;
 public class AdminController {
 
     private final UserService userService;
+    private final StorageMigrationService storageMigrationService;
+    private final ContentDictionaryService contentDictionaryService;
+    private final DocumentService documentService;
+    private final SearchIndexRebuildService searchIndexRebuildService;
 
     @GetMapping("/users")
     @Operation(summary = "Get all users")
@@ -50,4 +61,61 @@ public class AdminController {
                 .message("User roles updated successfully")
                 .build());
     }
+
+    @PostMapping("/storage/migrate")
+    @Operation(summary = "Move stored files into the configured storage layout")
+    public ResponseEntity<ApiResponse> migrateStorage() {
+        if (storageMigrationService.isRunning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.builder()
+                    .success(false)
+                    .message("Storage migration is already running")
+                    .build());
+        }
+        storageMigrationService.migrateToCurrentLayout();
+        return ResponseEntity.ok(ApiResponse.builder()
+                .success(true)
+                .message("Storage migration started")
+                .build());
+    }
+
+    @PostMapping("/documents/reprocess")
+    @Operation(summary = "Reprocess documents processed by an older pipeline version; unchanged chunks are kept")
+    public ResponseEntity<ApiResponse> reprocessStaleDocuments() {
+        int requeued = documentService.requeueStaleDocuments();
+        if (requeued > 0) {
+            documentService.processDocumentsBatch();
+        }
+        return ResponseEntity.ok(ApiResponse.builder()
+                .success(true)
+                .message(requeued + " documents queued for reprocessing")
+                .build());
+    }
+
+    @PostMapping("/reindex")
+    @Operation(summary = "Rebuild chunks and search vectors of every completed document, throttled")
+    public ResponseEntity<ApiResponse> rebuildSearchIndex() {
+        if (!searchIndexRebuildService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.builder()
+                    .success(false)
+                    .message("Search index rebuild is already running")
+                    .build());
+        }
+        return ResponseEntity.ok(ApiResponse.builder()
+                .success(true)
+                .message("Search index rebuild started")
+                .build());
+    }
+
+    @GetMapping("/reindex")
+    @Operation(summary = "Progress, throughput and ETA of the latest search index rebuild")
+    public ResponseEntity<SearchIndexRebuildResponse> getSearchIndexRebuildProgress() {
+        return ResponseEntity.ok(searchIndexRebuildService.getProgress());
+    }
+
+    @PostMapping("/content/dictionary")
+    @Operation(summary = "Train the content compression dictionary on the most recent documents")
+    public ResponseEntity<ContentDictionaryResponse> trainContentDictionary(
+            @RequestParam(defaultValue = "500") int samples) {
+        return ResponseEntity.ok(contentDictionaryService.train(samples));
+    }
 }
@@ -2,7 +2,9 @@ package com.docmanagement.controller;
 
 import com.docmanagement.dto.request.DocumentFilterRequest;
 import com.docmanagement.dto.request.DocumentUploadRequest;
+import com.docmanagement.dto.request.TotalCountMode;
 import com.docmanagement.dto.response.ApiResponse;
+import com.docmanagement.dto.response.CursorPagedResponse;
 import com.docmanagement.dto.response.DocumentResponse;
 import com.docmanagement.dto.response.PagedResponse;
 import com.docmanagement.service.DocumentService;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/documents")
@@ -38,6 +41,18 @@ public class DocumentController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Upload a new document by streaming the raw file body")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EDITOR')")
+    public ResponseEntity<DocumentResponse> uploadDocumentStream(
+            InputStream body,
+            @RequestParam("fileName") String fileName,
+            @RequestParam(value = "fileType", required = false) String fileType,
+            @Valid @ModelAttribute DocumentUploadRequest request) throws IOException {
+        DocumentResponse response = documentService.uploadDocumentStream(body, fileName, fileType, request);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get document by ID")
     public ResponseEntity<DocumentResponse> getDocument(@PathVariable Long id) {
@@ -53,6 +68,16 @@ public class DocumentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Get documents page by page with a cursor, newest first")
+    public ResponseEntity<CursorPagedResponse<DocumentResponse>> getDocumentsByCursor(
+            @ModelAttribute DocumentFilterRequest filterRequest,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "count", defaultValue = "NONE") TotalCountMode count) {
+        CursorPagedResponse<DocumentResponse> response = documentService.getDocumentsByCursor(filterRequest, cursor, count);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a document")
     @PreAuthorize("hasRole('ADMIN') or hasRole('EDITOR')")
@@ -1,18 +1,25 @@
 package com.docmanagement.controller;
 
+import com.docmanagement.dto.request.BatchQuestionRequest;
 import com.docmanagement.dto.request.QuestionRequest;
 import com.docmanagement.dto.response.AnswerResponse;
 import com.docmanagement.service.QAService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/qa")
@@ -22,6 +29,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class QAController {
 
     private final QAService qaService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/ask")
     @Operation(summary = "Ask a question and get relevant document snippets")
@@ -29,4 +37,22 @@ public class QAController {
         AnswerResponse response = qaService.answerQuestion(questionRequest);
         return ResponseEntity.ok(response);
     }
+
+    // One JSON answer per line, written as soon as each question is answered
+    @PostMapping(value = "/ask-batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Ask many questions at once; answers are streamed back as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> askQuestions(@Valid @RequestBody BatchQuestionRequest batchQuestionRequest) {
+        StreamingResponseBody body = outputStream -> qaService.answerQuestions(batchQuestionRequest.getQuestions(), answer -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(answer));
+                outputStream.write('\n');
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
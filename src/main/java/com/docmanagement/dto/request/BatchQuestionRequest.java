@@ -0,0 +1,22 @@
+package com.docmanagement.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchQuestionRequest {
+
+    @NotEmpty(message = "At least one question is required")
+    @Size(max = 200, message = "At most 200 questions per request")
+    private List<@Valid QuestionRequest> questions;
+}
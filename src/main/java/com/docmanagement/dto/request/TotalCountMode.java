@@ -0,0 +1,8 @@
+package com.docmanagement.dto.request;
+
+// How the cursor listing reports the total: not at all, from table statistics, or with a COUNT(*)
+public enum TotalCountMode {
+    NONE,
+    ESTIMATE,
+    EXACT
+}
@@ -15,4 +15,6 @@ public class AnswerResponse {
 
     private String question;
     private List<DocumentSnippetResponse> relevantDocuments;
+    // Set when a search source missed its deadline and the answer was built without it
+    private boolean partial;
 }
@@ -0,0 +1,17 @@
+package com.docmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContentDictionaryResponse {
+
+    private long id;
+    private int size;
+    private int samples;
+}
@@ -0,0 +1,24 @@
+package com.docmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPagedResponse<T> {
+
+    private List<T> content;
+    private int size;
+    // Pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+    private boolean last;
+    // Only when requested; an estimate unless totalExact
+    private Long totalElements;
+    private boolean totalExact;
+}
@@ -0,0 +1,17 @@
+package com.docmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Matched question term inside a snippet, as [start, end) character offsets
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HighlightResponse {
+
+    private int start;
+    private int end;
+}
@@ -0,0 +1,31 @@
+package com.docmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchIndexRebuildResponse {
+
+    // Batch status of the latest run, NOT_STARTED before the first one
+    private String status;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    // COMPLETED documents when the rebuild was started
+    private long totalDocuments;
+    // Over all runs of this rebuild, including the ones a restart continued from
+    private long processedDocuments;
+    private long failedDocuments;
+    private double percentComplete;
+    // Of the current run
+    private double documentsPerSecond;
+    // Only while running
+    private Long etaSeconds;
+    private double documentsPerSecondLimit;
+}
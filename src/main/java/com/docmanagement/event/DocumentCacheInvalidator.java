@@ -0,0 +1,70 @@
+package com.docmanagement.event;
+
+import com.docmanagement.config.CacheConfig;
+import com.docmanagement.dto.request.DocumentFilterRequest;
+import com.docmanagement.dto.response.DocumentResponse;
+import com.docmanagement.dto.response.PagedResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Evicts cached documents and listing pages once a lifecycle change has committed, on this node and
+// (through the broadcast) on every other one
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentCacheInvalidator {
+
+    // Processing never changes these, so a status change cannot reorder pages sorted by them
+    private static final Set<String> STABLE_SORT_FIELDS = Set.of("id", "title", "fileName", "fileType", "fileSize", "createdAt");
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentLifecycle(DocumentLifecycleEvent event) {
+        Cache documents = cacheManager.getCache(CacheConfig.DOCUMENTS_CACHE);
+        if (documents != null) {
+            event.getDocumentIds().forEach(documents::evict);
+        }
+
+        Cache pages = cacheManager.getCache(CacheConfig.DOCUMENT_PAGES_CACHE);
+        if (pages == null) {
+            return;
+        }
+        // Uploads and deletes shift the offsets and totals of every page
+        if (event.getType() != DocumentLifecycleEvent.Type.STATUS_CHANGED
+                || !(pages.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativePages)) {
+            pages.clear();
+            return;
+        }
+        Set<Long> ids = new HashSet<>(event.getDocumentIds());
+        long before = nativePages.estimatedSize();
+        nativePages.asMap().entrySet().removeIf(entry -> isAffected(entry, ids));
+        log.debug("Status change of {} documents evicted {} of {} cached pages", ids.size(),
+                before - nativePages.estimatedSize(), before);
+    }
+
+    // A page is stale if it shows one of the documents, or if the set of documents it selects or
+    // their order depends on state that processing changes (status, extracted keywords, updatedAt)
+    private boolean isAffected(Map.Entry<?, ?> entry, Set<Long> ids) {
+        if (!(entry.getKey() instanceof DocumentFilterRequest filter) || !(entry.getValue() instanceof PagedResponse<?> page)) {
+            return true;
+        }
+        if (filter.getStatus() != null || filter.getKeyword() != null || !STABLE_SORT_FIELDS.contains(filter.getSortBy())) {
+            return true;
+        }
+        for (Object document : page.getContent()) {
+            if (document instanceof DocumentResponse response && ids.contains(response.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
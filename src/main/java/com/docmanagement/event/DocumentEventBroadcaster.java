@@ -0,0 +1,53 @@
+package com.docmanagement.event;
+
+import com.docmanagement.config.RabbitMQConfig;
+import com.docmanagement.search.QAAnswerCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+// Relays committed lifecycle events to the other nodes over the document.events fanout, and replays
+// theirs here, so every node evicts its caches and updates its search index
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentEventBroadcaster {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QAAnswerCache answerCache;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void broadcast(DocumentLifecycleEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.DOCUMENT_EVENTS_EXCHANGE, "",
+                    new DocumentLifecycleEvent(event.getType(), event.getDocumentIds(), nodeId,
+                            answerCache.sharedGeneration(event)));
+        } catch (AmqpException e) {
+            // The change is committed; other nodes serve cached entries until they expire and pick it
+            // up in their search index at its next reconcile
+            log.warn("Could not broadcast {} of documents {}: {}", event.getType(), event.getDocumentIds(), e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "#{documentEventsQueue.name}", containerFactory = "documentEventsContainerFactory")
+    public void receive(DocumentLifecycleEvent event) {
+        // The fanout delivers our own events too; they were applied when they were published
+        if (event.getOrigin() == null || nodeId.equals(event.getOrigin())) {
+            return;
+        }
+        log.debug("Applying {} of documents {} from node {}", event.getType(), event.getDocumentIds(), event.getOrigin());
+        eventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,46 @@
+package com.docmanagement.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Published inside the transaction that changes documents; listeners act on it after commit. The
+// same event is broadcast to the other nodes, which republish it locally with their origin set.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentLifecycleEvent {
+
+    public enum Type {
+        UPLOADED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    private Type type;
+    private List<Long> documentIds;
+    // Id of the node that published the event; null on the node where the change happened
+    private String origin;
+    // Shared Q&A cache generation the origin gave the change, see QAAnswerCache.sharedGeneration
+    private Long generation;
+
+    public static DocumentLifecycleEvent uploaded(Long documentId) {
+        return new DocumentLifecycleEvent(Type.UPLOADED, List.of(documentId), null, null);
+    }
+
+    public static DocumentLifecycleEvent statusChanged(List<Long> documentIds) {
+        return new DocumentLifecycleEvent(Type.STATUS_CHANGED, List.copyOf(documentIds), null, null);
+    }
+
+    public static DocumentLifecycleEvent deleted(Long documentId) {
+        return new DocumentLifecycleEvent(Type.DELETED, List.of(documentId), null, null);
+    }
+
+    @JsonIgnore
+    public boolean isRemote() {
+        return origin != null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.docmanagement.listener;
+
+import com.docmanagement.config.RabbitMQConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentRetryHandler {
+
+    static final String RETRY_COUNT_HEADER = "x-retry-count";
+    static final String FAILURE_HEADER = "x-failure-reason";
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${document.queue.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    // True when this delivery is the document's last allowed attempt
+    public boolean isLastAttempt(Message message) {
+        return retries(message) + 1 >= maxAttempts;
+    }
+
+    // Sends the message to the delayed retry queue, or to the dead-letter queue once it is out of attempts
+    public void retryOrDeadLetter(Message message, Exception cause) {
+        if (isLastAttempt(message)) {
+            deadLetter(message, cause);
+            return;
+        }
+
+        int retries = retries(message) + 1;
+        log.info("Scheduling retry {} of {}", retries, maxAttempts - 1);
+        rabbitTemplate.send(RabbitMQConfig.RETRY_EXCHANGE, RabbitMQConfig.DOCUMENT_ROUTING_KEY,
+                MessageBuilder.fromMessage(message)
+                        .setHeader(RETRY_COUNT_HEADER, retries)
+                        .setHeader(FAILURE_HEADER, String.valueOf(cause.getMessage()))
+                        .build());
+    }
+
+    // Sends the message round the delayed retry queue without using up one of its attempts
+    public void retryLater(Message message) {
+        rabbitTemplate.send(RabbitMQConfig.RETRY_EXCHANGE, RabbitMQConfig.DOCUMENT_ROUTING_KEY,
+                MessageBuilder.fromMessage(message).build());
+    }
+
+    public void deadLetter(Message message, Exception cause) {
+        log.warn("Dead-lettering message after {} attempts: {}", retries(message) + 1, cause.getMessage());
+        rabbitTemplate.send(RabbitMQConfig.DEAD_LETTER_EXCHANGE, RabbitMQConfig.DEAD_LETTER_ROUTING_KEY,
+                MessageBuilder.fromMessage(message)
+                        .setHeader(FAILURE_HEADER, String.valueOf(cause.getMessage()))
+                        .build());
+    }
+
+    private int retries(Message message) {
+        Object retries = message.getMessageProperties().getHeader(RETRY_COUNT_HEADER);
+        return retries instanceof Number number ? number.intValue() : 0;
+    }
+}
@@ -1,15 +1,33 @@
 package com.docmanagement.listener;
 
 import com.docmanagement.config.RabbitMQConfig;
+import com.docmanagement.event.DocumentLifecycleEvent;
 import com.docmanagement.model.Document;
 import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.processing.IngestionPipeline;
+import com.docmanagement.repository.DocumentClaimRepository;
 import com.docmanagement.repository.DocumentRepository;
-import com.docmanagement.service.DocumentProcessingService;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -17,40 +35,174 @@ import org.springframework.transaction.annotation.Transactional;
 public class RabbitMQListener {
 
     private final DocumentRepository documentRepository;
-    private final DocumentProcessingService documentProcessingService;
-
-    @RabbitListener(queues = RabbitMQConfig.DOCUMENT_QUEUE)
-    @Transactional
-    public void processDocument(Long documentId) {
-        log.info("Received document ID: {}", documentId);
-        
-        Document document = documentRepository.findById(documentId)
-                .orElse(null);
-        
-        if (document == null) {
-            log.error("Document not found with ID: {}", documentId);
-            return;
+    private final DocumentClaimRepository documentClaimRepository;
+    private final IngestionPipeline ingestionPipeline;
+    private final DocumentRetryHandler documentRetryHandler;
+    private final TransactionOperations transactionOperations;
+    private final MessageConverter messageConverter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${document.queue.claim-timeout-seconds:1800}")
+    private long claimTimeoutSeconds;
+
+    // Receives up to spring.rabbitmq.listener.simple.batch-size ids at once. The batch is claimed in
+    // one short transaction, Tika runs with no transaction open, and each document is then written
+    // in its own short transaction. Messages are acknowledged only after that; failed documents are
+    // handed to the retry queue (or the dead-letter queue) first, so nothing is ever requeued in place.
+    @RabbitListener(queues = RabbitMQConfig.DOCUMENT_QUEUE, batch = "true", ackMode = "MANUAL")
+    public void processDocuments(List<Message> messages, Channel channel) throws IOException {
+        log.info("Received {} document messages", messages.size());
+
+        // The same id can arrive twice (e.g. an upload plus a retry); it is processed once and both are acked
+        Map<Long, Message> byId = new LinkedHashMap<>();
+        for (Message message : messages) {
+            try {
+                byId.putIfAbsent(documentId(message), message);
+            } catch (RuntimeException e) {
+                log.error("Unreadable document message", e);
+                documentRetryHandler.deadLetter(message, e);
+            }
         }
-        
+
+        Map<Long, Exception> failures = new HashMap<>();
+        for (Document document : claim(byId)) {
+            Message message = byId.get(document.getId());
+            Exception failure = process(document, message);
+            if (failure != null) {
+                failures.put(document.getId(), failure);
+            }
+        }
+
+        acknowledge(messages, byId, failures, channel);
+    }
+
+    // Commits PROCESSING for every document of the batch that is still to do, so neither the batch
+    // job nor another consumer picks them up while Tika runs. Documents that are not done but
+    // could not be claimed (locked by the batch job, or another consumer's claim is still fresh) go
+    // round the retry queue again; missing and COMPLETED ones (redelivery after a lost ack) are dropped.
+    private List<Document> claim(Map<Long, Message> byId) {
+        List<Long> claimed = transactionOperations.execute(status ->
+                documentClaimRepository.claim(byId.keySet(), claimTimeoutSeconds));
+        if (claimed.size() < byId.size()) {
+            Set<Long> unclaimed = new HashSet<>(byId.keySet());
+            claimed.forEach(unclaimed::remove);
+            List<Long> busy = documentClaimRepository.findUnfinished(unclaimed);
+            log.info("Skipping {} of {} documents, {} of them are busy elsewhere and retried later",
+                    unclaimed.size(), byId.size(), busy.size());
+            for (Long id : busy) {
+                try {
+                    documentRetryHandler.retryLater(byId.get(id));
+                } catch (AmqpException e) {
+                    // The claim timeout or the batch job's stale-claim sweep picks it up instead
+                    log.error("Could not schedule document {} for later", id, e);
+                }
+            }
+        }
+        return documentRepository.findAllById(claimed);
+    }
+
+    // Extracts outside any transaction, then writes the outcome in a transaction of its own.
+    // Returns the failure to report for this document, or null.
+    private Exception process(Document document, Message message) {
+        Exception extractionFailure = null;
+        String content = null;
         try {
-            document.setStatus(DocumentStatus.PROCESSING);
-            documentRepository.save(document);
-            
-            String content = documentProcessingService.extractContent(document.getFilePath());
-            document.setContent(content);
-            
-            if (document.getKeywords() == null || document.getKeywords().isEmpty()) {
-                document.setKeywords(documentProcessingService.extractKeywords(content));
+            content = ingestionPipeline.extract(document);
+        } catch (Exception e) {
+            extractionFailure = e;
+        }
+
+        Exception failure = extractionFailure;
+        String extracted = content;
+        try {
+            return transactionOperations.execute(status -> {
+                Exception processingFailure = failure;
+                if (processingFailure == null) {
+                    try {
+                        ingestionPipeline.process(document, extracted);
+                        log.info("Document processed successfully: {}", document.getTitle());
+                    } catch (Exception e) {
+                        processingFailure = e;
+                    }
+                } else {
+                    ingestionPipeline.discard(document);
+                }
+                if (processingFailure != null) {
+                    log.error("Error processing document: {}", document.getTitle(), processingFailure);
+                    document.setStatus(failedStatus(message));
+                }
+                persist(List.of(document));
+                return processingFailure;
+            });
+        } catch (RuntimeException e) {
+            log.error("Error processing document {}", document.getId(), e);
+            markFailed(document.getId(), failedStatus(message));
+            return e;
+        }
+    }
+
+    // Runs after commit: failures are republished before anything is acked, so a crash in between
+    // leads to a redelivery rather than a lost document
+    private void acknowledge(List<Message> messages, Map<Long, Message> byId, Map<Long, Exception> failures,
+                             Channel channel) throws IOException {
+        Set<Long> requeued = new HashSet<>();
+        for (Map.Entry<Long, Exception> failure : failures.entrySet()) {
+            Message message = byId.get(failure.getKey());
+            try {
+                documentRetryHandler.retryOrDeadLetter(message, failure.getValue());
+            } catch (AmqpException e) {
+                log.error("Could not schedule retry for document {}, requeueing", failure.getKey(), e);
+                channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, true);
+                requeued.add(failure.getKey());
             }
-            
-            document.setStatus(DocumentStatus.COMPLETED);
-            documentRepository.save(document);
-            
-            log.info("Document processed successfully: {}", document.getTitle());
+        }
+
+        if (requeued.isEmpty()) {
+            long lastTag = messages.get(messages.size() - 1).getMessageProperties().getDeliveryTag();
+            channel.basicAck(lastTag, true);
+            return;
+        }
+
+        Collection<Message> nacked = new ArrayList<>();
+        requeued.forEach(id -> nacked.add(byId.get(id)));
+        for (Message message : messages) {
+            if (!nacked.contains(message)) {
+                channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+            }
+        }
+    }
+
+    private void persist(List<Document> documents) {
+        try {
+            ingestionPipeline.persist(documents);
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Error processing document: {}", document.getTitle(), e);
-            document.setStatus(DocumentStatus.FAILED);
-            documentRepository.save(document);
+            throw new IllegalStateException("Persisting documents failed", e);
+        }
+    }
+
+    private void markFailed(Long documentId, DocumentStatus status) {
+        try {
+            transactionOperations.executeWithoutResult(tx -> {
+                documentRepository.updateStatus(documentId, status);
+                eventPublisher.publishEvent(DocumentLifecycleEvent.statusChanged(List.of(documentId)));
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not update status of document {}", documentId, e);
+        }
+    }
+
+    // Waiting for a retry shows as PENDING; only the last attempt marks the document FAILED
+    private DocumentStatus failedStatus(Message message) {
+        return documentRetryHandler.isLastAttempt(message) ? DocumentStatus.FAILED : DocumentStatus.PENDING;
+    }
+
+    private Long documentId(Message message) {
+        Object payload = messageConverter.fromMessage(message);
+        if (payload instanceof Number number) {
+            return number.longValue();
         }
+        throw new IllegalArgumentException("Unexpected document message payload: " + payload);
     }
 }
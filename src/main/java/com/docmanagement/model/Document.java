@@ -1,12 +1,12 @@
 package com.docmanagement.model;
 
-import com.docmanagement.util.DocumentUtil;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -17,7 +17,10 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+// Metadata only, the extracted text is a DocumentContent. Updates write just the changed columns,
+// so a status transition is a narrow UPDATE.
 @Entity
+@DynamicUpdate
 @Table(name = "documents")
 public class Document {
 
@@ -40,6 +43,16 @@ public class Document {
     @Column(nullable = false)
     private String filePath;
 
+    @Column(length = 64)
+    private String contentHash;
+
+    // contentHash and PipelineVersion the current chunks were produced from, null until processed
+    @Column(length = 64)
+    private String processedHash;
+
+    @Column(length = 64)
+    private String pipelineVersion;
+
     @Column(columnDefinition = "TEXT")
     private String description;
 
@@ -52,12 +65,6 @@ public class Document {
     @Column(name = "keyword")
     private Set<String> keywords = new HashSet<>();
 
-    @Column(columnDefinition = "TEXT")
-    private String content;
-
-    @Column(columnDefinition = "tsvector", insertable = false, updatable = false)
-    private String contentVector;
-
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private DocumentStatus status;
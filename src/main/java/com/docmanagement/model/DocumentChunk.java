@@ -28,6 +28,10 @@ public class DocumentChunk {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
 
-    @Column(columnDefinition = "TSVECTOR")
+    // SHA-256 of content; lets reprocessing keep chunks whose text did not change
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(columnDefinition = "TSVECTOR", insertable = false, updatable = false)
     private String contentVector;
 }
@@ -0,0 +1,38 @@
+package com.docmanagement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Extracted text of a document, one row per document. Kept out of the documents table so listings,
+// filters and status updates never read or rewrite it; only the Q&A searches load it. Either content
+// or contentCompressed (see ContentCodec) is set.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "document_contents")
+public class DocumentContent {
+
+    @Id
+    private Long documentId;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "content_compressed")
+    private byte[] contentCompressed;
+
+    // SHA-256 of the uncompressed text
+    @Column(length = 64)
+    private String textHash;
+
+    @Column(columnDefinition = "tsvector", insertable = false, updatable = false)
+    private String contentVector;
+}
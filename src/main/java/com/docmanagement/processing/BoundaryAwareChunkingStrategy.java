@@ -0,0 +1,120 @@
+package com.docmanagement.processing;
+
+// Ends chunks on the best natural boundary inside the size budget: a paragraph break, then a
+// sentence end, then a word break, and only cuts mid-word when a single "word" fills the budget.
+// Consecutive chunks can share an overlap, which always starts at a word boundary.
+public class BoundaryAwareChunkingStrategy implements ChunkingStrategy {
+
+    private final int targetSize;
+    private final int minSize;
+    private final int maxSize;
+    private final int overlap;
+    private final int maxTokens;
+
+    public BoundaryAwareChunkingStrategy(int targetSize, int minSize, int maxSize, int overlap, int maxTokens) {
+        if (minSize <= 0 || minSize > targetSize || targetSize > maxSize) {
+            throw new IllegalArgumentException("Chunk sizes must satisfy 0 < min <= target <= max");
+        }
+        if (overlap < 0 || overlap >= minSize) {
+            throw new IllegalArgumentException("Overlap must be smaller than the minimum chunk size");
+        }
+        this.targetSize = targetSize;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.overlap = overlap;
+        this.maxTokens = maxTokens;
+    }
+
+    @Override
+    public int chunkEnd(CharSequence text, int start, boolean endOfInput) {
+        int length = text.length();
+        if (!endOfInput && length - start <= maxSize) {
+            return -1;
+        }
+
+        int limit = budgetLimit(text, start, Math.min(length, start + maxSize));
+        if (limit == length && endOfInput) {
+            return length;
+        }
+
+        int lowest = Math.min(start + minSize, limit);
+        int target = Math.min(start + targetSize, limit);
+
+        // Best boundary is the one closest to the target size, preferring stronger breaks
+        int paragraph = -1;
+        int sentence = -1;
+        int word = -1;
+        for (int i = limit; i > lowest; i--) {
+            char previous = text.charAt(i - 1);
+            if (previous == '\n' && i >= 2 && text.charAt(i - 2) == '\n') {
+                paragraph = closer(paragraph, i, target);
+            } else if (Character.isWhitespace(previous) && i >= 2 && isSentenceEnd(text.charAt(i - 2))) {
+                sentence = closer(sentence, i, target);
+            } else if (Character.isWhitespace(previous)) {
+                word = closer(word, i, target);
+            }
+        }
+
+        if (paragraph > 0) {
+            return paragraph;
+        }
+        if (sentence > 0) {
+            return sentence;
+        }
+        if (word > 0) {
+            return word;
+        }
+        return limit;
+    }
+
+    @Override
+    public int nextStart(CharSequence text, int start, int end) {
+        if (overlap == 0) {
+            return end;
+        }
+
+        // Step back by the overlap, then forward to the start of the next word
+        int next = Math.max(start + 1, end - overlap);
+        while (next < end && !Character.isWhitespace(text.charAt(next - 1))) {
+            next++;
+        }
+        return next;
+    }
+
+    @Override
+    public String describe() {
+        return "boundary(" + targetSize + "," + minSize + "," + maxSize + "," + overlap + "," + maxTokens + ")";
+    }
+
+    // Shrinks the window so it holds at most maxTokens whitespace-separated words
+    private int budgetLimit(CharSequence text, int start, int limit) {
+        if (maxTokens <= 0) {
+            return limit;
+        }
+
+        int tokens = 0;
+        boolean inToken = false;
+        for (int i = start; i < limit; i++) {
+            boolean whitespace = Character.isWhitespace(text.charAt(i));
+            if (!whitespace && !inToken) {
+                tokens++;
+                if (tokens > maxTokens) {
+                    return Math.max(i, start + 1);
+                }
+            }
+            inToken = !whitespace;
+        }
+        return limit;
+    }
+
+    private static int closer(int current, int candidate, int target) {
+        if (current < 0) {
+            return candidate;
+        }
+        return Math.abs(candidate - target) < Math.abs(current - target) ? candidate : current;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+}
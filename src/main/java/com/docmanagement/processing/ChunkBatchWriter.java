@@ -0,0 +1,42 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.model.DocumentChunk;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Inserts chunks with JDBC batching. IDENTITY ids keep Hibernate from batching saveAll, which costs
+// one round trip per chunk; here a batch is one statement (a multi-row INSERT once the driver runs
+// with reWriteBatchedInserts=true). Chunks are not attached to the persistence context and do not
+// get their generated ids back; content_vector is filled by the pipeline's index stage.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkBatchWriter {
+
+    private static final String INSERT_CHUNK =
+            "INSERT INTO document_chunks (document_id, chunk_order, content, content_hash) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${document.chunking.insert-batch-size:500}")
+    private int insertBatchSize;
+
+    public void write(List<DocumentChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_CHUNK, chunks, insertBatchSize, (ps, chunk) -> {
+            ps.setLong(1, chunk.getDocument().getId());
+            ps.setInt(2, chunk.getChunkOrder());
+            ps.setString(3, chunk.getContent());
+            ps.setString(4, chunk.getContentHash());
+        });
+        log.debug("Inserted {} chunks in batches of {}", chunks.size(), insertBatchSize);
+    }
+}
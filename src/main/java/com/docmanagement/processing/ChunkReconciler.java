@@ -0,0 +1,131 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.model.DocumentChunk;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes a document's new chunks against the ones it already has, matched by the hash of their text.
+// A chunk whose text is still there keeps its row (and id, so the search index does not have to
+// re-analyze it); only its chunk_order is updated if it moved. New text is inserted and whatever is
+// left of the old set is deleted at the end. Chunks from before content_hash existed never match.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkReconciler {
+
+    private static final String SELECT_CHUNKS =
+            "SELECT id, chunk_order, content_hash FROM document_chunks WHERE document_id = ?";
+    private static final String UPDATE_ORDER = "UPDATE document_chunks SET chunk_order = ? WHERE id = ?";
+    private static final String DELETE_CHUNK = "DELETE FROM document_chunks WHERE id = ?";
+    // Rewriting content makes the database generate content_vector again
+    private static final String REFRESH_VECTOR = "UPDATE document_chunks SET content = content WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChunkBatchWriter chunkBatchWriter;
+
+    public Session begin(Long documentId) {
+        Map<String, ArrayDeque<StoredChunk>> existing = new HashMap<>();
+        List<StoredChunk> unmatchable = new ArrayList<>();
+        jdbcTemplate.query(SELECT_CHUNKS, rs -> {
+            StoredChunk chunk = new StoredChunk(rs.getLong(1), rs.getInt(2));
+            String hash = rs.getString(3);
+            if (hash == null) {
+                unmatchable.add(chunk);
+            } else {
+                existing.computeIfAbsent(hash, h -> new ArrayDeque<>()).add(chunk);
+            }
+        }, documentId);
+        return new Session(documentId, existing, unmatchable);
+    }
+
+    // One reprocessing run. Chunks can be passed in several batches (the streaming path flushes as
+    // it goes); they must arrive in chunk order.
+    public class Session {
+
+        private final Long documentId;
+        private final Map<String, ArrayDeque<StoredChunk>> existing;
+        private final List<StoredChunk> unmatchable;
+        private final List<Object[]> keptIds = new ArrayList<>();
+        private int kept;
+        private int moved;
+        private int inserted;
+
+        private Session(Long documentId, Map<String, ArrayDeque<StoredChunk>> existing, List<StoredChunk> unmatchable) {
+            this.documentId = documentId;
+            this.existing = existing;
+            this.unmatchable = unmatchable;
+        }
+
+        public void accept(List<DocumentChunk> chunks) {
+            List<DocumentChunk> added = new ArrayList<>();
+            List<Object[]> moves = new ArrayList<>();
+            for (DocumentChunk chunk : chunks) {
+                chunk.setContentHash(TextHash.sha256(chunk.getContent()));
+                ArrayDeque<StoredChunk> candidates = existing.get(chunk.getContentHash());
+                StoredChunk match = candidates == null ? null : candidates.poll();
+                if (match == null) {
+                    added.add(chunk);
+                    continue;
+                }
+                kept++;
+                keptIds.add(new Object[]{match.id});
+                if (match.order != chunk.getChunkOrder()) {
+                    moves.add(new Object[]{chunk.getChunkOrder(), match.id});
+                }
+            }
+
+            if (!moves.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_ORDER, moves);
+                moved += moves.size();
+            }
+            chunkBatchWriter.write(added);
+            inserted += added.size();
+        }
+
+        // For the search index rebuild: inserted chunks got fresh vectors, the kept ones still have the
+        // vectors computed when they were first written
+        public void refreshVectors() {
+            if (!keptIds.isEmpty()) {
+                jdbcTemplate.batchUpdate(REFRESH_VECTOR, keptIds);
+            }
+        }
+
+        public Result finish() {
+            List<Object[]> removed = new ArrayList<>();
+            unmatchable.forEach(chunk -> removed.add(new Object[]{chunk.id}));
+            existing.values().forEach(chunks -> chunks.forEach(chunk -> removed.add(new Object[]{chunk.id})));
+            if (!removed.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_CHUNK, removed);
+            }
+
+            log.debug("Document {} chunks: {} kept ({} moved), {} inserted, {} deleted",
+                    documentId, kept, moved, inserted, removed.size());
+            return new Result(kept, moved, inserted, removed.size());
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final int kept;
+        private final int moved;
+        private final int inserted;
+        private final int deleted;
+    }
+
+    @AllArgsConstructor
+    private static class StoredChunk {
+        private final long id;
+        private final int order;
+    }
+}
@@ -0,0 +1,113 @@
+package com.docmanagement.processing;
+
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+// Receives extracted text from Tika as it is parsed and hands it out in chunks as soon as the
+// chunking strategy can place a boundary, so only about one chunk of text is buffered at a time.
+// The accepted text is also copied to the text writer as it arrives, without the chunk overlap.
+public class ChunkingContentHandler extends DefaultHandler {
+
+    private final ChunkingStrategy chunkingStrategy;
+    private final long maxCharacters;
+    private final Consumer<String> chunkConsumer;
+    private final Writer text;
+    private final StringBuilder buffer;
+    private long totalCharacters;
+    // Leading characters of the buffer already emitted as the tail of the previous chunk
+    private int carriedOver;
+
+    public ChunkingContentHandler(int chunkSize, long maxCharacters, Consumer<String> chunkConsumer) {
+        this(new FixedSizeChunkingStrategy(chunkSize), maxCharacters, chunkConsumer);
+    }
+
+    public ChunkingContentHandler(ChunkingStrategy chunkingStrategy, long maxCharacters,
+                                  Consumer<String> chunkConsumer) {
+        this(chunkingStrategy, maxCharacters, chunkConsumer, Writer.nullWriter());
+    }
+
+    public ChunkingContentHandler(ChunkingStrategy chunkingStrategy, long maxCharacters,
+                                  Consumer<String> chunkConsumer, Writer text) {
+        this.chunkingStrategy = chunkingStrategy;
+        this.maxCharacters = maxCharacters;
+        this.chunkConsumer = chunkConsumer;
+        this.text = text;
+        this.buffer = new StringBuilder(4096);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        append(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        append(ch, start, length);
+    }
+
+    @Override
+    public void endDocument() {
+        flush();
+    }
+
+    public long getTotalCharacters() {
+        return totalCharacters;
+    }
+
+    // Emits whatever is left in the buffer; also used when the write limit stops the parse early
+    public void flush() {
+        if (buffer.length() > carriedOver) {
+            drain(true);
+        }
+        buffer.setLength(0);
+        carriedOver = 0;
+    }
+
+    private void append(char[] ch, int start, int length) throws SAXException {
+        int accepted = (int) Math.min(length, maxCharacters - totalCharacters);
+        if (accepted > 0) {
+            try {
+                text.write(ch, start, accepted);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            buffer.append(ch, start, accepted);
+            totalCharacters += accepted;
+            drain(false);
+        }
+
+        if (accepted < length) {
+            throw new WriteLimitReachedException((int) Math.min(maxCharacters, Integer.MAX_VALUE));
+        }
+    }
+
+    // Emits every chunk the strategy can settle on and keeps the rest (plus any overlap) buffered
+    private void drain(boolean endOfInput) {
+        int start = 0;
+        while (start < buffer.length()) {
+            int end = chunkingStrategy.chunkEnd(buffer, start, endOfInput);
+            if (end < 0) {
+                break;
+            }
+            chunkConsumer.accept(buffer.substring(start, end));
+            if (end >= buffer.length()) {
+                start = end;
+                break;
+            }
+            start = chunkingStrategy.nextStart(buffer, start, end);
+            carriedOver = end - start;
+        }
+
+        if (start >= buffer.length()) {
+            buffer.setLength(0);
+            carriedOver = 0;
+        } else if (start > 0) {
+            buffer.delete(0, start);
+        }
+    }
+}
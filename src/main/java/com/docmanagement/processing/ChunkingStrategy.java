@@ -0,0 +1,34 @@
+package com.docmanagement.processing;
+
+// Decides where chunks start and end. Strategies only look at character ranges of the text,
+// the caller materialises each chunk once.
+public interface ChunkingStrategy {
+
+    // End (exclusive) of the chunk starting at start, or -1 when more text is needed to decide.
+    // With endOfInput set a boundary must always be returned.
+    int chunkEnd(CharSequence text, int start, boolean endOfInput);
+
+    // Where the chunk following [start, end) begins; before end when chunks overlap, always after start
+    int nextStart(CharSequence text, int start, int end);
+
+    // Identifies the strategy and its settings, changes whenever the produced chunks would change
+    String describe();
+
+    default void forEachChunk(CharSequence text, ChunkRangeConsumer consumer) {
+        int start = 0;
+        int length = text.length();
+        while (start < length) {
+            int end = chunkEnd(text, start, true);
+            consumer.accept(start, end);
+            if (end >= length) {
+                break;
+            }
+            start = nextStart(text, start, end);
+        }
+    }
+
+    @FunctionalInterface
+    interface ChunkRangeConsumer {
+        void accept(int start, int end);
+    }
+}
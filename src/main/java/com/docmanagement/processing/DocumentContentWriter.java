@@ -0,0 +1,166 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.storage.ContentCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Types;
+import java.util.HexFormat;
+import java.util.List;
+
+// Stores a document's full text, compressed when the codec says so. The text is sent once more as a
+// parameter because the database builds content_vector from it; only the compressed bytes are kept.
+// A rerun that produced the same text (same text_hash) writes nothing unless asked to rewrite it.
+@Component
+@RequiredArgsConstructor
+public class DocumentContentWriter {
+
+    // content_vector is built from this many leading characters
+    private static final int INDEXED_CHARACTERS = 500000;
+
+    private static final String SELECT_TEXT_HASH =
+            "SELECT text_hash FROM document_contents WHERE document_id = ?";
+
+    private static final String UPSERT_CONTENT =
+            "INSERT INTO document_contents (document_id, content, content_compressed, content_vector, text_hash) " +
+            "VALUES (?, ?, ?, to_tsvector('english', left(?, " + INDEXED_CHARACTERS + ")), ?) " +
+            "ON CONFLICT (document_id) DO UPDATE SET content = EXCLUDED.content, " +
+            "content_compressed = EXCLUDED.content_compressed, content_vector = EXCLUDED.content_vector, " +
+            "text_hash = EXCLUDED.text_hash";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ContentCodec contentCodec;
+
+    // Returns false when the stored text was already identical. rewrite stores it anyway, which
+    // recomputes content_vector.
+    public boolean write(Long documentId, String content, boolean rewrite) {
+        String textHash = TextHash.sha256(content);
+        if (isStored(documentId, textHash, rewrite)) {
+            return false;
+        }
+
+        byte[] compressed = contentCodec.shouldCompress(content) ? contentCodec.compress(content) : null;
+        upsert(documentId, compressed == null ? content : null, compressed, content, textHash);
+        return true;
+    }
+
+    // Same as write(Long, String, boolean) for text collected by a StreamedText
+    public boolean write(Long documentId, StreamedText text, boolean rewrite) {
+        text.finish();
+        if (isStored(documentId, text.textHash, rewrite)) {
+            return false;
+        }
+
+        byte[] compressed = text.isCompressed() ? text.compressed.toByteArray() : null;
+        String indexed = text.head.toString();
+        upsert(documentId, compressed == null ? indexed : null, compressed, indexed, text.textHash);
+        return true;
+    }
+
+    // Collects text written piece by piece. Once the text is long enough to be compressed, only the
+    // compressed stream and its first INDEXED_CHARACTERS characters are held, never the full text.
+    public StreamedText stream() {
+        return new StreamedText();
+    }
+
+    private boolean isStored(Long documentId, String textHash, boolean rewrite) {
+        if (rewrite) {
+            return false;
+        }
+        List<String> stored = jdbcTemplate.queryForList(SELECT_TEXT_HASH, String.class, documentId);
+        return !stored.isEmpty() && textHash.equals(stored.get(0));
+    }
+
+    private void upsert(Long documentId, String content, byte[] compressed, String indexed, String textHash) {
+        jdbcTemplate.update(UPSERT_CONTENT, ps -> {
+            ps.setLong(1, documentId);
+            if (compressed != null) {
+                ps.setNull(2, Types.VARCHAR);
+                ps.setBytes(3, compressed);
+            } else {
+                ps.setString(2, content);
+                ps.setNull(3, Types.BINARY);
+            }
+            ps.setString(4, indexed);
+            ps.setString(5, textHash);
+        });
+    }
+
+    public class StreamedText extends Writer {
+
+        private final MessageDigest digest;
+        private final Writer hashed;
+        private final ByteArrayOutputStream compressed;
+        private final Writer compressor;
+        private final StringBuilder head = new StringBuilder();
+        private long length;
+        private String textHash;
+
+        private StreamedText() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            // The UTF-8 encoder keeps a surrogate pair together even when it is split across writes
+            hashed = new OutputStreamWriter(new DigestOutputStream(OutputStream.nullOutputStream(), digest),
+                    StandardCharsets.UTF_8);
+            compressed = contentCodec.isEnabled() ? new ByteArrayOutputStream() : null;
+            compressor = compressed != null ? contentCodec.compressTo(compressed) : null;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int count) throws IOException {
+            hashed.write(chars, offset, count);
+            if (compressor != null) {
+                compressor.write(chars, offset, count);
+            }
+            length += count;
+            // Text that will be stored plain is kept whole; once it is long enough to be compressed
+            // only the part content_vector is built from is needed
+            head.append(chars, offset, count);
+            if (head.length() > INDEXED_CHARACTERS && isCompressed()) {
+                head.setLength(INDEXED_CHARACTERS);
+            }
+        }
+
+        private boolean isCompressed() {
+            return compressor != null && contentCodec.shouldCompress(length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            finish();
+        }
+
+        private void finish() {
+            if (textHash != null) {
+                return;
+            }
+            try {
+                hashed.close();
+                if (compressor != null) {
+                    compressor.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            textHash = HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.docmanagement.processing;
+
+// The original splitter: cuts every chunkSize characters regardless of words or sentences
+public class FixedSizeChunkingStrategy implements ChunkingStrategy {
+
+    private final int chunkSize;
+
+    public FixedSizeChunkingStrategy(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int chunkEnd(CharSequence text, int start, boolean endOfInput) {
+        int end = start + chunkSize;
+        if (end <= text.length()) {
+            return end;
+        }
+        return endOfInput ? text.length() : -1;
+    }
+
+    @Override
+    public int nextStart(CharSequence text, int start, int end) {
+        return end;
+    }
+
+    @Override
+    public String describe() {
+        return "fixed(" + chunkSize + ")";
+    }
+}
@@ -0,0 +1,223 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.event.DocumentLifecycleEvent;
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentChunk;
+import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.repository.DocumentChunkRepository;
+import com.docmanagement.repository.DocumentRepository;
+import com.docmanagement.service.DocumentDeduplicationService;
+import com.docmanagement.service.DocumentProcessingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// The single path every document takes, whether it arrives from the queue or the batch job:
+// extract -> chunk -> keyword -> index -> persist. Each stage has its own concurrency limit, so
+// e.g. a burst of large PDFs cannot starve the database-bound stages or the other way round.
+@Component
+@Slf4j
+public class IngestionPipeline {
+
+    private final DocumentProcessingService documentProcessingService;
+    private final DocumentDeduplicationService documentDeduplicationService;
+    private final StreamingChunkIngestor streamingChunkIngestor;
+    private final ChunkingStrategy chunkingStrategy;
+    private final ChunkReconciler chunkReconciler;
+    private final DocumentChunkRepository documentChunkRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentContentWriter documentContentWriter;
+    private final PipelineVersion pipelineVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean streamingExtraction;
+
+    private final PipelineStage extractStage;
+    private final PipelineStage chunkStage;
+    private final PipelineStage keywordStage;
+    private final PipelineStage indexStage;
+    private final PipelineStage persistStage;
+
+    public IngestionPipeline(DocumentProcessingService documentProcessingService,
+                             DocumentDeduplicationService documentDeduplicationService,
+                             StreamingChunkIngestor streamingChunkIngestor,
+                             ChunkingStrategy chunkingStrategy,
+                             ChunkReconciler chunkReconciler,
+                             DocumentChunkRepository documentChunkRepository,
+                             DocumentRepository documentRepository,
+                             DocumentContentWriter documentContentWriter,
+                             PipelineVersion pipelineVersion,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${document.extraction.streaming.enabled:false}") boolean streamingExtraction,
+                             @Value("${document.pipeline.concurrency.extract:4}") int extractConcurrency,
+                             @Value("${document.pipeline.concurrency.chunk:4}") int chunkConcurrency,
+                             @Value("${document.pipeline.concurrency.keyword:4}") int keywordConcurrency,
+                             @Value("${document.pipeline.concurrency.index:2}") int indexConcurrency,
+                             @Value("${document.pipeline.concurrency.persist:4}") int persistConcurrency) {
+        this.documentProcessingService = documentProcessingService;
+        this.documentDeduplicationService = documentDeduplicationService;
+        this.streamingChunkIngestor = streamingChunkIngestor;
+        this.chunkingStrategy = chunkingStrategy;
+        this.chunkReconciler = chunkReconciler;
+        this.documentChunkRepository = documentChunkRepository;
+        this.documentRepository = documentRepository;
+        this.documentContentWriter = documentContentWriter;
+        this.pipelineVersion = pipelineVersion;
+        this.eventPublisher = eventPublisher;
+        this.streamingExtraction = streamingExtraction;
+        this.extractStage = new PipelineStage("extract", threads(extractConcurrency));
+        this.chunkStage = new PipelineStage("chunk", threads(chunkConcurrency));
+        this.keywordStage = new PipelineStage("keyword", threads(keywordConcurrency));
+        this.indexStage = new PipelineStage("index", threads(indexConcurrency));
+        this.persistStage = new PipelineStage("persist", threads(persistConcurrency));
+    }
+
+    // Runs Tika ahead of process(), for callers that keep extraction out of their write transaction.
+    // Needs no transaction itself. Returns null when process() will not need the text: the document
+    // is up to date, a processed duplicate can be copied, or extraction streams into the chunk writes.
+    public String extract(Document document) throws Exception {
+        String version = pipelineVersion.get();
+        if (streamingExtraction || isUpToDate(document, version)
+                || documentDeduplicationService.hasProcessedDuplicate(document, version)) {
+            return null;
+        }
+        return extractStage.run(() -> documentProcessingService.extractContent(document.getFilePath()));
+    }
+
+    public void process(Document document) throws Exception {
+        process(document, null);
+    }
+
+    // Runs every stage up to (not including) persist and leaves the document COMPLETED. On failure
+    // the document's chunks are removed and the exception is rethrown to the caller.
+    // A document whose bytes and pipeline version have not changed since its last run is skipped;
+    // otherwise only the chunks and text that differ from the stored ones are written. Text passed
+    // in from extract() is used instead of extracting again.
+    public void process(Document document, String extractedContent) throws Exception {
+        String version = pipelineVersion.get();
+        if (isUpToDate(document, version)) {
+            log.debug("Document {} is up to date with pipeline {}, skipping", document.getId(), version);
+            document.setStatus(DocumentStatus.COMPLETED);
+            return;
+        }
+
+        document.setStatus(DocumentStatus.PROCESSING);
+        try {
+            if (!documentDeduplicationService.reuseProcessedContent(document, version)) {
+                reprocess(document, false, extractedContent);
+            }
+        } catch (Exception e) {
+            discard(document);
+            throw e;
+        }
+
+        document.setProcessedHash(document.getContentHash());
+        document.setPipelineVersion(version);
+        document.setStatus(DocumentStatus.COMPLETED);
+    }
+
+    // Used by the search index rebuild on COMPLETED documents: always runs, from the file rather than
+    // a duplicate's copy, and recomputes every search vector of the document. The status is left
+    // alone and nothing is cleaned up on failure; the caller's transaction rolls the document back.
+    public void rebuild(Document document) throws Exception {
+        reprocess(document, true, null);
+        document.setProcessedHash(document.getContentHash());
+        document.setPipelineVersion(pipelineVersion.get());
+    }
+
+    // Saves the documents with their new status (only the changed columns, the text is already
+    // stored); once the transaction commits, the caches drop them and the search index picks up the
+    // new chunks
+    public void persist(Collection<? extends Document> documents) throws Exception {
+        persistStage.run(() -> documentRepository.saveAll(documents));
+        if (!documents.isEmpty()) {
+            eventPublisher.publishEvent(DocumentLifecycleEvent.statusChanged(
+                    documents.stream().map(Document::getId).toList()));
+        }
+    }
+
+    // What a failed run leaves behind: no chunks and no processed input, so the next run starts over
+    public void discard(Document document) {
+        documentChunkRepository.deleteByDocumentId(document.getId());
+        document.setProcessedHash(null);
+        document.setPipelineVersion(null);
+    }
+
+    public List<PipelineStage> getStages() {
+        return List.of(extractStage, chunkStage, keywordStage, indexStage, persistStage);
+    }
+
+    private void reprocess(Document document, boolean rebuild, String extractedContent) throws Exception {
+        ChunkReconciler.Session chunks = chunkReconciler.begin(document.getId());
+        if (streamingExtraction && extractedContent == null) {
+            ingestStreaming(document, chunks, rebuild);
+        } else {
+            ingest(document, chunks, rebuild, extractedContent);
+        }
+        if (rebuild) {
+            chunks.refreshVectors();
+        }
+        chunks.finish();
+    }
+
+    private void ingest(Document document, ChunkReconciler.Session chunkSession, boolean rewriteText,
+                        String extractedContent) throws Exception {
+        String content = extractedContent != null ? extractedContent
+                : extractStage.run(() -> documentProcessingService.extractContent(document.getFilePath()));
+        List<DocumentChunk> chunks = chunkStage.run(() -> createChunks(document, content));
+
+        if (document.getKeywords() == null || document.getKeywords().isEmpty()) {
+            document.setKeywords(keywordStage.run(() -> documentProcessingService.extractKeywords(content)));
+        }
+
+        // Writing the chunks and the text is what makes them searchable: content_vector is generated
+        // for chunks and written with the text
+        indexStage.run(() -> {
+            chunkSession.accept(chunks);
+            documentContentWriter.write(document.getId(), content, rewriteText);
+            return null;
+        });
+    }
+
+    // Bounded-memory mode: extraction, chunking and chunk writes overlap while Tika is still parsing,
+    // so the whole run counts against the extract stage
+    private void ingestStreaming(Document document, ChunkReconciler.Session chunkSession, boolean rewriteText)
+            throws Exception {
+        DocumentContentWriter.StreamedText text = documentContentWriter.stream();
+        Set<String> keywords = extractStage.run(() -> streamingChunkIngestor.ingest(document, chunkSession, text));
+        if (document.getKeywords() == null || document.getKeywords().isEmpty()) {
+            document.setKeywords(keywords);
+        }
+        indexStage.run(() -> documentContentWriter.write(document.getId(), text, rewriteText));
+    }
+
+    // Without a content hash there is nothing to compare, so such documents always run
+    private static boolean isUpToDate(Document document, String version) {
+        return document.getContentHash() != null
+                && document.getContentHash().equals(document.getProcessedHash())
+                && version.equals(document.getPipelineVersion());
+    }
+
+    // 0 means one per CPU core, like the extraction pool
+    private static int threads(int concurrency) {
+        return concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+    }
+
+    private List<DocumentChunk> createChunks(Document document, String content) {
+        List<DocumentChunk> chunks = new ArrayList<>();
+
+        // Boundaries are found on the original string, each chunk is copied out exactly once
+        chunkingStrategy.forEachChunk(content, (start, end) -> chunks.add(DocumentChunk.builder()
+                .document(document)
+                .chunkOrder(chunks.size())
+                .content(content.substring(start, end))
+                .build()));
+
+        return chunks;
+    }
+}
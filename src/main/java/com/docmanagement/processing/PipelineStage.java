@@ -0,0 +1,63 @@
+package com.docmanagement.processing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One step of the ingestion pipeline. At most `concurrency` documents are inside the stage at once,
+// across all entry points; the rest wait for a permit.
+@Slf4j
+public class PipelineStage {
+
+    private final String name;
+    private final int concurrency;
+    private final Semaphore permits;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    public PipelineStage(String name, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency of stage " + name + " must be positive");
+        }
+        this.name = name;
+        this.concurrency = concurrency;
+        this.permits = new Semaphore(concurrency, true);
+    }
+
+    public <T> T run(Callable<T> work) throws Exception {
+        permits.acquire();
+        long started = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            permits.release();
+            totalNanos.addAndGet(elapsed);
+            completed.incrementAndGet();
+            log.debug("Stage {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getInFlight() {
+        return concurrency - permits.availablePermits();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+    }
+}
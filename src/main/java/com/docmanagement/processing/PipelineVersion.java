@@ -0,0 +1,32 @@
+package com.docmanagement.processing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Identifies what the pipeline would produce for a given input: the manual version, bumped when
+// extraction or keyword code changes, plus every setting that shapes the chunks or stored text.
+// A document processed under the same version and input hash is skipped when it comes round again.
+@Component
+public class PipelineVersion {
+
+    private final String value;
+
+    public PipelineVersion(@Value("${document.pipeline.version:1}") int version,
+                           @Value("${document.chunking.strategy:boundary}") String strategy,
+                           @Value("${document.chunking.chunk-size:1000}") int chunkSize,
+                           @Value("${document.chunking.min-size:0}") int minSize,
+                           @Value("${document.chunking.max-size:0}") int maxSize,
+                           @Value("${document.chunking.overlap:0}") int overlap,
+                           @Value("${document.chunking.max-tokens:0}") int maxTokens,
+                           @Value("${document.extraction.max-characters:5000000}") int maxCharacters,
+                           @Value("${document.extraction.streaming.enabled:false}") boolean streaming) {
+        String settings = String.join("|", strategy.toLowerCase(), String.valueOf(chunkSize),
+                String.valueOf(minSize), String.valueOf(maxSize), String.valueOf(overlap),
+                String.valueOf(maxTokens), String.valueOf(maxCharacters), String.valueOf(streaming));
+        this.value = version + "-" + TextHash.sha256(settings).substring(0, 12);
+    }
+
+    public String get() {
+        return value;
+    }
+}
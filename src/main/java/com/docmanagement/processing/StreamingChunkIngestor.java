@@ -0,0 +1,60 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentChunk;
+import com.docmanagement.service.DocumentProcessingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.exception.TikaException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StreamingChunkIngestor {
+
+    private final DocumentProcessingService documentProcessingService;
+    private final ChunkingStrategy chunkingStrategy;
+
+    @Value("${document.extraction.streaming.flush-size:50}")
+    private int flushSize;
+
+    // Extracts, chunks and persists the document as the text arrives; peak memory is one flush
+    // batch of chunks. The text itself goes to the given writer for document_contents.
+    // Returns the keywords collected from the chunks along the way.
+    public Set<String> ingest(Document document, ChunkReconciler.Session chunks, Writer text)
+            throws IOException, TikaException {
+        List<DocumentChunk> pending = new ArrayList<>(flushSize);
+        Set<String> keywords = new HashSet<>();
+        AtomicInteger chunkOrder = new AtomicInteger();
+
+        documentProcessingService.streamChunks(document.getFilePath(), chunkingStrategy, chunk -> {
+            keywords.addAll(documentProcessingService.extractKeywords(chunk));
+            pending.add(DocumentChunk.builder()
+                    .document(document)
+                    .chunkOrder(chunkOrder.getAndIncrement())
+                    .content(chunk)
+                    .build());
+            if (pending.size() >= flushSize) {
+                chunks.accept(pending);
+                pending.clear();
+            }
+        }, text);
+
+        if (!pending.isEmpty()) {
+            chunks.accept(pending);
+        }
+
+        log.debug("Streamed {} chunks for document {}", chunkOrder.get(), document.getId());
+        return keywords;
+    }
+}
@@ -0,0 +1,51 @@
+package com.docmanagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+// Preset dictionaries of the compressed content format, keyed by their Adler-32 (the id zlib writes
+// into every stream compressed against them). Rows are never updated or deleted: stored text may
+// still reference any of them.
+@Repository
+@RequiredArgsConstructor
+public class ContentDictionaryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<byte[]> findDictionary(long id) {
+        List<byte[]> rows = jdbcTemplate.query("SELECT dictionary FROM content_dictionaries WHERE id = ?",
+                (rs, rowNum) -> rs.getBytes("dictionary"), id);
+        return rows.stream().findFirst();
+    }
+
+    public Optional<byte[]> findLatest() {
+        List<byte[]> rows = jdbcTemplate.query(
+                "SELECT dictionary FROM content_dictionaries ORDER BY created_at DESC LIMIT 1",
+                (rs, rowNum) -> rs.getBytes("dictionary"));
+        return rows.stream().findFirst();
+    }
+
+    // Training the same dictionary twice is a no-op; created_at moves so it becomes the latest again
+    public void save(long id, byte[] dictionary) {
+        jdbcTemplate.update("INSERT INTO content_dictionaries (id, dictionary, created_at) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (id) DO UPDATE SET created_at = EXCLUDED.created_at",
+                id, dictionary, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // Stored text of the most recent documents, plain or compressed, as training samples. Plain text is
+    // cut to its first maxChars characters by the database; compressed text has to be cut by the caller.
+    public void forEachRecentContent(int limit, int maxChars, BiConsumer<String, byte[]> consumer) {
+        jdbcTemplate.query("SELECT LEFT(content, ?) AS content, content_compressed FROM document_contents " +
+                        "ORDER BY document_id DESC LIMIT ?",
+                rs -> {
+                    consumer.accept(rs.getString("content"), rs.getBytes("content_compressed"));
+                }, maxChars, limit);
+    }
+}
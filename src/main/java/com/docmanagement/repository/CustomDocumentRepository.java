@@ -1,10 +1,24 @@
 package com.docmanagement.repository;
 
-import com.docmanagement.model.Document;
 import com.docmanagement.dto.request.DocumentFilterRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public interface CustomDocumentRepository {
-    Page<Document> findByFilters(DocumentFilterRequest request, Pageable pageable);
+    Page<DocumentSummary> findByFilters(DocumentFilterRequest request, Pageable pageable);
+
+    // Keyset page in (createdAt DESC, id DESC) order, starting after the cursor (null for the first page)
+    List<DocumentSummary> findByFiltersAfter(DocumentFilterRequest request, DocumentCursor after, int limit);
+
+    Map<Long, Set<String>> findKeywordsByDocumentIds(Collection<Long> documentIds);
+
+    long countByFilters(DocumentFilterRequest request);
+
+    // Planner statistics instead of a COUNT(*); null when the request has filters or the table was never analysed
+    Long estimateCountByFilters(DocumentFilterRequest request);
 }
@@ -1,19 +1,27 @@
 package com.docmanagement.repository;
 
 import com.docmanagement.model.Document;
+import com.docmanagement.model.User;
 import com.docmanagement.dto.request.DocumentFilterRequest;
 import com.docmanagement.repository.CustomDocumentRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.criteria.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 public class CustomDocumentRepositoryImpl implements CustomDocumentRepository {
@@ -22,34 +30,110 @@ public class CustomDocumentRepositoryImpl implements CustomDocumentRepository {
     private EntityManager entityManager;
 
     @Override
-    public Page<Document> findByFilters(DocumentFilterRequest request, Pageable pageable) {
+    public Page<DocumentSummary> findByFilters(DocumentFilterRequest request, Pageable pageable) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
 
         // === Main Query ===
-        CriteriaQuery<Document> cq = cb.createQuery(Document.class);
+        CriteriaQuery<DocumentSummary> cq = cb.createQuery(DocumentSummary.class);
         Root<Document> root = cq.from(Document.class);
+        selectSummary(cq, cb, root);
 
-        List<Predicate> predicates = buildPredicates(request, cb, root);
+        List<Predicate> predicates = buildPredicates(request, cb, cq, root);
         cq.where(predicates.toArray(new Predicate[0]));
-        cq.orderBy(cb.desc(root.get("createdAt")));
+        // id breaks ties, so rows with the same sort value never move between pages
+        List<Order> orders = new ArrayList<>(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        orders.add(pageable.getSort().stream().findFirst().map(Sort.Order::isAscending).orElse(false)
+                ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+        cq.orderBy(orders);
 
-        TypedQuery<Document> query = entityManager.createQuery(cq);
+        TypedQuery<DocumentSummary> query = entityManager.createQuery(cq);
         query.setFirstResult((int) pageable.getOffset());
         query.setMaxResults(pageable.getPageSize());
-        List<Document> resultList = query.getResultList();
+        List<DocumentSummary> resultList = query.getResultList();
 
-        // === Count Query ===
+        // === Count Query === skipped when this page already tells the total (e.g. a short first page)
+        return PageableExecutionUtils.getPage(resultList, pageable, () -> countByFilters(request));
+    }
+
+    @Override
+    public List<DocumentSummary> findByFiltersAfter(DocumentFilterRequest request, DocumentCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DocumentSummary> cq = cb.createQuery(DocumentSummary.class);
+        Root<Document> root = cq.from(Document.class);
+        selectSummary(cq, cb, root);
+
+        List<Predicate> predicates = buildPredicates(request, cb, cq, root);
+        if (after != null) {
+            // (created_at, id) < (cursor); the plain created_at bound is what lets the index scan start
+            // at the cursor instead of filtering every row before it
+            predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), after.getCreatedAt()));
+            predicates.add(cb.or(
+                    cb.lessThan(root.get("createdAt"), after.getCreatedAt()),
+                    cb.lessThan(root.get("id"), after.getId())));
+        }
+        cq.where(predicates.toArray(new Predicate[0]));
+        cq.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(cq)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // One query for the keywords of a whole page, instead of one lazy collection load per document
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Long, Set<String>> findKeywordsByDocumentIds(Collection<Long> documentIds) {
+        Map<Long, Set<String>> keywords = new HashMap<>();
+        if (documentIds.isEmpty()) {
+            return keywords;
+        }
+        List<Object[]> rows = entityManager
+                .createNativeQuery("SELECT document_id, keyword FROM document_keywords WHERE document_id IN (:ids)")
+                .setParameter("ids", documentIds)
+                .getResultList();
+        for (Object[] row : rows) {
+            keywords.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashSet<>()).add((String) row[1]);
+        }
+        return keywords;
+    }
+
+    @Override
+    public long countByFilters(DocumentFilterRequest request) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
         Root<Document> countRoot = countQuery.from(Document.class);
-        List<Predicate> countPredicates = buildPredicates(request, cb, countRoot);
+        List<Predicate> countPredicates = buildPredicates(request, cb, countQuery, countRoot);
         countQuery.select(cb.count(countRoot));
         countQuery.where(countPredicates.toArray(new Predicate[0]));
-        Long count = entityManager.createQuery(countQuery).getSingleResult();
+        return entityManager.createQuery(countQuery).getSingleResult();
+    }
 
-        return new PageImpl<>(resultList, pageable, count);
+    @Override
+    public Long estimateCountByFilters(DocumentFilterRequest request) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        // The table statistics only describe the unfiltered listing
+        if (!buildPredicates(request, cb, query, query.from(Document.class)).isEmpty()) {
+            return null;
+        }
+        Number estimate = (Number) entityManager
+                .createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = 'documents'::regclass")
+                .getSingleResult();
+        // -1 until the first ANALYZE / autovacuum
+        return estimate.longValue() >= 0 ? estimate.longValue() : null;
     }
 
-    private List<Predicate> buildPredicates(DocumentFilterRequest request, CriteriaBuilder cb, Root<Document> root) {
+    // The uploader comes from the same statement
+    private void selectSummary(CriteriaQuery<DocumentSummary> cq, CriteriaBuilder cb, Root<Document> root) {
+        Join<Document, User> uploader = root.join("uploadedBy");
+        cq.select(cb.construct(DocumentSummary.class,
+                root.get("id"), root.get("title"), root.get("fileName"), root.get("fileType"), root.get("fileSize"),
+                root.get("description"), root.get("status"), root.get("createdAt"), root.get("updatedAt"),
+                uploader.get("id"), uploader.get("username"), uploader.get("firstName"), uploader.get("lastName")));
+    }
+
+    private List<Predicate> buildPredicates(DocumentFilterRequest request, CriteriaBuilder cb,
+                                            AbstractQuery<?> query, Root<Document> root) {
         List<Predicate> predicates = new ArrayList<>();
 
         if (request.getTitle() != null) {
@@ -70,6 +154,16 @@ public class CustomDocumentRepositoryImpl implements CustomDocumentRepository {
         if (request.getCreatedBefore() != null) {
             predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), request.getCreatedBefore()));
         }
+        if (request.getKeyword() != null && !request.getKeyword().isEmpty()) {
+            // EXISTS rather than a join, so a document never shows up twice
+            Subquery<Long> withKeyword = query.subquery(Long.class);
+            Root<Document> keywordRoot = withKeyword.from(Document.class);
+            Join<Document, String> keyword = keywordRoot.join("keywords");
+            withKeyword.select(keywordRoot.get("id")).where(
+                    cb.equal(keywordRoot.get("id"), root.get("id")),
+                    cb.equal(cb.lower(keyword), request.getKeyword().toLowerCase()));
+            predicates.add(cb.exists(withKeyword));
+        }
 
         return predicates;
     }
@@ -0,0 +1,36 @@
+package com.docmanagement.repository;
+
+import com.docmanagement.model.DocumentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM DocumentBlob b WHERE b.hash = :hash")
+    Optional<DocumentBlob> findByHashForUpdate(@Param("hash") String hash);
+
+    // Takes a reference on the blob, creating its row on the first upload of the bytes. One statement,
+    // so concurrent first uploads of the same content share the row instead of colliding on the key.
+    @Modifying
+    @Query(value = "INSERT INTO document_blobs (hash, path, size, ref_count, created_at) " +
+            "VALUES (:hash, :path, :size, 1, now()) " +
+            "ON CONFLICT (hash) DO UPDATE SET ref_count = document_blobs.ref_count + 1, released_at = NULL",
+            nativeQuery = true)
+    int addReference(@Param("hash") String hash, @Param("path") String path, @Param("size") long size);
+
+    // Unreferenced blobs whose grace period is over, oldest first
+    @Query("SELECT b.hash FROM DocumentBlob b WHERE b.refCount = 0 AND b.releasedAt < :before ORDER BY b.releasedAt")
+    List<String> findReleasedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+}
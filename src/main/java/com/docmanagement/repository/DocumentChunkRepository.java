@@ -4,6 +4,7 @@ import com.docmanagement.model.Document;
 import com.docmanagement.model.DocumentChunk;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,9 +16,9 @@ public interface DocumentChunkRepository extends JpaRepository<DocumentChunk, Lo
 
     List<DocumentChunk> findByDocumentOrderByChunkOrder(Document document);
     
-    @Query(value = "SELECT dc.* FROM document_chunks dc " +
-                  "WHERE to_tsvector('english', dc.content) @@ plainto_tsquery('english', :query) " +
-                  "ORDER BY ts_rank(to_tsvector('english', dc.content), plainto_tsquery('english', :query)) DESC",
+    @Query(value = "SELECT dc.* FROM document_chunks dc, plainto_tsquery('english', :query) q " +
+                  "WHERE dc.content_vector @@ q " +
+                  "ORDER BY ts_rank(dc.content_vector, q) DESC",
            nativeQuery = true)
     List<DocumentChunk> searchByContentFullText(@Param("query") String query, Pageable pageable);
     
@@ -26,4 +27,15 @@ public interface DocumentChunkRepository extends JpaRepository<DocumentChunk, Lo
                   "ORDER BY dc.id",
            nativeQuery = true)
     List<DocumentChunk> searchByContentSimple(@Param("query") String query, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM DocumentChunk dc WHERE dc.document.id = :documentId")
+    void deleteByDocumentId(@Param("documentId") Long documentId);
+
+    // Server-side copy, the chunk text never leaves the database
+    @Modifying
+    @Query(value = "INSERT INTO document_chunks (document_id, chunk_order, content, content_hash) " +
+            "SELECT :targetId, chunk_order, content, content_hash FROM document_chunks WHERE document_id = :sourceId",
+            nativeQuery = true)
+    int copyChunks(@Param("sourceId") Long sourceId, @Param("targetId") Long targetId);
 }
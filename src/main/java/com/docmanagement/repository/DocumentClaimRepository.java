@@ -0,0 +1,87 @@
+package com.docmanagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Moves documents to PROCESSING in the caller's transaction, so the batch job and the queue
+// listener never work on the same document at the same time. A rollback releases the claim; the
+// queue listener commits its claim right away and settles each document in a later transaction.
+@Repository
+@RequiredArgsConstructor
+public class DocumentClaimRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Claims the next PENDING documents of the id range (afterId, maxId] in id order. Rows another
+    // worker has locked are skipped instead of waited for.
+    public List<Long> claimPending(long afterId, long maxId, int limit) {
+        String sql = "UPDATE documents SET status = 'PROCESSING', updated_at = now() WHERE id IN (" +
+                "SELECT id FROM documents WHERE status = 'PENDING' AND id > :afterId AND id <= :maxId " +
+                "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING id";
+        return jdbcTemplate.queryForList(sql, new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("maxId", maxId)
+                .addValue("limit", limit), Long.class);
+    }
+
+    // Claims the given documents unless they are already done or being processed. Rows another
+    // transaction has locked are skipped instead of waited for. A committed PROCESSING claim older
+    // than staleAfterSeconds was abandoned by a node that died mid-batch and is taken over.
+    public List<Long> claim(Collection<Long> ids, long staleAfterSeconds) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = "UPDATE documents SET status = 'PROCESSING', updated_at = now() WHERE id IN (" +
+                "SELECT id FROM documents WHERE id IN (:ids) AND (status IN ('PENDING', 'FAILED') " +
+                "OR (status = 'PROCESSING' AND updated_at < now() - make_interval(secs => :staleAfter))) " +
+                "FOR UPDATE SKIP LOCKED) RETURNING id";
+        return jdbcTemplate.queryForList(sql, new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("staleAfter", staleAfterSeconds), Long.class);
+    }
+
+    // Those of the ids that still exist and are not COMPLETED
+    public List<Long> findUnfinished(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM documents WHERE id IN (:ids) AND status <> 'COMPLETED'",
+                new MapSqlParameterSource("ids", ids), Long.class);
+    }
+
+    // Puts COMPLETED documents last processed by another pipeline version, or from other bytes, back
+    // to PENDING for the batch job, returning their ids. Their chunks stay in place, so the database
+    // search still finds them meanwhile.
+    public List<Long> requeueStale(String pipelineVersion) {
+        String sql = "UPDATE documents SET status = 'PENDING', updated_at = now() WHERE status = 'COMPLETED' " +
+                "AND (pipeline_version IS DISTINCT FROM :version OR processed_hash IS DISTINCT FROM content_hash) " +
+                "RETURNING id";
+        return jdbcTemplate.queryForList(sql, new MapSqlParameterSource("version", pipelineVersion), Long.class);
+    }
+
+    // Smallest and largest id of the PENDING backlog
+    public Optional<long[]> findPendingIdRange() {
+        return findIdRange("PENDING");
+    }
+
+    // Smallest and largest id of the COMPLETED documents, walked by the search index rebuild
+    public Optional<long[]> findCompletedIdRange() {
+        return findIdRange("COMPLETED");
+    }
+
+    private Optional<long[]> findIdRange(String status) {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM documents WHERE status = :status",
+                new MapSqlParameterSource("status", status),
+                rs -> {
+                    rs.next();
+                    long min = rs.getLong(1);
+                    return rs.wasNull() ? Optional.<long[]>empty() : Optional.of(new long[]{min, rs.getLong(2)});
+                });
+    }
+}
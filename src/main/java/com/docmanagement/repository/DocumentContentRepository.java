@@ -0,0 +1,44 @@
+package com.docmanagement.repository;
+
+import com.docmanagement.model.DocumentContent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DocumentContentRepository extends JpaRepository<DocumentContent, Long> {
+
+    // Server-side copy, the text never leaves the database
+    @Modifying
+    @Query(value = "INSERT INTO document_contents (document_id, content, content_compressed, content_vector, text_hash) " +
+            "SELECT :targetId, content, content_compressed, content_vector, text_hash FROM document_contents " +
+            "WHERE document_id = :sourceId " +
+            "ON CONFLICT (document_id) DO UPDATE SET content = EXCLUDED.content, " +
+            "content_compressed = EXCLUDED.content_compressed, content_vector = EXCLUDED.content_vector, " +
+            "text_hash = EXCLUDED.text_hash",
+            nativeQuery = true)
+    int copyContent(@Param("sourceId") Long sourceId, @Param("targetId") Long targetId);
+
+    @Query(value = "SELECT d.id AS id, d.title AS title, c.content AS content, " +
+                  "c.content_compressed AS contentCompressed " +
+                  "FROM document_contents c JOIN documents d ON d.id = c.document_id, " +
+                  "plainto_tsquery('english', :query) q " +
+                  "WHERE c.content_vector @@ q " +
+                  "ORDER BY ts_rank(c.content_vector, q) DESC",
+           nativeQuery = true)
+    List<DocumentTextView> searchByContentFullText(@Param("query") String query, Pageable pageable);
+
+    // Compressed rows cannot be matched here; their chunks still are, by the chunk fallback
+    @Query(value = "SELECT d.id AS id, d.title AS title, c.content AS content, " +
+                  "c.content_compressed AS contentCompressed " +
+                  "FROM document_contents c JOIN documents d ON d.id = c.document_id " +
+                  "WHERE c.content ILIKE %:query% " +
+                  "ORDER BY d.created_at DESC",
+           nativeQuery = true)
+    List<DocumentTextView> searchByContentSimple(@Param("query") String query, Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.docmanagement.repository;
+
+public interface DocumentFileView {
+
+    Long getId();
+
+    String getFilePath();
+
+    String getContentHash();
+}
@@ -3,7 +3,6 @@ package com.docmanagement.repository;
 import com.docmanagement.model.Document;
 import com.docmanagement.model.DocumentStatus;
 import com.docmanagement.model.User;
-import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long>, CustomDocumentRepository  {
@@ -22,6 +22,9 @@ public interface DocumentRepository extends JpaRepository<Document, Long>, Custo
     
     Page<Document> findByStatus(DocumentStatus status, Pageable pageable);
 
+    Optional<Document> findFirstByContentHashAndStatusAndPipelineVersionAndIdNot(
+            String contentHash, DocumentStatus status, String pipelineVersion, Long id);
+
     @Query(value = "SELECT d FROM Document d WHERE " +
             "(:title IS NULL OR LOWER(d.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
             "(:fileType IS NULL OR d.fileType = :fileType) AND " +
@@ -48,20 +51,21 @@ public interface DocumentRepository extends JpaRepository<Document, Long>, Custo
     @Query("SELECT d FROM Document d JOIN d.keywords k WHERE LOWER(k) = LOWER(:keyword)")
     Page<Document> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
-    @Query(value = "SELECT d.* FROM documents d " +
-                  "WHERE to_tsvector('english', d.content) @@ plainto_tsquery('english', :query) " +
-                  "ORDER BY ts_rank(to_tsvector('english', d.content), plainto_tsquery('english', :query)) DESC",
-           nativeQuery = true)
-    List<Document> searchByContentFullText(@Param("query") String query, Pageable pageable);
-    
-    @Query(value = "SELECT d.* FROM documents d " +
-                  "WHERE d.content ILIKE %:query% " +
-                  "ORDER BY d.created_at DESC",
-           nativeQuery = true)
-    List<Document> searchByContentSimple(@Param("query") String query, Pageable pageable);
+    @Query("SELECT d.id AS id, d.filePath AS filePath, d.contentHash AS contentHash FROM Document d " +
+            "WHERE d.id > :afterId ORDER BY d.id")
+    List<DocumentFileView> findFilesAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT d.id FROM Document d WHERE d.status = :status AND d.id > :afterId AND d.id <= :maxId ORDER BY d.id")
+    List<Long> findIdsByStatusInRange(@Param("status") DocumentStatus status, @Param("afterId") long afterId,
+                                      @Param("maxId") long maxId, Pageable pageable);
+
+    long countByStatus(DocumentStatus status);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.filePath = :filePath WHERE d.id = :id")
+    void updateFilePath(@Param("id") Long id, @Param("filePath") String filePath);
 
     @Modifying
-    @Transactional
-    @Query(value = "UPDATE documents SET content_vector = to_tsvector('english', content) WHERE id = :id", nativeQuery = true)
-    void updateContentVector(@Param("id") Long id);
+    @Query("UPDATE Document d SET d.status = :status WHERE d.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") DocumentStatus status);
 }
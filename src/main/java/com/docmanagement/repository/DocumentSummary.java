@@ -0,0 +1,28 @@
+package com.docmanagement.repository;
+
+import com.docmanagement.model.DocumentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Listing row: the document columns a DocumentResponse shows plus its uploader, read in one query.
+// Keywords are loaded separately for the whole page.
+@Getter
+@AllArgsConstructor
+public class DocumentSummary {
+
+    private final Long id;
+    private final String title;
+    private final String fileName;
+    private final String fileType;
+    private final Long fileSize;
+    private final String description;
+    private final DocumentStatus status;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final Long uploaderId;
+    private final String uploaderUsername;
+    private final String uploaderFirstName;
+    private final String uploaderLastName;
+}
@@ -0,0 +1,12 @@
+package com.docmanagement.repository;
+
+public interface DocumentTextView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getContent();
+
+    byte[] getContentCompressed();
+}
@@ -0,0 +1,75 @@
+package com.docmanagement.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.List;
+
+// Full-text search for many questions in one statement: the questions are passed as a text[],
+// unnested with their position, and each one runs the chunk and document searches as LATERAL
+// subqueries. Hits come back grouped per question, chunks first, best rank first.
+@Repository
+@RequiredArgsConstructor
+public class QABatchSearchRepository {
+
+    private static final String SEARCH_SQL =
+            "WITH q AS (SELECT question, idx FROM unnest(?::text[]) WITH ORDINALITY AS t(question, idx)) " +
+            "SELECT q.idx, 0 AS source, d.id AS document_id, d.title, hit.content, " +
+            "NULL::bytea AS content_compressed, hit.rank " +
+            "FROM q CROSS JOIN LATERAL (" +
+            "  SELECT dc.document_id, dc.content, ts_rank(dc.content_vector, tsq) AS rank " +
+            "  FROM document_chunks dc, plainto_tsquery('english', q.question) tsq " +
+            "  WHERE dc.content_vector @@ tsq ORDER BY rank DESC LIMIT ?) hit " +
+            "JOIN documents d ON d.id = hit.document_id " +
+            "UNION ALL " +
+            "SELECT q.idx, 1 AS source, hit.id, hit.title, hit.content, hit.content_compressed, hit.rank " +
+            "FROM q CROSS JOIN LATERAL (" +
+            "  SELECT d.id, d.title, c.content, c.content_compressed, ts_rank(c.content_vector, tsq) AS rank " +
+            "  FROM document_contents c JOIN documents d ON d.id = c.document_id, " +
+            "  plainto_tsquery('english', q.question) tsq " +
+            "  WHERE c.content_vector @@ tsq ORDER BY rank DESC LIMIT ?) hit " +
+            "ORDER BY idx, source, rank DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Hit> search(List<String> questions, int limitPerSource) {
+        if (questions.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SEARCH_SQL,
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("text", questions.toArray());
+                    ps.setArray(1, array);
+                    ps.setInt(2, limitPerSource);
+                    ps.setInt(3, limitPerSource);
+                },
+                (rs, rowNum) -> new Hit(
+                        rs.getInt("idx") - 1,
+                        rs.getInt("source") == 0,
+                        rs.getLong("document_id"),
+                        rs.getString("title"),
+                        rs.getString("content"),
+                        rs.getBytes("content_compressed")));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        // Position of the question in the list passed to search()
+        private final int question;
+        private final boolean chunk;
+        private final long documentId;
+        private final String title;
+        private final String content;
+        // Set instead of content for documents stored compressed
+        private final byte[] compressedContent;
+
+        public Hit(int question, boolean chunk, long documentId, String title, String content) {
+            this(question, chunk, documentId, title, content, null);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.docmanagement.repository;
+
+import com.docmanagement.search.IndexedChunk;
+import com.docmanagement.search.SourceDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Reads COMPLETED documents and their chunks for the in-process search index, a page of ids at a
+// time so a full rebuild never holds the whole corpus in one result set
+@Repository
+@RequiredArgsConstructor
+public class SearchIndexSourceRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Set<Long> findCompletedDocumentIds() {
+        return new HashSet<>(jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT id FROM documents WHERE status = 'COMPLETED'", Long.class));
+    }
+
+    // Next page of COMPLETED document ids after afterId that changed after the given time
+    public List<Long> findCompletedIdsUpdatedSince(long afterId, LocalDateTime since, int limit) {
+        String sql = "SELECT id FROM documents WHERE status = 'COMPLETED' AND id > :afterId " +
+                "AND updated_at > :since ORDER BY id LIMIT :limit";
+        return jdbcTemplate.queryForList(sql, new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("since", Timestamp.valueOf(since))
+                .addValue("limit", limit), Long.class);
+    }
+
+    // Content of the chunks among the ids that still exist, by chunk id
+    public Map<Long, String> findChunkContents(Collection<Long> chunkIds) {
+        Map<Long, String> contents = new HashMap<>();
+        if (chunkIds.isEmpty()) {
+            return contents;
+        }
+        jdbcTemplate.query("SELECT id, content FROM document_chunks WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", chunkIds),
+                rs -> {
+                    contents.put(rs.getLong("id"), rs.getString("content"));
+                });
+        return contents;
+    }
+
+    // Documents among the ids that are COMPLETED, with their chunks in chunk order
+    public List<SourceDocument> findDocuments(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, String> titles = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, title FROM documents WHERE id IN (:ids) AND status = 'COMPLETED' ORDER BY id",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    titles.put(rs.getLong("id"), rs.getString("title"));
+                });
+        if (titles.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<IndexedChunk>> chunks = new LinkedHashMap<>();
+        titles.keySet().forEach(id -> chunks.put(id, new ArrayList<>()));
+        jdbcTemplate.query("SELECT id, document_id, content FROM document_chunks WHERE document_id IN (:ids) " +
+                        "ORDER BY document_id, chunk_order",
+                new MapSqlParameterSource("ids", titles.keySet()),
+                rs -> {
+                    chunks.get(rs.getLong("document_id"))
+                            .add(new IndexedChunk(rs.getLong("id"), rs.getString("content")));
+                });
+
+        List<SourceDocument> documents = new ArrayList<>(titles.size());
+        titles.forEach((id, title) -> documents.add(new SourceDocument(id, title, chunks.get(id))));
+        return documents;
+    }
+}
@@ -0,0 +1,311 @@
+package com.docmanagement.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Scores a chunk against a question and picks its snippet in a single pass over the characters.
+// The question is analysed once; every chunk token is stemmed in a reused buffer and looked up in
+// an open-addressing table by its char hash, so the loop allocates nothing per token. The sentence
+// matching the most distinct question terms becomes the snippet, together with the offsets of each
+// match inside it.
+@Component
+@RequiredArgsConstructor
+public class ChunkScorer {
+
+    private static final int FALLBACK_SNIPPET_LENGTH = 200;
+    private static final int MAX_SENTENCE_LENGTH = 4096;
+
+    private final TextAnalyzer textAnalyzer;
+
+    public Query prepare(String question) {
+        return new Query(new ArrayList<>(new LinkedHashSet<>(textAnalyzer.analyze(question))));
+    }
+
+    public ScoredChunk score(String content, Query query) {
+        if (content == null || content.isEmpty()) {
+            return new ScoredChunk("", 0.0, new int[0]);
+        }
+
+        int length = content.length();
+        StringBuilder token = new StringBuilder(32);
+        StringBuilder term = new StringBuilder(32);
+        int tokenStart = -1;
+
+        boolean[] matched = new boolean[query.size()];
+        int matchedCount = 0;
+
+        // Distinct terms of the current sentence as a bitmask; past 64 terms bits are shared
+        long sentenceTerms = 0;
+        int sentenceStart = 0;
+        Offsets current = new Offsets();
+        Offsets best = new Offsets();
+        int bestTerms = 0;
+        int bestStart = 0;
+        int bestEnd = 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? content.charAt(i) : '.';
+            char lower = lowerLetterOrDigit(c);
+            if (lower != 0) {
+                if (tokenStart < 0) {
+                    tokenStart = i;
+                }
+                token.append(lower);
+                continue;
+            }
+
+            if (tokenStart >= 0) {
+                int index = termIndex(token, term, query);
+                if (index >= 0) {
+                    if (!matched[index]) {
+                        matched[index] = true;
+                        matchedCount++;
+                    }
+                    sentenceTerms |= 1L << (index & 63);
+                    current.add(tokenStart, i);
+                }
+                token.setLength(0);
+                tokenStart = -1;
+            }
+
+            if (c == '.' || c == '!' || c == '?') {
+                int terms = Long.bitCount(sentenceTerms);
+                if (terms > bestTerms) {
+                    bestTerms = terms;
+                    bestStart = sentenceStart;
+                    bestEnd = i;
+                    Offsets swap = best;
+                    best = current;
+                    current = swap;
+                }
+                current.size = 0;
+                sentenceTerms = 0;
+                sentenceStart = i + 1;
+            }
+        }
+
+        double score = query.isEmpty() ? 0.0 : (double) matchedCount / query.size();
+        if (bestTerms == 0) {
+            return new ScoredChunk(content.substring(0, Math.min(length, FALLBACK_SNIPPET_LENGTH)) + "...",
+                    score, new int[0]);
+        }
+
+        int start = bestStart;
+        while (start < bestEnd && Character.isWhitespace(content.charAt(start))) {
+            start++;
+        }
+        int end = bestEnd;
+        while (end > start && Character.isWhitespace(content.charAt(end - 1))) {
+            end--;
+        }
+        char terminator = bestEnd < length ? content.charAt(bestEnd) : '.';
+
+        int[] highlights = Arrays.copyOf(best.values, best.size);
+        for (int i = 0; i < highlights.length; i++) {
+            highlights[i] -= start;
+        }
+        return new ScoredChunk(content.substring(start, end) + terminator, score, highlights);
+    }
+
+    // Same result as score(String) for text read from a stream, e.g. while it is decompressed. Only
+    // the current sentence, the best one so far and the fallback prefix are buffered; a sentence
+    // running past MAX_SENTENCE_LENGTH is cut at the next token boundary to keep it that way.
+    public ScoredChunk score(Reader content, Query query) throws IOException {
+        StringBuilder head = new StringBuilder(FALLBACK_SNIPPET_LENGTH);
+        StringBuilder sentence = new StringBuilder(256);
+        StringBuilder token = new StringBuilder(32);
+        StringBuilder term = new StringBuilder(32);
+        int tokenStart = -1;
+
+        boolean[] matched = new boolean[query.size()];
+        int matchedCount = 0;
+
+        long sentenceTerms = 0;
+        Offsets current = new Offsets();
+        Offsets best = new Offsets();
+        int bestTerms = 0;
+        String bestSentence = null;
+        String bestTerminator = null;
+
+        char[] buffer = new char[8192];
+        boolean end = false;
+        while (!end) {
+            int read = content.read(buffer);
+            end = read < 0;
+            for (int k = 0, count = end ? 1 : read; k < count; k++) {
+                char c = end ? '.' : buffer[k];
+                if (!end && head.length() < FALLBACK_SNIPPET_LENGTH) {
+                    head.append(c);
+                }
+
+                char lower = lowerLetterOrDigit(c);
+                if (lower != 0) {
+                    if (tokenStart < 0) {
+                        tokenStart = sentence.length();
+                    }
+                    token.append(lower);
+                    sentence.append(c);
+                    continue;
+                }
+
+                if (tokenStart >= 0) {
+                    int index = termIndex(token, term, query);
+                    if (index >= 0) {
+                        if (!matched[index]) {
+                            matched[index] = true;
+                            matchedCount++;
+                        }
+                        sentenceTerms |= 1L << (index & 63);
+                        current.add(tokenStart, sentence.length());
+                    }
+                    token.setLength(0);
+                    tokenStart = -1;
+                }
+
+                boolean terminator = c == '.' || c == '!' || c == '?';
+                if (terminator || sentence.length() >= MAX_SENTENCE_LENGTH) {
+                    int terms = Long.bitCount(sentenceTerms);
+                    if (terms > bestTerms) {
+                        bestTerms = terms;
+                        bestSentence = sentence.toString();
+                        bestTerminator = terminator ? String.valueOf(c) : "...";
+                        Offsets swap = best;
+                        best = current;
+                        current = swap;
+                    }
+                    current.size = 0;
+                    sentenceTerms = 0;
+                    sentence.setLength(0);
+                    if (terminator) {
+                        continue;
+                    }
+                }
+                sentence.append(c);
+            }
+        }
+
+        if (head.length() == 0) {
+            return new ScoredChunk("", 0.0, new int[0]);
+        }
+        double score = query.isEmpty() ? 0.0 : (double) matchedCount / query.size();
+        if (bestTerms == 0) {
+            return new ScoredChunk(head + "...", score, new int[0]);
+        }
+
+        int start = 0;
+        while (start < bestSentence.length() && Character.isWhitespace(bestSentence.charAt(start))) {
+            start++;
+        }
+        int stop = bestSentence.length();
+        while (stop > start && Character.isWhitespace(bestSentence.charAt(stop - 1))) {
+            stop--;
+        }
+
+        int[] highlights = Arrays.copyOf(best.values, best.size);
+        for (int i = 0; i < highlights.length; i++) {
+            highlights[i] -= start;
+        }
+        return new ScoredChunk(bestSentence.substring(start, stop) + bestTerminator, score, highlights);
+    }
+
+    // Index of the question term the token stems to, -1 for other tokens and stop words
+    private int termIndex(StringBuilder token, StringBuilder term, Query query) {
+        if (token.length() < 2) {
+            return -1;
+        }
+        term.setLength(0);
+        term.append(token);
+        TextAnalyzer.stem(term);
+        int index = query.indexOf(term);
+        return index >= 0 && !textAnalyzer.isStopWord(token) ? index : -1;
+    }
+
+    // Lower-cased c when it is part of a token, 0 otherwise; ASCII skips the Unicode tables
+    private static char lowerLetterOrDigit(char c) {
+        if (c < 128) {
+            if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+                return c;
+            }
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : 0;
+        }
+        return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+    }
+
+    // Analysed question terms in an open-addressing table; slots hold term index + 1, 0 is empty
+    public static class Query {
+        private final String[] terms;
+        private final int[] slots;
+        private final int mask;
+
+        Query(List<String> terms) {
+            this.terms = terms.toArray(new String[0]);
+            this.slots = new int[Integer.highestOneBit(Math.max(1, terms.size()) * 2) * 2];
+            this.mask = slots.length - 1;
+            for (int i = 0; i < this.terms.length; i++) {
+                int slot = spread(this.terms[i].hashCode()) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+
+        public int size() {
+            return terms.length;
+        }
+
+        public boolean isEmpty() {
+            return terms.length == 0;
+        }
+
+        int indexOf(CharSequence term) {
+            // Same hash as String.hashCode, computed without materialising the string
+            int hash = 0;
+            for (int i = 0; i < term.length(); i++) {
+                hash = 31 * hash + term.charAt(i);
+            }
+            for (int slot = spread(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                String candidate = terms[slots[slot] - 1];
+                if (candidate.hashCode() == hash && candidate.contentEquals(term)) {
+                    return slots[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    // Snippet plus highlight offsets relative to it, as consecutive start/end pairs
+    @Getter
+    @AllArgsConstructor
+    public static class ScoredChunk {
+        private final String snippet;
+        private final double score;
+        private final int[] highlights;
+    }
+
+    private static final class Offsets {
+        int[] values = new int[16];
+        int size;
+
+        void add(int start, int end) {
+            if (size + 2 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = start;
+            values[size++] = end;
+        }
+    }
+}
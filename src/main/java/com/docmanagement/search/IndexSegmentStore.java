@@ -0,0 +1,74 @@
+package com.docmanagement.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+// Persists the index as a single segment file so a restart loads it instead of re-reading every
+// chunk. The file is written next to the old one and atomically moved over it.
+@Slf4j
+public class IndexSegmentStore {
+
+    private static final int MAGIC = 0x444D5349; // "DMSI"
+    // 2: chunk text is no longer stored
+    private static final int FORMAT_VERSION = 2;
+    private static final String SEGMENT_FILE = "chunks.seg";
+
+    private final Path directory;
+
+    public IndexSegmentStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public void write(InvertedIndex index, long checkpointMillis) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, SEGMENT_FILE, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(TextAnalyzer.VERSION);
+                out.writeLong(checkpointMillis);
+                index.writeTo(out);
+            }
+            Files.move(temp, directory.resolve(SEGMENT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Empty when there is no segment or it was written by an incompatible version
+    public Optional<Segment> read(TextAnalyzer textAnalyzer) throws IOException {
+        Path file = directory.resolve(SEGMENT_FILE);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readInt() != TextAnalyzer.VERSION) {
+                log.warn("Ignoring incompatible search index segment {}", file);
+                return Optional.empty();
+            }
+            long checkpoint = in.readLong();
+            return Optional.of(new Segment(InvertedIndex.readFrom(in, textAnalyzer), checkpoint));
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Segment {
+        private final InvertedIndex index;
+        private final long checkpointMillis;
+    }
+}
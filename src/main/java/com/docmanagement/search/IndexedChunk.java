@@ -0,0 +1,11 @@
+package com.docmanagement.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class IndexedChunk {
+    private final long chunkId;
+    private final String text;
+}
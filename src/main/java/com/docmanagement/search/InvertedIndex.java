@@ -0,0 +1,468 @@
+package com.docmanagement.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over document chunks, scored with BM25.
+// Chunks get dense int ordinals in insertion order, so every postings list is naturally sorted and
+// lives in two primitive int arrays. Removing a document only tombstones its ordinals; the index is
+// compacted once tombstones make up a quarter of it. Readers share a read lock, writers are exclusive.
+// Only postings and length statistics are kept; hits carry no text, callers read it for the few
+// chunks they show from document_chunks.
+public class InvertedIndex {
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+
+    private static final int MIN_COMPACTION = 1024;
+
+    private final TextAnalyzer textAnalyzer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, int[]> documentRanges = new HashMap<>();
+    private final Map<Long, String> documentTitles = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    // Per-ordinal columns
+    private long[] chunkIds = new long[1024];
+    private long[] documentIds = new long[1024];
+    private int[] lengths = new int[1024];
+
+    private int size;
+    private int deletedCount;
+    private int liveCount;
+    private long liveLength;
+
+    // Per-thread score accumulator, indexed by ordinal and reset after every query
+    private final ThreadLocal<float[]> scratch = ThreadLocal.withInitial(() -> new float[0]);
+
+    public InvertedIndex(TextAnalyzer textAnalyzer) {
+        this.textAnalyzer = textAnalyzer;
+    }
+
+    public void replaceDocument(SourceDocument document) {
+        // Reprocessing keeps the rows of unchanged chunks and chunk text is never updated in place,
+        // so the same ids and title mean there is nothing to redo
+        if (isIndexed(document)) {
+            return;
+        }
+
+        // Analyse outside the lock so searches are only blocked for the actual insert
+        List<Map<String, Integer>> frequencies = new ArrayList<>(document.getChunks().size());
+        int[] chunkLengths = new int[document.getChunks().size()];
+        for (int i = 0; i < chunkLengths.length; i++) {
+            List<String> terms = textAnalyzer.analyze(document.getChunks().get(i).getText());
+            Map<String, Integer> counts = new HashMap<>();
+            for (String term : terms) {
+                counts.merge(term, 1, Integer::sum);
+            }
+            frequencies.add(counts);
+            chunkLengths[i] = terms.size();
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.getId());
+            if (chunkLengths.length == 0) {
+                return;
+            }
+
+            int start = size;
+            for (int i = 0; i < chunkLengths.length; i++) {
+                IndexedChunk chunk = document.getChunks().get(i);
+                int ordinal = appendLocked(chunk.getChunkId(), document.getId(), chunkLengths[i]);
+                for (Map.Entry<String, Integer> entry : frequencies.get(i).entrySet()) {
+                    postings.computeIfAbsent(entry.getKey(), t -> new Postings()).add(ordinal, entry.getValue());
+                }
+            }
+            documentRanges.put(document.getId(), new int[]{start, size});
+            documentTitles.put(document.getId(), document.getTitle());
+            maybeCompactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isIndexed(SourceDocument document) {
+        lock.readLock().lock();
+        try {
+            int[] range = documentRanges.get(document.getId());
+            if (range == null || range[1] - range[0] != document.getChunks().size()
+                    || !Objects.equals(documentTitles.get(document.getId()), document.getTitle())) {
+                return false;
+            }
+            Set<Long> indexed = new HashSet<>();
+            for (int ordinal = range[0]; ordinal < range[1]; ordinal++) {
+                indexed.add(chunkIds[ordinal]);
+            }
+            return document.getChunks().stream().allMatch(chunk -> indexed.contains(chunk.getChunkId()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void removeDocument(long documentId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentId);
+            maybeCompactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Set<Long> documentIds() {
+        lock.readLock().lock();
+        try {
+            return new LinkedHashSet<>(documentRanges.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int chunkCount() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        return search(textAnalyzer.analyze(query), limit);
+    }
+
+    public List<SearchHit> search(List<String> queryTerms, int limit) {
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return List.of();
+            }
+
+            float[] scores = scratch.get();
+            if (scores.length < size) {
+                scores = new float[chunkIds.length];
+                scratch.set(scores);
+            }
+
+            int[] touched = new int[16];
+            int touchedCount = 0;
+            float averageLength = Math.max(1f, (float) liveLength / liveCount);
+
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+
+                float idf = idf(list.size);
+                for (int i = 0; i < list.size; i++) {
+                    int ordinal = list.ordinals[i];
+                    if (deleted.get(ordinal)) {
+                        continue;
+                    }
+
+                    int tf = list.frequencies[i];
+                    float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                    if (scores[ordinal] == 0f) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = ordinal;
+                    }
+                    scores[ordinal] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            List<SearchHit> hits = topHits(scores, touched, touchedCount, limit);
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Document frequency counts tombstoned chunks until the next compaction, which only nudges idf slightly
+    private float idf(int documentFrequency) {
+        int live = Math.min(documentFrequency, liveCount);
+        return (float) Math.log(1 + (liveCount - live + 0.5) / (live + 0.5));
+    }
+
+    // Bounded min-heap of ordinals: O(n log k) instead of sorting every candidate
+    private List<SearchHit> topHits(float[] scores, int[] candidates, int count, int limit) {
+        int[] heap = new int[Math.min(limit, count)];
+        int heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates[i];
+            if (heapSize < heap.length) {
+                heap[heapSize] = ordinal;
+                siftUp(heap, heapSize++, scores);
+            } else if (better(ordinal, heap[0], scores)) {
+                heap[0] = ordinal;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+
+        SearchHit[] hits = new SearchHit[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int ordinal = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, scores);
+            hits[i] = new SearchHit(chunkIds[ordinal], documentIds[ordinal],
+                    documentTitles.get(documentIds[ordinal]), null, scores[ordinal]);
+        }
+        return Arrays.asList(hits);
+    }
+
+    // Higher score wins; ties go to the older chunk so results are stable
+    private static boolean better(int a, int b, float[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int index, float[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], heap[index], scores)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, float[] scores) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < heapSize && better(heap[left], heap[right], scores)) {
+                worst = right;
+            }
+            if (!better(heap[index], heap[worst], scores)) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private int appendLocked(long chunkId, long documentId, int length) {
+        if (size == chunkIds.length) {
+            int capacity = size + (size >> 1);
+            chunkIds = Arrays.copyOf(chunkIds, capacity);
+            documentIds = Arrays.copyOf(documentIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int ordinal = size++;
+        chunkIds[ordinal] = chunkId;
+        documentIds[ordinal] = documentId;
+        lengths[ordinal] = length;
+        liveCount++;
+        liveLength += length;
+        return ordinal;
+    }
+
+    private void removeLocked(long documentId) {
+        int[] range = documentRanges.remove(documentId);
+        documentTitles.remove(documentId);
+        if (range == null) {
+            return;
+        }
+        for (int ordinal = range[0]; ordinal < range[1]; ordinal++) {
+            deleted.set(ordinal);
+            liveCount--;
+            liveLength -= lengths[ordinal];
+            deletedCount++;
+        }
+    }
+
+    private void maybeCompactLocked() {
+        if (deletedCount >= MIN_COMPACTION && deletedCount * 4 >= size) {
+            compactLocked();
+        }
+    }
+
+    // Renumbers live chunks densely; the mapping is monotonic so postings stay sorted
+    void compactLocked() {
+        int[] remap = new int[size];
+        int next = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+                continue;
+            }
+            remap[ordinal] = next;
+            chunkIds[next] = chunkIds[ordinal];
+            documentIds[next] = documentIds[ordinal];
+            lengths[next] = lengths[ordinal];
+            next++;
+        }
+
+        postings.values().removeIf(list -> {
+            int kept = 0;
+            for (int i = 0; i < list.size; i++) {
+                int ordinal = remap[list.ordinals[i]];
+                if (ordinal >= 0) {
+                    list.ordinals[kept] = ordinal;
+                    list.frequencies[kept] = list.frequencies[i];
+                    kept++;
+                }
+            }
+            list.size = kept;
+            return kept == 0;
+        });
+        for (int[] range : documentRanges.values()) {
+            int first = remap[range[0]];
+            range[1] = first + (range[1] - range[0]);
+            range[0] = first;
+        }
+
+        size = next;
+        deleted.clear();
+        deletedCount = 0;
+        scratch.remove();
+    }
+
+    // Segment body: live chunks only, postings as delta-encoded varints
+    void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            int[] remap = new int[size];
+            int next = 0;
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                remap[ordinal] = deleted.get(ordinal) ? -1 : next++;
+            }
+
+            out.writeInt(documentTitles.size());
+            for (Map.Entry<Long, String> entry : documentTitles.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeUTF(entry.getValue() == null ? "" : entry.getValue());
+            }
+
+            out.writeInt(next);
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (remap[ordinal] < 0) {
+                    continue;
+                }
+                out.writeLong(chunkIds[ordinal]);
+                out.writeLong(documentIds[ordinal]);
+                out.writeInt(lengths[ordinal]);
+            }
+
+            out.writeInt(postings.size());
+            int[] ordinals = new int[0];
+            int[] frequencies = new int[0];
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                if (ordinals.length < list.size) {
+                    ordinals = new int[list.size];
+                    frequencies = new int[list.size];
+                }
+                int live = 0;
+                for (int i = 0; i < list.size; i++) {
+                    int ordinal = remap[list.ordinals[i]];
+                    if (ordinal >= 0) {
+                        ordinals[live] = ordinal;
+                        frequencies[live] = list.frequencies[i];
+                        live++;
+                    }
+                }
+
+                out.writeUTF(entry.getKey());
+                writeVarInt(out, live);
+                int previous = 0;
+                for (int i = 0; i < live; i++) {
+                    writeVarInt(out, ordinals[i] - previous);
+                    writeVarInt(out, frequencies[i]);
+                    previous = ordinals[i];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static InvertedIndex readFrom(DataInputStream in, TextAnalyzer textAnalyzer) throws IOException {
+        InvertedIndex index = new InvertedIndex(textAnalyzer);
+
+        int documents = in.readInt();
+        for (int i = 0; i < documents; i++) {
+            index.documentTitles.put(in.readLong(), in.readUTF());
+        }
+
+        int chunks = in.readInt();
+        for (int i = 0; i < chunks; i++) {
+            long chunkId = in.readLong();
+            long documentId = in.readLong();
+            int ordinal = index.appendLocked(chunkId, documentId, in.readInt());
+            // Chunks of a document were written contiguously
+            index.documentRanges.computeIfAbsent(documentId, id -> new int[]{ordinal, ordinal})[1] = ordinal + 1;
+        }
+
+        int terms = in.readInt();
+        for (int i = 0; i < terms; i++) {
+            String term = in.readUTF();
+            int count = readVarInt(in);
+            Postings list = new Postings(Math.max(1, count));
+            int ordinal = 0;
+            for (int j = 0; j < count; j++) {
+                ordinal += readVarInt(in);
+                list.add(ordinal, readVarInt(in));
+            }
+            if (count > 0) {
+                index.postings.put(term, list);
+            }
+        }
+        return index;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in index segment");
+    }
+}
@@ -0,0 +1,31 @@
+package com.docmanagement.search;
+
+import java.util.Arrays;
+
+// Postings of one term: chunk ordinals in ascending order with the term frequency in each chunk
+final class Postings {
+
+    int[] ordinals;
+    int[] frequencies;
+    int size;
+
+    Postings() {
+        this(4);
+    }
+
+    Postings(int capacity) {
+        ordinals = new int[capacity];
+        frequencies = new int[capacity];
+    }
+
+    void add(int ordinal, int frequency) {
+        if (size == ordinals.length) {
+            int capacity = size + (size >> 1) + 1;
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+        }
+        ordinals[size] = ordinal;
+        frequencies[size] = frequency;
+        size++;
+    }
+}
@@ -0,0 +1,163 @@
+package com.docmanagement.search;
+
+import com.docmanagement.dto.response.AnswerResponse;
+import com.docmanagement.event.DocumentLifecycleEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Q&A answers keyed on the analysed question: the sorted, distinct stemmed terms, so "What is X?"
+// and "what is x" share an entry. The local "questions" cache is checked first, then (optionally)
+// Redis so nodes share answers. Every key carries this node's generation, bumped whenever its index
+// applied a change; older answers simply stop being looked up and age out.
+// Shared answers are keyed on a cluster-wide generation instead: the node where a change happened
+// takes the next one from Redis, once, and the change's event carries it to every other node. A node
+// keys shared answers on the highest generation its own index has applied, so it never reads or
+// writes answers for a change it has not seen yet.
+@Component
+@Slf4j
+public class QAAnswerCache {
+
+    public static final String CACHE_NAME = "questions";
+
+    private static final String REDIS_ANSWER_PREFIX = "qa:answer:";
+    private static final String REDIS_GENERATION_KEY = "qa:index-generation";
+
+    private final Cache localCache;
+    private final TextAnalyzer textAnalyzer;
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration redisTtl;
+
+    private final AtomicLong localGeneration = new AtomicLong();
+    // -1 until known; nothing is shared meanwhile
+    private final AtomicLong appliedSharedGeneration = new AtomicLong(-1);
+
+    public QAAnswerCache(CacheManager cacheManager,
+                         TextAnalyzer textAnalyzer,
+                         ObjectMapper objectMapper,
+                         ObjectProvider<StringRedisTemplate> redisTemplate,
+                         @Value("${search.qa.cache.redis.enabled:false}") boolean redisEnabled,
+                         @Value("${search.qa.cache.redis.ttl-seconds:600}") long redisTtlSeconds) {
+        this.localCache = cacheManager.getCache(CACHE_NAME);
+        this.textAnalyzer = textAnalyzer;
+        this.objectMapper = objectMapper;
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+        if (this.redisTemplate != null) {
+            // Read before the search index loads, so everything up to it is in what the index reads
+            readSharedGeneration();
+        }
+    }
+
+    // Take the key before computing an answer, so an answer computed while the generation moves on
+    // is stored under the old generation and never served as current
+    public String key(String question) {
+        TreeSet<String> terms = new TreeSet<>(textAnalyzer.analyze(question));
+        String normalised = terms.isEmpty() ? question.trim().toLowerCase(Locale.ROOT) : String.join(" ", terms);
+        // "<local>/<shared>:<terms>"; Redis entries are keyed without the node's local generation
+        return localGeneration.get() + "/" + appliedSharedGeneration.get() + ":" + normalised;
+    }
+
+    // The cached answer, carrying the question exactly as it was asked this time
+    public Optional<AnswerResponse> get(String key, String question) {
+        AnswerResponse answer = localCache != null ? localCache.get(key, AnswerResponse.class) : null;
+        if (answer == null && isShared(key)) {
+            answer = readShared(key);
+            if (answer != null && localCache != null) {
+                localCache.put(key, answer);
+            }
+        }
+        return Optional.ofNullable(answer).map(cached -> AnswerResponse.builder()
+                .question(question)
+                .relevantDocuments(cached.getRelevantDocuments())
+                .build());
+    }
+
+    // Partial answers are not cached, the next ask gets another chance at every source
+    public void put(String key, AnswerResponse answer) {
+        // An answer computed while this node invalidated would never be looked up again anyway
+        if (answer.isPartial() || !key.startsWith(localGeneration.get() + "/")) {
+            return;
+        }
+        if (localCache != null) {
+            localCache.put(key, answer);
+        }
+        if (isShared(key)) {
+            try {
+                redisTemplate.opsForValue().set(sharedKey(key), objectMapper.writeValueAsString(answer), redisTtl);
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.debug("Could not share Q&A answer in Redis: {}", e.getMessage());
+            }
+        }
+    }
+
+    // The shared generation of a committed change, taken from Redis on the node where the change
+    // happened (once, however many listeners ask) and carried along by the event everywhere else.
+    // Null when answers are not shared or Redis could not be reached.
+    public Long sharedGeneration(DocumentLifecycleEvent event) {
+        if (event.isRemote() || event.getGeneration() != null || redisTemplate == null
+                || event.getType() == DocumentLifecycleEvent.Type.UPLOADED) {
+            return event.getGeneration();
+        }
+        try {
+            event.setGeneration(redisTemplate.opsForValue().increment(REDIS_GENERATION_KEY));
+        } catch (RuntimeException e) {
+            log.warn("Could not bump the shared Q&A cache generation: {}", e.getMessage());
+        }
+        return event.getGeneration();
+    }
+
+    // Makes every cached answer unreachable; call once the changed documents are searchable.
+    // sharedGeneration is the change's, null when it is unknown (e.g. found by a reconcile).
+    public void invalidate(Long sharedGeneration) {
+        localGeneration.incrementAndGet();
+        if (sharedGeneration != null) {
+            appliedSharedGeneration.accumulateAndGet(sharedGeneration, Math::max);
+        }
+    }
+
+    public void invalidate() {
+        invalidate(null);
+    }
+
+    private void readSharedGeneration() {
+        try {
+            String shared = redisTemplate.opsForValue().get(REDIS_GENERATION_KEY);
+            appliedSharedGeneration.accumulateAndGet(shared != null ? Long.parseLong(shared) : 0, Math::max);
+        } catch (RuntimeException e) {
+            log.warn("Could not read the shared Q&A cache generation, answers are not shared until the next change: {}",
+                    e.getMessage());
+        }
+    }
+
+    private boolean isShared(String key) {
+        return redisTemplate != null && !key.startsWith("-1:", key.indexOf('/') + 1);
+    }
+
+    private static String sharedKey(String key) {
+        return REDIS_ANSWER_PREFIX + key.substring(key.indexOf('/') + 1);
+    }
+
+    private AnswerResponse readShared(String key) {
+        try {
+            String json = redisTemplate.opsForValue().get(sharedKey(key));
+            return json != null ? objectMapper.readValue(json, AnswerResponse.class) : null;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.debug("Could not read shared Q&A answer from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.docmanagement.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+// Runs Q&A searches concurrently on the qaExecutor. Every source has its own
+// deadline; a source that misses it, fails or finds no free worker contributes an empty list and
+// marks the results incomplete, so the answer is built from whatever was ready and one slow query no longer decides
+// the latency of /qa/ask.
+@Component
+@Slf4j
+public class QAQueryExecutor {
+
+    private final Executor qaExecutor;
+    private final TransactionOperations transactionOperations;
+
+    public QAQueryExecutor(@Qualifier("qaExecutor") Executor qaExecutor, TransactionOperations transactionOperations) {
+        this.qaExecutor = qaExecutor;
+        this.transactionOperations = transactionOperations;
+    }
+
+    public <T> QueryResults<T> execute(List<QuerySource<T>> sources) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(sources.size());
+        for (QuerySource<T> source : sources) {
+            futures.add(submit(source));
+        }
+
+        // Each future completes by its own deadline, so this waits at most for the longest one
+        List<List<T>> results = new ArrayList<>(futures.size());
+        boolean complete = true;
+        for (CompletableFuture<List<T>> future : futures) {
+            List<T> result = future.join();
+            complete &= result != null;
+            results.add(result != null ? result : List.of());
+        }
+        return new QueryResults<>(results, complete);
+    }
+
+    // Same fan-out, but every result is handed to the callback as soon as its source finishes, in
+    // completion order and always on the calling thread. A source that missed its deadline or
+    // failed is reported with a null result.
+    public <T> void executeEach(List<QuerySource<T>> sources, BiConsumer<QuerySource<T>, List<T>> callback) {
+        BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            int index = i;
+            CompletableFuture<List<T>> future = submit(sources.get(i));
+            future.whenComplete((result, e) -> completed.add(index));
+            futures.add(future);
+        }
+
+        for (int remaining = sources.size(); remaining > 0; remaining--) {
+            int index;
+            try {
+                index = completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for Q&A results", e);
+            }
+            callback.accept(sources.get(index), futures.get(index).join());
+        }
+    }
+
+    private <T> CompletableFuture<List<T>> submit(QuerySource<T> source) {
+        CompletableFuture<List<T>> started;
+        try {
+            started = CompletableFuture.supplyAsync(() -> run(source), qaExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Q&A source {} skipped, the search executor is saturated", source.getName());
+            return CompletableFuture.completedFuture(null);
+        }
+        return started
+                .orTimeout(source.getDeadline().toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("Q&A source {} missed its {} ms deadline", source.getName(), source.getDeadline().toMillis());
+                    } else {
+                        log.error("Q&A source {} failed", source.getName(), cause);
+                    }
+                    return null;
+                });
+    }
+
+    // Each attempt gets its own transaction: a failed statement aborts the Postgres transaction,
+    // which would otherwise make the fallback fail as well
+    private <T> List<T> run(QuerySource<T> source) {
+        try {
+            return transactionOperations.execute(status -> source.getQuery().get());
+        } catch (RuntimeException e) {
+            if (source.getFallback() == null) {
+                throw e;
+            }
+            log.debug("Q&A source {} falls back after: {}", source.getName(), e.getMessage());
+            return transactionOperations.execute(status -> source.getFallback().get());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.docmanagement.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Results of a fan-out, one list per source in the order the sources were given. Not complete
+// when at least one source missed its deadline or failed and therefore contributed nothing.
+@Getter
+@AllArgsConstructor
+public class QueryResults<T> {
+    private final List<List<T>> results;
+    private final boolean complete;
+
+    public List<T> get(int source) {
+        return results.get(source);
+    }
+}
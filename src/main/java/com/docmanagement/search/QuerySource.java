@@ -0,0 +1,19 @@
+package com.docmanagement.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// One search the QAQueryExecutor runs: the query, an optional fallback tried (in a fresh
+// transaction) when the query throws, and how long the caller is willing to wait for either
+@Getter
+@AllArgsConstructor
+public class QuerySource<T> {
+    private final String name;
+    private final Duration deadline;
+    private final Supplier<List<T>> query;
+    private final Supplier<List<T>> fallback;
+}
@@ -0,0 +1,17 @@
+package com.docmanagement.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.With;
+
+// The index returns hits without text; SearchIndexService fills it in from document_chunks
+@Getter
+@AllArgsConstructor
+public class SearchHit {
+    private final long chunkId;
+    private final long documentId;
+    private final String documentTitle;
+    @With
+    private final String text;
+    private final double score;
+}
@@ -0,0 +1,273 @@
+package com.docmanagement.search;
+
+import com.docmanagement.event.DocumentLifecycleEvent;
+import com.docmanagement.repository.SearchIndexSourceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// Owns the in-process chunk index used by Q&A. The index is loaded from its last segment on startup
+// and caught up with the database; afterwards every document lifecycle event is applied once its
+// transaction commits, including those broadcast by other nodes. Events are best effort (a broadcast
+// can fail after the commit), so the same catch-up also runs periodically to pick up what was missed.
+// All writes run on the single searchIndexExecutor thread, so they are applied in commit order.
+@Service
+@Slf4j
+public class SearchIndexService {
+
+    // Documents completed shortly before a checkpoint may have committed after it was written
+    private static final long CATCH_UP_MARGIN_MILLIS = 5 * 60 * 1000L;
+    private static final int LOAD_BATCH_SIZE = 200;
+
+    private final SearchIndexSourceRepository sourceRepository;
+    private final TextAnalyzer textAnalyzer;
+    private final QAAnswerCache answerCache;
+    private final Executor searchIndexExecutor;
+    private final IndexSegmentStore segmentStore;
+    private final boolean enabled;
+    private final long checkpointIntervalMillis;
+
+    private volatile InvertedIndex index;
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    private volatile long lastCheckpoint = System.currentTimeMillis();
+    private volatile long lastReconcile;
+
+    public SearchIndexService(SearchIndexSourceRepository sourceRepository,
+                              TextAnalyzer textAnalyzer,
+                              QAAnswerCache answerCache,
+                              @Qualifier("searchIndexExecutor") Executor searchIndexExecutor,
+                              @Value("${search.index.enabled:true}") boolean enabled,
+                              @Value("${search.index.directory:./search-index}") String directory,
+                              @Value("${search.index.checkpoint-interval-seconds:60}") long checkpointIntervalSeconds) {
+        this.sourceRepository = sourceRepository;
+        this.textAnalyzer = textAnalyzer;
+        this.answerCache = answerCache;
+        this.searchIndexExecutor = searchIndexExecutor;
+        this.segmentStore = new IndexSegmentStore(Paths.get(directory));
+        this.enabled = enabled;
+        this.checkpointIntervalMillis = checkpointIntervalSeconds * 1000;
+        this.index = new InvertedIndex(textAnalyzer);
+    }
+
+    // False until the startup load finished; callers fall back to the database search meanwhile
+    public boolean isReady() {
+        return ready;
+    }
+
+    // The index keeps no chunk text, so the text of the top hits is read from document_chunks. A
+    // chunk removed since the index last saw its document is left out.
+    public List<SearchHit> search(String query, int limit) {
+        if (!ready) {
+            return List.of();
+        }
+        List<SearchHit> hits = index.search(textAnalyzer.analyze(query), limit);
+        if (hits.isEmpty()) {
+            return hits;
+        }
+        Map<Long, String> contents = sourceRepository.findChunkContents(
+                hits.stream().map(SearchHit::getChunkId).toList());
+        List<SearchHit> withText = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            String text = contents.get(hit.getChunkId());
+            if (text != null) {
+                withText.add(hit.withText(text));
+            }
+        }
+        return withText;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            searchIndexExecutor.execute(this::loadAndCatchUp);
+        }
+    }
+
+    // Status changes (re)index the documents, dropping those that are no longer COMPLETED; uploads are
+    // still PENDING and not searchable yet. Cached Q&A answers are invalidated once the index reflects
+    // the change (or right away when there is no index).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentLifecycle(DocumentLifecycleEvent event) {
+        List<Long> ids = event.getDocumentIds();
+        if (event.getType() == DocumentLifecycleEvent.Type.UPLOADED || ids.isEmpty()) {
+            return;
+        }
+        Long generation = answerCache.sharedGeneration(event);
+        if (!enabled) {
+            answerCache.invalidate(generation);
+        } else if (event.getType() == DocumentLifecycleEvent.Type.DELETED) {
+            searchIndexExecutor.execute(() -> remove(ids, generation));
+        } else {
+            searchIndexExecutor.execute(() -> reindex(ids, generation));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${search.index.reconcile-interval-seconds:300}",
+            fixedDelayString = "${search.index.reconcile-interval-seconds:300}", timeUnit = TimeUnit.SECONDS)
+    public void scheduleReconcile() {
+        if (enabled && ready) {
+            searchIndexExecutor.execute(this::reconcile);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ready && dirty) {
+            checkpoint();
+        }
+    }
+
+    void loadAndCatchUp() {
+        long started = System.currentTimeMillis();
+        try {
+            Optional<IndexSegmentStore.Segment> segment = segmentStore.read(textAnalyzer);
+            InvertedIndex loaded = segment.map(IndexSegmentStore.Segment::getIndex)
+                    .orElseGet(() -> new InvertedIndex(textAnalyzer));
+            long since = segment.map(s -> s.getCheckpointMillis() - CATCH_UP_MARGIN_MILLIS).orElse(0L);
+            int indexed = loaded.documentIds().size();
+
+            // Documents deleted or reprocessed while the application was down
+            int changed = catchUp(loaded, since);
+
+            index = loaded;
+            lastReconcile = started;
+            ready = true;
+            dirty = segment.isEmpty() || changed > 0;
+            log.info("Search index ready: {} chunks of {} documents in {} ms ({} from segment)",
+                    loaded.chunkCount(), loaded.documentIds().size(), System.currentTimeMillis() - started,
+                    segment.isPresent() ? indexed : 0);
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load the search index, Q&A keeps using the database search", e);
+        }
+    }
+
+    // Changes whose event never arrived (a failed broadcast from another node, or one lost in a restart
+    // of the broker) are found the same way as those made while the application was down
+    void reconcile() {
+        long started = System.currentTimeMillis();
+        try {
+            int changed = catchUp(index, lastReconcile - CATCH_UP_MARGIN_MILLIS);
+            lastReconcile = started;
+            if (changed > 0) {
+                log.debug("Search index reconcile re-read {} documents", changed);
+                dirty = true;
+                answerCache.invalidate();
+                maybeCheckpoint();
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to reconcile the search index with the database", e);
+        }
+    }
+
+    // Drops documents that are no longer COMPLETED, adds the COMPLETED ones the index lacks and re-reads
+    // those changed after sinceMillis; returns how many documents that touched
+    private int catchUp(InvertedIndex target, long sinceMillis) {
+        Set<Long> completed = sourceRepository.findCompletedDocumentIds();
+        Set<Long> indexed = target.documentIds();
+        int removed = 0;
+        for (Long id : indexed) {
+            if (!completed.contains(id)) {
+                target.removeDocument(id);
+                removed++;
+            }
+        }
+        List<Long> missing = new ArrayList<>();
+        for (Long id : completed) {
+            if (!indexed.contains(id)) {
+                missing.add(id);
+            }
+        }
+
+        Set<Long> caughtUp = new HashSet<>();
+        LocalDateTime changedAfter = LocalDateTime.ofInstant(Instant.ofEpochMilli(Math.max(sinceMillis, 0L)),
+                ZoneId.systemDefault());
+        long afterId = 0;
+        List<Long> page;
+        while (!(page = sourceRepository.findCompletedIdsUpdatedSince(afterId, changedAfter, LOAD_BATCH_SIZE)).isEmpty()) {
+            apply(target, page);
+            caughtUp.addAll(page);
+            afterId = page.get(page.size() - 1);
+        }
+        missing.removeAll(caughtUp);
+        for (int i = 0; i < missing.size(); i += LOAD_BATCH_SIZE) {
+            apply(target, missing.subList(i, Math.min(i + LOAD_BATCH_SIZE, missing.size())));
+        }
+        return removed + caughtUp.size() + missing.size();
+    }
+
+    private void reindex(List<Long> documentIds, Long generation) {
+        try {
+            Set<Long> found = apply(index, documentIds);
+            for (Long id : documentIds) {
+                if (!found.contains(id)) {
+                    index.removeDocument(id);
+                }
+            }
+            dirty = true;
+            maybeCheckpoint();
+        } catch (RuntimeException e) {
+            log.error("Failed to index documents {}", documentIds, e);
+        } finally {
+            answerCache.invalidate(generation);
+        }
+    }
+
+    private void remove(List<Long> documentIds, Long generation) {
+        documentIds.forEach(index::removeDocument);
+        answerCache.invalidate(generation);
+        dirty = true;
+        maybeCheckpoint();
+    }
+
+    private Set<Long> apply(InvertedIndex target, List<Long> documentIds) {
+        Set<Long> found = new HashSet<>();
+        for (SourceDocument document : sourceRepository.findDocuments(documentIds)) {
+            target.replaceDocument(document);
+            found.add(document.getId());
+        }
+        return found;
+    }
+
+    private void maybeCheckpoint() {
+        if (ready && System.currentTimeMillis() - lastCheckpoint >= checkpointIntervalMillis) {
+            checkpoint();
+        }
+    }
+
+    private synchronized void checkpoint() {
+        if (!dirty) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            dirty = false;
+            segmentStore.write(index, now);
+            lastCheckpoint = now;
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Failed to write the search index segment", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.docmanagement.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// A COMPLETED document as read from the database for indexing, chunks in chunk order
+@Getter
+@AllArgsConstructor
+public class SourceDocument {
+    private final long id;
+    private final String title;
+    private final List<IndexedChunk> chunks;
+}
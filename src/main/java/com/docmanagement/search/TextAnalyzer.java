@@ -0,0 +1,96 @@
+package com.docmanagement.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Turns text into index terms: lower-cased letter/digit runs, stop words dropped, light suffix
+// stemming. Documents and questions go through the same analyzer so their terms line up.
+@Component
+public class TextAnalyzer {
+
+    // Bump whenever tokenisation or stemming changes; index segments written with another version are rebuilt
+    public static final int VERSION = 1;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "and", "or", "but", "is", "are", "was", "were",
+            "be", "been", "being", "in", "on", "at", "to", "for", "with", "by",
+            "about", "against", "between", "into", "through", "during", "before",
+            "after", "above", "below", "from", "up", "down", "of", "off", "over", "under",
+            "what", "which", "who", "whom", "how", "when", "where", "why", "do", "does", "did",
+            "it", "its", "this", "that", "these", "those", "as", "if", "than", "then", "so", "not");
+
+    public List<String> analyze(CharSequence text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+
+        StringBuilder token = new StringBuilder(32);
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                String term = normalize(token);
+                if (term != null) {
+                    terms.add(term);
+                }
+                token.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    // Index term for one lower-cased token, or null when the token is too short or a stop word
+    public String normalize(CharSequence token) {
+        if (token.length() < 2 || isStopWord(token)) {
+            return null;
+        }
+        return stem(token.toString());
+    }
+
+    boolean isStopWord(CharSequence token) {
+        return STOP_WORDS.contains(token.toString());
+    }
+
+    static String stem(String word) {
+        StringBuilder stemmed = new StringBuilder(word);
+        stem(stemmed);
+        // Every rule shortens the word, so an unchanged length means nothing was stripped
+        return stemmed.length() == word.length() ? word : stemmed.toString();
+    }
+
+    // Strips plural and -ing/-ed endings in place; deliberately conservative so unrelated words rarely collide
+    static void stem(StringBuilder word) {
+        int n = word.length();
+        if (n > 4 && endsWith(word, "ies")) {
+            word.setLength(n - 3);
+            word.append('y');
+        } else if (n > 4 && (endsWith(word, "sses") || endsWith(word, "xes") || endsWith(word, "ches") || endsWith(word, "shes"))) {
+            word.setLength(n - 2);
+        } else if (n > 5 && endsWith(word, "ing")) {
+            word.setLength(n - 3);
+        } else if (n > 4 && endsWith(word, "ed") && word.charAt(n - 3) != 'e') {
+            word.setLength(n - 2);
+        } else if (n > 3 && word.charAt(n - 1) == 's' && !endsWith(word, "ss") && !endsWith(word, "us") && !endsWith(word, "is")) {
+            word.setLength(n - 1);
+        }
+    }
+
+    private static boolean endsWith(CharSequence word, String suffix) {
+        int offset = word.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (word.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package com.docmanagement.service;
+
+import com.docmanagement.model.DocumentBlob;
+import com.docmanagement.repository.DocumentBlobRepository;
+import com.docmanagement.storage.StorageBackend;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Deletes blobs nothing has referenced for the grace period. Each one is checked and deleted under
+// its row lock, the lock FileStorageService.store takes before reusing a blob, so an upload either
+// takes its reference first (and the blob stays) or finds the row gone and writes the file again.
+// The file is deleted before the row: if the transaction then fails, the row is left without a file,
+// which store repairs and the next sweep finishes.
+@Component
+@Slf4j
+public class BlobGarbageCollector {
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final StorageBackend storageBackend;
+    private final TransactionOperations transactionOperations;
+    private final long graceMinutes;
+    private final int batchSize;
+
+    public BlobGarbageCollector(DocumentBlobRepository documentBlobRepository,
+                                StorageBackend storageBackend,
+                                TransactionOperations transactionOperations,
+                                @Value("${document.storage.gc.grace-minutes:60}") long graceMinutes,
+                                @Value("${document.storage.gc.batch-size:200}") int batchSize) {
+        this.documentBlobRepository = documentBlobRepository;
+        this.storageBackend = storageBackend;
+        this.transactionOperations = transactionOperations;
+        this.graceMinutes = graceMinutes;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${document.storage.gc.interval-seconds:600}",
+            fixedDelayString = "${document.storage.gc.interval-seconds:600}", timeUnit = TimeUnit.SECONDS)
+    public int sweep() {
+        LocalDateTime releasedBefore = LocalDateTime.now().minusMinutes(graceMinutes);
+        List<String> hashes = documentBlobRepository.findReleasedBefore(releasedBefore, PageRequest.of(0, batchSize));
+        int deleted = 0;
+        for (String hash : hashes) {
+            try {
+                if (Boolean.TRUE.equals(transactionOperations.execute(status -> collect(hash, releasedBefore)))) {
+                    deleted++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not delete unreferenced blob {}: {}", hash, e.getMessage());
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced blobs", deleted);
+        }
+        return deleted;
+    }
+
+    private boolean collect(String hash, LocalDateTime releasedBefore) {
+        Optional<DocumentBlob> locked = documentBlobRepository.findByHashForUpdate(hash);
+        if (locked.isEmpty() || locked.get().getRefCount() > 0 || locked.get().getReleasedAt() == null
+                || !locked.get().getReleasedAt().isBefore(releasedBefore)) {
+            return false;
+        }
+
+        DocumentBlob blob = locked.get();
+        try {
+            storageBackend.delete(Paths.get(blob.getPath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        documentBlobRepository.delete(blob);
+        return true;
+    }
+}
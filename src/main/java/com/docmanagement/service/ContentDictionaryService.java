@@ -0,0 +1,68 @@
+package com.docmanagement.service;
+
+import com.docmanagement.dto.response.ContentDictionaryResponse;
+import com.docmanagement.repository.ContentDictionaryRepository;
+import com.docmanagement.storage.ContentCodec;
+import com.docmanagement.storage.ContentDictionaryTrainer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Trains the compression dictionary on the stored corpus and makes the latest one current on startup.
+// Other nodes keep compressing with their dictionary until they restart, but read the new one as
+// soon as they meet text written with it.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentDictionaryService {
+
+    private final ContentDictionaryRepository contentDictionaryRepository;
+    private final ContentCodec contentCodec;
+
+    @Value("${document.content.compression.dictionary-size:32768}")
+    private int dictionarySize;
+
+    @Value("${document.content.compression.max-training-samples:1000}")
+    private int maxTrainingSamples;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLatest() {
+        try {
+            contentDictionaryRepository.findLatest().ifPresent(dictionary ->
+                    log.info("Compressing content with dictionary {}", contentCodec.useDictionary(dictionary)));
+        } catch (DataAccessException e) {
+            log.warn("Could not load the content dictionary, compressing without one", e);
+        }
+    }
+
+    // At most maxTrainingSamples texts of at most the trainer's sample prefix each are held at once
+    public ContentDictionaryResponse train(int samples) {
+        int limit = Math.max(0, Math.min(samples, maxTrainingSamples));
+        int prefix = ContentDictionaryTrainer.SAMPLE_PREFIX;
+        List<String> texts = new ArrayList<>(limit);
+        contentDictionaryRepository.forEachRecentContent(limit, prefix, (content, compressed) ->
+                texts.add(compressed != null ? contentCodec.decompress(compressed, prefix) : content));
+        if (texts.size() < 2) {
+            throw new IllegalStateException("At least two processed documents are needed to train a dictionary");
+        }
+
+        byte[] dictionary = ContentDictionaryTrainer.train(texts, dictionarySize);
+        long id = ContentCodec.dictionaryId(dictionary);
+        contentDictionaryRepository.save(id, dictionary);
+        contentCodec.useDictionary(dictionary);
+        log.info("Trained content dictionary {} ({} bytes) on {} documents", id, dictionary.length, texts.size());
+
+        return ContentDictionaryResponse.builder()
+                .id(id)
+                .size(dictionary.length)
+                .samples(texts.size())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.docmanagement.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Loads "documents" entries (keyed by document id) for refreshAfterWrite. Anything else loads as
+// null, which drops the entry on refresh so the next read recomputes it.
+@Component
+@RequiredArgsConstructor
+public class DocumentCacheLoader implements CacheLoader<Object, Object> {
+
+    // Looked up lazily: the cache manager is built before DocumentService
+    private final ObjectProvider<DocumentService> documentService;
+
+    @Override
+    public Object load(Object key) {
+        if (key instanceof Long id) {
+            return documentService.getObject().findDocument(id).orElse(null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.docmanagement.service;
+
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.repository.DocumentChunkRepository;
+import com.docmanagement.repository.DocumentContentRepository;
+import com.docmanagement.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentDeduplicationService {
+
+    private final DocumentRepository documentRepository;
+    private final DocumentChunkRepository documentChunkRepository;
+    private final DocumentContentRepository documentContentRepository;
+
+    // When the same bytes were already processed by the same pipeline version, copy the extracted
+    // content, keywords and chunks from that document instead of running Tika again. Returns false
+    // when nothing could be reused.
+    public boolean reuseProcessedContent(Document document, String pipelineVersion) {
+        Optional<Document> processed = findProcessedDuplicate(document, pipelineVersion);
+        if (processed.isEmpty()) {
+            return false;
+        }
+
+        Document source = processed.get();
+        log.info("Reusing extracted content of document {} for document {}", source.getId(), document.getId());
+
+        if (document.getKeywords() == null || document.getKeywords().isEmpty()) {
+            document.setKeywords(new HashSet<>(source.getKeywords()));
+        }
+
+        documentContentRepository.copyContent(source.getId(), document.getId());
+        // A reprocessed document may still have chunks of its own
+        documentChunkRepository.deleteByDocumentId(document.getId());
+        int copied = documentChunkRepository.copyChunks(source.getId(), document.getId());
+        log.debug("Copied {} chunks from document {}", copied, source.getId());
+        return true;
+    }
+
+    // Read-only check whether reuseProcessedContent would find something to copy
+    public boolean hasProcessedDuplicate(Document document, String pipelineVersion) {
+        return findProcessedDuplicate(document, pipelineVersion).isPresent();
+    }
+
+    private Optional<Document> findProcessedDuplicate(Document document, String pipelineVersion) {
+        if (document.getContentHash() == null) {
+            return Optional.empty();
+        }
+        return documentRepository.findFirstByContentHashAndStatusAndPipelineVersionAndIdNot(
+                document.getContentHash(), DocumentStatus.COMPLETED, pipelineVersion, document.getId());
+    }
+}
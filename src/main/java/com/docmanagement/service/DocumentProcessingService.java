@@ -1,17 +1,42 @@
 package com.docmanagement.service;
 
+import com.docmanagement.processing.ChunkingContentHandler;
+import com.docmanagement.processing.ChunkingStrategy;
+import com.docmanagement.processing.FixedSizeChunkingStrategy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.Tika;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,7 +51,85 @@ public class DocumentProcessingService {
             "after", "above", "below", "from", "up", "down", "of", "off", "over", "under"
     ));
 
+    private static final int STREAM_BUFFER_CHUNKS = 16;
+
+    private final ThreadPoolTaskExecutor extractionExecutor;
+    private final Semaphore extractionPermits;
+    private final long extractionTimeoutSeconds;
+    private final int maxCharacters;
+
+    public DocumentProcessingService(@Qualifier("extractionExecutor") ThreadPoolTaskExecutor extractionExecutor,
+                                     @Value("${document.extraction.timeout-seconds:120}") long extractionTimeoutSeconds,
+                                     @Value("${document.extraction.max-characters:5000000}") int maxCharacters) {
+        this.extractionExecutor = extractionExecutor;
+        this.extractionPermits = new Semaphore(extractionExecutor.getMaxPoolSize());
+        this.extractionTimeoutSeconds = extractionTimeoutSeconds;
+        this.maxCharacters = maxCharacters;
+        this.tika.setMaxStringLength(maxCharacters);
+    }
+
+    // Runs Tika on one of a bounded number of extraction workers. Callers wait while every worker is
+    // busy, which is what pushes back on the queue consumers, and fail after the per-document timeout
+    // whether they are still waiting for a worker or the parse has not finished. A parse that ignores
+    // the interrupt keeps its worker until it ends, so hung parses can never outnumber the pool.
     public String extractContent(String filePath) throws IOException, TikaException {
+        ExtractionTask<String> task = submit(filePath, () -> parse(filePath));
+        return task.get(TimeUnit.SECONDS.toNanos(extractionTimeoutSeconds));
+    }
+
+    // Streaming variant: the worker parses with a SAX handler and hands chunks to the
+    // calling thread through a small bounded buffer, so the full text is never held in memory.
+    // The consumer runs on the calling thread and therefore inside the caller's transaction.
+    public void streamChunks(String filePath, int chunkSize, Consumer<String> chunkConsumer)
+            throws IOException, TikaException {
+        streamChunks(filePath, new FixedSizeChunkingStrategy(chunkSize), chunkConsumer);
+    }
+
+    public void streamChunks(String filePath, ChunkingStrategy chunkingStrategy, Consumer<String> chunkConsumer)
+            throws IOException, TikaException {
+        streamChunks(filePath, chunkingStrategy, chunkConsumer, Writer.nullWriter());
+    }
+
+    // The worker also writes the extracted text to text as it parses; the caller may use text once
+    // this returns normally
+    public void streamChunks(String filePath, ChunkingStrategy chunkingStrategy, Consumer<String> chunkConsumer,
+                             Writer text) throws IOException, TikaException {
+        BlockingQueue<StreamedChunk> handoff = new ArrayBlockingQueue<>(STREAM_BUFFER_CHUNKS);
+        ExtractionTask<Void> task = submit(filePath, () -> {
+            ChunkingContentHandler handler = new ChunkingContentHandler(chunkingStrategy, maxCharacters,
+                    chunk -> handOff(handoff, new StreamedChunk(chunk, false)), text);
+            try {
+                parse(filePath, handler);
+            } finally {
+                handoff.put(StreamedChunk.END);
+            }
+            return null;
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(extractionTimeoutSeconds);
+        try {
+            while (true) {
+                StreamedChunk chunk = handoff.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (chunk == null) {
+                    throw task.timedOut();
+                }
+                if (chunk.last) {
+                    break;
+                }
+                chunkConsumer.accept(chunk.text);
+            }
+            task.get(Math.max(0, deadline - System.nanoTime()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting " + filePath);
+        } finally {
+            // Stops the worker if the consumer failed or we gave up
+            task.cancel();
+        }
+    }
+
+    // Package-private so tests can substitute a parse that hangs
+    String parse(String filePath) throws IOException, TikaException {
         File file = new File(filePath);
         Metadata metadata = new Metadata();
         try (FileInputStream inputStream = new FileInputStream(file)) {
@@ -34,6 +137,108 @@ public class DocumentProcessingService {
         }
     }
 
+    private void parse(String filePath, ChunkingContentHandler handler) throws IOException, TikaException {
+        Metadata metadata = new Metadata();
+        try (TikaInputStream inputStream = TikaInputStream.get(Paths.get(filePath), metadata)) {
+            tika.getParser().parse(inputStream, new BodyContentHandler(handler), metadata, new ParseContext());
+        } catch (SAXException e) {
+            if (!WriteLimitReachedException.isWriteLimitReached(e)) {
+                throw new TikaException("Error parsing " + filePath, e);
+            }
+        }
+        handler.flush();
+    }
+
+    private void handOff(BlockingQueue<StreamedChunk> handoff, StreamedChunk chunk) {
+        try {
+            handoff.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Extraction cancelled");
+        }
+    }
+
+    // A permit per pool thread, held from submission until the worker is done with the parse. The
+    // caller gives up at the timeout and interrupts the parse, but the permit only comes back when the
+    // worker really is free again.
+    private <T> ExtractionTask<T> submit(String filePath, Callable<T> work) throws IOException, TikaException {
+        try {
+            if (!extractionPermits.tryAcquire(extractionTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new TikaException("No extraction worker free within " + extractionTimeoutSeconds + "s: " + filePath);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an extraction worker");
+        }
+
+        Future<T> future;
+        try {
+            future = extractionExecutor.submit(() -> {
+                try {
+                    return work.call();
+                } finally {
+                    extractionPermits.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            extractionPermits.release();
+            throw new TikaException("No extraction worker available for " + filePath, e);
+        }
+        return new ExtractionTask<>(filePath, future);
+    }
+
+    // One handed-off piece of text, or the end of the stream
+    @RequiredArgsConstructor
+    private static class StreamedChunk {
+
+        static final StreamedChunk END = new StreamedChunk(null, true);
+
+        private final String text;
+        private final boolean last;
+    }
+
+    @RequiredArgsConstructor
+    private class ExtractionTask<T> {
+
+        private final String filePath;
+        private final Future<T> future;
+
+        T get(long timeoutNanos) throws IOException, TikaException {
+            try {
+                return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw timedOut();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while extracting " + filePath);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (cause instanceof TikaException tikaException) {
+                    throw tikaException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new TikaException("Extraction failed for " + filePath, cause);
+            }
+        }
+
+        TikaException timedOut() {
+            cancel();
+            log.warn("Extraction of {} timed out after {}s", filePath, extractionTimeoutSeconds);
+            return new TikaException("Extraction timed out after " + extractionTimeoutSeconds + "s: " + filePath);
+        }
+
+        // Interrupts the parse; if Tika ignores that, it keeps its worker and permit until it ends
+        void cancel() {
+            future.cancel(true);
+        }
+    }
+
     public Set<String> extractKeywords(String content) {
         if (content == null || content.isEmpty()) {
             return new HashSet<>();
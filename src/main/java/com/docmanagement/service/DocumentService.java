@@ -1,28 +1,44 @@
 package com.docmanagement.service;
 
+import com.docmanagement.config.CacheConfig;
 import com.docmanagement.config.RabbitMQConfig;
 import com.docmanagement.dto.request.DocumentFilterRequest;
 import com.docmanagement.dto.request.DocumentUploadRequest;
+import com.docmanagement.dto.request.TotalCountMode;
+import com.docmanagement.dto.response.CursorPagedResponse;
 import com.docmanagement.dto.response.DocumentResponse;
 import com.docmanagement.dto.response.PagedResponse;
 import com.docmanagement.dto.response.UserSummaryResponse;
+import com.docmanagement.event.DocumentLifecycleEvent;
 import com.docmanagement.model.Document;
 import com.docmanagement.model.DocumentStatus;
 import com.docmanagement.model.User;
+import com.docmanagement.processing.PipelineVersion;
+import com.docmanagement.repository.DocumentChunkRepository;
+import com.docmanagement.repository.DocumentClaimRepository;
+import com.docmanagement.repository.DocumentCursor;
 import com.docmanagement.repository.DocumentRepository;
+import com.docmanagement.repository.DocumentSummary;
+import com.docmanagement.service.FileStorageService.StoredFile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -31,13 +47,16 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -48,35 +67,47 @@ public class DocumentService {
     private final RabbitTemplate rabbitTemplate;
     private final JobLauncher jobLauncher;
     private final Job processDocumentsJob;
-    private final String documentStorageLocation = "./document-storage";
+    private final JobExplorer jobExplorer;
+    private final FileStorageService fileStorageService;
+    private final DocumentChunkRepository documentChunkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DocumentClaimRepository documentClaimRepository;
+    private final PipelineVersion pipelineVersion;
 
     @Transactional
     public DocumentResponse uploadDocument(MultipartFile file, DocumentUploadRequest request) throws IOException {
-        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
-        // Create storage directory if it doesn't exist
-        Path storagePath = Paths.get(documentStorageLocation);
-        if (!Files.exists(storagePath)) {
-            Files.createDirectories(storagePath);
+        try (InputStream inputStream = file.getInputStream()) {
+            return storeDocument(inputStream, file.getOriginalFilename(), file.getContentType(), request);
         }
+    }
+
+    @Transactional
+    public DocumentResponse uploadDocumentStream(InputStream inputStream, String originalFilename,
+                                                 String contentType, DocumentUploadRequest request) throws IOException {
+        if (contentType == null) {
+            contentType = MediaTypeFactory.getMediaType(originalFilename)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                    .toString();
+        }
+        return storeDocument(inputStream, originalFilename, contentType, request);
+    }
+
+    private DocumentResponse storeDocument(InputStream inputStream, String originalFilename,
+                                           String contentType, DocumentUploadRequest request) throws IOException {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-        Path filePath = storagePath.resolve(uniqueFilename);
-        
-        // Save file to disk
-        Files.copy(file.getInputStream(), filePath);
+        // Stream file into the content-addressed store, size and digest are computed on the way
+        StoredFile storedFile = fileStorageService.store(inputStream);
         
         // Create document entity
         Document document = Document.builder()
                 .title(request.getTitle())
                 .description(request.getDescription())
                 .fileName(originalFilename)
-                .fileType(file.getContentType())
-                .fileSize(file.getSize())
-                .filePath(filePath.toString())
+                .fileType(contentType)
+                .fileSize(storedFile.getSize())
+                .contentHash(storedFile.getSha256())
+                .filePath(storedFile.getPath().toString())
                 .uploadedBy(currentUser)
                 .keywords(request.getKeywords())
                 .status(DocumentStatus.PENDING)
@@ -84,7 +115,7 @@ public class DocumentService {
                 .build();
         
         Document savedDocument = documentRepository.save(document);
-        documentRepository.updateContentVector(savedDocument.getId());
+        eventPublisher.publishEvent(DocumentLifecycleEvent.uploaded(savedDocument.getId()));
         // Send to message queue for processing
         rabbitTemplate.convertAndSend(
                 RabbitMQConfig.DOCUMENT_EXCHANGE,
@@ -98,9 +129,11 @@ public class DocumentService {
     @Async
     public void processDocumentsBatch() {
         try {
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("time", System.currentTimeMillis())
-                    .toJobParameters();
+            // A failed or stopped run is restarted with its own parameters; partitions resume where they stopped
+            JobParameters jobParameters = restartableJobParameters()
+                    .orElseGet(() -> new JobParametersBuilder()
+                            .addLong("time", System.currentTimeMillis())
+                            .toJobParameters());
             
             jobLauncher.run(processDocumentsJob, jobParameters);
         } catch (Exception e) {
@@ -108,14 +141,45 @@ public class DocumentService {
         }
     }
 
-    @Cacheable(value = "documents", key = "#id")
+    // Marks documents whose chunks are out of date for the next processDocumentsBatch run. Their status
+    // is visible, so caches and the search index of every node hear about it like any other change.
+    @Transactional
+    public int requeueStaleDocuments() {
+        List<Long> requeued = documentClaimRepository.requeueStale(pipelineVersion.get());
+        if (!requeued.isEmpty()) {
+            eventPublisher.publishEvent(DocumentLifecycleEvent.statusChanged(requeued));
+        }
+        log.info("Requeued {} documents for reprocessing with pipeline {}", requeued.size(), pipelineVersion.get());
+        return requeued.size();
+    }
+
+    private Optional<JobParameters> restartableJobParameters() {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(processDocumentsJob.getName());
+        if (lastInstance == null) {
+            return Optional.empty();
+        }
+        JobExecution lastExecution = jobExplorer.getLastJobExecution(lastInstance);
+        if (lastExecution == null || (lastExecution.getStatus() != BatchStatus.FAILED
+                && lastExecution.getStatus() != BatchStatus.STOPPED)) {
+            return Optional.empty();
+        }
+        log.info("Restarting document batch job instance {}", lastInstance.getInstanceId());
+        return Optional.of(lastExecution.getJobParameters());
+    }
+
+    @Cacheable(value = CacheConfig.DOCUMENTS_CACHE, key = "#id")
     public DocumentResponse getDocumentById(Long id) {
-        Document document = documentRepository.findById(id)
+        return findDocument(id)
                 .orElseThrow(() -> new RuntimeException("Document not found with id: " + id));
-        return mapToDocumentResponse(document);
     }
 
-    @Cacheable(value = "documents", key = "'filter:' + #filterRequest.hashCode()")
+    // Uncached; also reloads "documents" entries on refresh, outside of any request
+    @Transactional(readOnly = true)
+    public Optional<DocumentResponse> findDocument(Long id) {
+        return documentRepository.findById(id).map(this::mapToDocumentResponse);
+    }
+
+    @Cacheable(value = CacheConfig.DOCUMENT_PAGES_CACHE, key = "#filterRequest")
     public PagedResponse<DocumentResponse> getDocuments(DocumentFilterRequest filterRequest) {
         Sort sort = Sort.by(
                 filterRequest.getSortDirection().equalsIgnoreCase("asc") ? 
@@ -124,22 +188,12 @@ public class DocumentService {
         
         Pageable pageable = PageRequest.of(filterRequest.getPage(), filterRequest.getSize(), sort);
         
-        Page<Document> documentPage;
-        
-        if (filterRequest.getKeyword() != null && !filterRequest.getKeyword().isEmpty()) {
-            documentPage = documentRepository.findByKeyword(filterRequest.getKeyword(), pageable);
-        } else {
-            documentPage = documentRepository.findByFilters(filterRequest,
-                    pageable
-            );
-        }
-        
-        List<DocumentResponse> content = documentPage.getContent().stream()
-                .map(this::mapToDocumentResponse)
-                .collect(Collectors.toList());
+        // Keyword included: one statement for the rows and their uploaders, one for their keywords
+        // (plus the count when the page does not tell the total)
+        Page<DocumentSummary> documentPage = documentRepository.findByFilters(filterRequest, pageable);
         
         return PagedResponse.<DocumentResponse>builder()
-                .content(content)
+                .content(toResponses(documentPage.getContent()))
                 .page(documentPage.getNumber())
                 .size(documentPage.getSize())
                 .totalElements(documentPage.getTotalElements())
@@ -148,20 +202,90 @@ public class DocumentService {
                 .build();
     }
 
-    @CacheEvict(value = "documents", key = "#id")
+    // Keyset listing, newest first: every page is one index range scan no matter how deep, and the
+    // COUNT(*) only runs when the caller asks for an exact total
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<DocumentResponse> getDocumentsByCursor(DocumentFilterRequest filterRequest,
+                                                                      String cursor, TotalCountMode countMode) {
+        int size = filterRequest.getSize();
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        DocumentCursor after = cursor != null && !cursor.isEmpty() ? DocumentCursor.decode(cursor) : null;
+
+        // One row more than the page tells whether there is a next page
+        List<DocumentSummary> documents = documentRepository.findByFiltersAfter(filterRequest, after, size + 1);
+        boolean last = documents.size() <= size;
+        if (!last) {
+            documents = documents.subList(0, size);
+        }
+
+        Long total = null;
+        if (countMode == TotalCountMode.EXACT) {
+            total = documentRepository.countByFilters(filterRequest);
+        } else if (countMode == TotalCountMode.ESTIMATE) {
+            total = documentRepository.estimateCountByFilters(filterRequest);
+        }
+
+        DocumentSummary lastDocument = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+        return CursorPagedResponse.<DocumentResponse>builder()
+                .content(toResponses(documents))
+                .size(size)
+                .nextCursor(last || lastDocument == null ? null
+                        : new DocumentCursor(lastDocument.getCreatedAt(), lastDocument.getId()).encode())
+                .last(last)
+                .totalElements(total)
+                .totalExact(countMode == TotalCountMode.EXACT)
+                .build();
+    }
+
+    // Cached entries are evicted through the DELETED event once the transaction commits
     @Transactional
     public void deleteDocument(Long id) {
         Document document = documentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Document not found with id: " + id));
         
-        // Delete the physical file
-        try {
-            Files.deleteIfExists(Paths.get(document.getFilePath()));
-        } catch (IOException e) {
-            log.error("Error deleting document file: {}", document.getFilePath(), e);
+        // Release the shared blob, or delete the physical file for documents stored before deduplication
+        if (document.getContentHash() != null) {
+            fileStorageService.release(document.getContentHash());
+        } else {
+            try {
+                Files.deleteIfExists(Paths.get(document.getFilePath()));
+            } catch (IOException e) {
+                log.error("Error deleting document file: {}", document.getFilePath(), e);
+            }
         }
         
+        documentChunkRepository.deleteByDocumentId(document.getId());
         documentRepository.delete(document);
+        eventPublisher.publishEvent(DocumentLifecycleEvent.deleted(document.getId()));
+    }
+
+    private List<DocumentResponse> toResponses(List<DocumentSummary> documents) {
+        Map<Long, Set<String>> keywords = documentRepository.findKeywordsByDocumentIds(
+                documents.stream().map(DocumentSummary::getId).toList());
+        List<DocumentResponse> responses = new ArrayList<>(documents.size());
+        for (DocumentSummary document : documents) {
+            responses.add(DocumentResponse.builder()
+                    .id(document.getId())
+                    .title(document.getTitle())
+                    .fileName(document.getFileName())
+                    .fileType(document.getFileType())
+                    .fileSize(document.getFileSize())
+                    .description(document.getDescription())
+                    .uploadedBy(UserSummaryResponse.builder()
+                            .id(document.getUploaderId())
+                            .username(document.getUploaderUsername())
+                            .firstName(document.getUploaderFirstName())
+                            .lastName(document.getUploaderLastName())
+                            .build())
+                    .keywords(keywords.getOrDefault(document.getId(), new HashSet<>()))
+                    .status(document.getStatus())
+                    .createdAt(document.getCreatedAt())
+                    .updatedAt(document.getUpdatedAt())
+                    .build());
+        }
+        return responses;
     }
 
     private DocumentResponse mapToDocumentResponse(Document document) {
@@ -0,0 +1,148 @@
+package com.docmanagement.service;
+
+import com.docmanagement.model.DocumentBlob;
+import com.docmanagement.repository.DocumentBlobRepository;
+import com.docmanagement.storage.StorageBackend;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileStorageService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final StorageBackend storageBackend;
+
+    @Value("${document.upload.max-size:52428800}")
+    private long maxUploadSize;
+
+    // Content-addressed store: the bytes end up under their SHA-256 in the storage backend and are
+    // shared by every document with the same content. Each call takes one reference on the blob.
+    @Transactional
+    public StoredFile store(InputStream inputStream) throws IOException {
+        Path tempFile = storageBackend.createTempFile();
+        StoredFile written = write(inputStream, tempFile);
+        String hash = written.getSha256();
+
+        try {
+            Optional<DocumentBlob> existing = documentBlobRepository.findByHashForUpdate(hash);
+            if (existing.isPresent() && Files.exists(Paths.get(existing.get().getPath()))) {
+                DocumentBlob blob = existing.get();
+                blob.setRefCount(blob.getRefCount() + 1);
+                blob.setReleasedAt(null);
+                documentBlobRepository.save(blob);
+                log.debug("Reusing blob {} ({} references)", hash, blob.getRefCount());
+                return new StoredFile(Paths.get(blob.getPath()), written.getSize(), hash, true);
+            }
+
+            // Content-addressed, so a concurrent upload of the same bytes replaces it with identical content
+            Path blobPath = storageBackend.put(tempFile, hash);
+
+            if (existing.isPresent()) {
+                // The row is locked, only its file had gone missing
+                DocumentBlob blob = existing.get();
+                blob.setPath(blobPath.toString());
+                blob.setSize(written.getSize());
+                blob.setRefCount(blob.getRefCount() + 1);
+                blob.setReleasedAt(null);
+                documentBlobRepository.save(blob);
+            } else {
+                // Nothing to lock yet: insert, or count a reference if another upload got there first
+                documentBlobRepository.addReference(hash, blobPath.toString(), written.getSize());
+            }
+            return new StoredFile(blobPath, written.getSize(), hash, false);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // Drops one reference on the blob. The last one only marks it released: the row and file stay
+    // until BlobGarbageCollector removes them, so an upload of the same bytes meanwhile reuses them.
+    @Transactional
+    public void release(String hash) {
+        documentBlobRepository.findByHashForUpdate(hash).ifPresent(blob -> {
+            int remaining = Math.max(0, blob.getRefCount() - 1);
+            blob.setRefCount(remaining);
+            if (remaining == 0) {
+                blob.setReleasedAt(LocalDateTime.now());
+            }
+            documentBlobRepository.save(blob);
+        });
+    }
+
+    // Streams the input straight into the target file, computing the SHA-256 and size on the way.
+    // The caller owns (and closes) the input stream.
+    StoredFile write(InputStream inputStream, Path target) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long size = 0;
+
+        ReadableByteChannel source = Channels.newChannel(inputStream);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                size += read;
+                if (size > maxUploadSize) {
+                    throw new MaxUploadSizeExceededException(maxUploadSize);
+                }
+
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            // Never leave a partially written file behind
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        log.debug("Stored {} bytes to {}", size, target);
+        return new StoredFile(target, size, HexFormat.of().formatHex(digest.digest()), false);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StoredFile {
+        private final Path path;
+        private final long size;
+        private final String sha256;
+        private final boolean deduplicated;
+    }
+}
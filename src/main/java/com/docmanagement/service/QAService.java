@@ -3,132 +3,281 @@ package com.docmanagement.service;
 import com.docmanagement.dto.request.QuestionRequest;
 import com.docmanagement.dto.response.AnswerResponse;
 import com.docmanagement.dto.response.DocumentSnippetResponse;
+import com.docmanagement.dto.response.HighlightResponse;
 import com.docmanagement.model.Document;
 import com.docmanagement.model.DocumentChunk;
 import com.docmanagement.repository.DocumentChunkRepository;
-import com.docmanagement.repository.DocumentRepository;
+import com.docmanagement.repository.DocumentContentRepository;
+import com.docmanagement.repository.DocumentTextView;
+import com.docmanagement.repository.QABatchSearchRepository;
+import com.docmanagement.search.ChunkScorer;
+import com.docmanagement.search.QAAnswerCache;
+import com.docmanagement.search.QAQueryExecutor;
+import com.docmanagement.search.QueryResults;
+import com.docmanagement.search.QuerySource;
+import com.docmanagement.search.SearchHit;
+import com.docmanagement.search.SearchIndexService;
+import com.docmanagement.storage.ContentCodec;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class QAService {
 
-    private final DocumentRepository documentRepository;
     private final DocumentChunkRepository documentChunkRepository;
+    private final DocumentContentRepository documentContentRepository;
+    private final SearchIndexService searchIndexService;
+    private final ChunkScorer chunkScorer;
+    private final QAQueryExecutor qaQueryExecutor;
+    private final QABatchSearchRepository qaBatchSearchRepository;
+    private final QAAnswerCache answerCache;
+    private final ContentCodec contentCodec;
     private static final int MAX_RESULTS = 5;
 
-    @Cacheable(value = "questions", key = "#questionRequest.question")
+    @Value("${search.qa.deadline.chunks-ms:2000}")
+    private long chunkDeadlineMillis;
+
+    @Value("${search.qa.deadline.documents-ms:2000}")
+    private long documentDeadlineMillis;
+
+    @Value("${search.qa.batch.size:20}")
+    private int batchSize;
+
+    @Value("${search.qa.batch.deadline-ms:10000}")
+    private long batchDeadlineMillis;
+
     public AnswerResponse answerQuestion(QuestionRequest questionRequest) {
         String question = questionRequest.getQuestion();
+        String key = answerCache.key(question);
+        Optional<AnswerResponse> cached = answerCache.get(key, question);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        AnswerResponse answer = computeAnswer(question);
+        answerCache.put(key, answer);
+        return answer;
+    }
+
+    private AnswerResponse computeAnswer(String question) {
         Pageable pageable = PageRequest.of(0, MAX_RESULTS);
-        
-        // Search for relevant document chunks
-        List<DocumentChunk> relevantChunks;
-        try {
-            // Try full-text search first
-            relevantChunks = documentChunkRepository.searchByContentFullText(question, pageable);
-        } catch (Exception e) {
-            // Fall back to simple search if full-text search fails
-            relevantChunks = documentChunkRepository.searchByContentSimple(question, pageable);
+        ChunkScorer.Query query = chunkScorer.prepare(question);
+
+        // The in-process index answers without touching the database once it is loaded
+        AnswerResponse indexed = answerFromIndex(question, query);
+        if (indexed != null) {
+            return indexed;
         }
-        
-        // If no chunks found, search in full documents
-        if (relevantChunks.isEmpty()) {
-            List<Document> relevantDocuments;
-            try {
-                relevantDocuments = documentRepository.searchByContentFullText(question, pageable);
-            } catch (Exception e) {
-                relevantDocuments = documentRepository.searchByContentSimple(question, pageable);
+
+        // Chunks and whole documents are searched side by side, each with its own deadline
+        QueryResults<DocumentSnippetResponse> results = qaQueryExecutor.execute(List.of(
+                new QuerySource<>("chunks", Duration.ofMillis(chunkDeadlineMillis),
+                        () -> chunkSnippets(documentChunkRepository.searchByContentFullText(question, pageable), query),
+                        () -> chunkSnippets(documentChunkRepository.searchByContentSimple(question, pageable), query)),
+                new QuerySource<>("documents", Duration.ofMillis(documentDeadlineMillis),
+                        () -> documentSnippets(documentContentRepository.searchByContentFullText(question, pageable), query),
+                        () -> documentSnippets(documentContentRepository.searchByContentSimple(question, pageable), query))));
+
+        return AnswerResponse.builder()
+                .question(question)
+                .relevantDocuments(merge(results.get(0), results.get(1)))
+                .partial(!results.isComplete())
+                .build();
+    }
+
+    // Answers every distinct question once and hands each answer to the consumer as soon as it is
+    // ready: cache and index hits right away, the rest per database batch as the batches finish. The
+    // consumer is only called on the calling thread, in completion order.
+    public void answerQuestions(List<QuestionRequest> questionRequests, Consumer<AnswerResponse> consumer) {
+        Map<String, ChunkScorer.Query> pending = new LinkedHashMap<>();
+        Map<String, String> keys = new HashMap<>();
+        for (QuestionRequest questionRequest : questionRequests) {
+            String question = questionRequest.getQuestion();
+            if (keys.containsKey(question)) {
+                continue;
+            }
+            String key = answerCache.key(question);
+            keys.put(question, key);
+            Optional<AnswerResponse> cached = answerCache.get(key, question);
+            if (cached.isPresent()) {
+                consumer.accept(cached.get());
+                continue;
+            }
+
+            ChunkScorer.Query query = chunkScorer.prepare(question);
+            AnswerResponse indexed = answerFromIndex(question, query);
+            if (indexed != null) {
+                answerCache.put(key, indexed);
+                consumer.accept(indexed);
+            } else {
+                pending.put(question, query);
             }
-            
-            List<DocumentSnippetResponse> snippets = relevantDocuments.stream()
-                    .map(doc -> DocumentSnippetResponse.builder()
-                            .documentId(doc.getId())
-                            .documentTitle(doc.getTitle())
-                            .snippet(extractSnippet(doc.getContent(), question))
-                            .relevanceScore(1.0) // Simple relevance score
-                            .build())
-                    .collect(Collectors.toList());
-            
-            return AnswerResponse.builder()
-                    .question(question)
-                    .relevantDocuments(snippets)
-                    .build();
         }
-        
-        // Process chunks to create snippets
-        List<DocumentSnippetResponse> snippets = new ArrayList<>();
-        for (DocumentChunk chunk : relevantChunks) {
-            Document document = chunk.getDocument();
-            
-            DocumentSnippetResponse snippet = DocumentSnippetResponse.builder()
-                    .documentId(document.getId())
-                    .documentTitle(document.getTitle())
-                    .snippet(extractSnippet(chunk.getContent(), question))
-                    .relevanceScore(calculateRelevance(chunk.getContent(), question))
-                    .build();
-            
-            snippets.add(snippet);
+
+        List<String> questions = new ArrayList<>(pending.keySet());
+        Map<QuerySource<AnswerResponse>, List<String>> batches = new LinkedHashMap<>();
+        for (int i = 0; i < questions.size(); i += batchSize) {
+            List<String> batch = questions.subList(i, Math.min(i + batchSize, questions.size()));
+            batches.put(new QuerySource<>("batch", Duration.ofMillis(batchDeadlineMillis),
+                    () -> answerBatch(batch, pending), null), batch);
+        }
+
+        qaQueryExecutor.executeEach(new ArrayList<>(batches.keySet()), (source, answers) -> {
+            if (answers != null) {
+                for (AnswerResponse answer : answers) {
+                    answerCache.put(keys.get(answer.getQuestion()), answer);
+                    consumer.accept(answer);
+                }
+                return;
+            }
+            for (String question : batches.get(source)) {
+                consumer.accept(AnswerResponse.builder()
+                        .question(question)
+                        .relevantDocuments(List.of())
+                        .partial(true)
+                        .build());
+            }
+        });
+    }
+
+    // One database round-trip for the whole batch, then the same scoring and merge as answerQuestion
+    private List<AnswerResponse> answerBatch(List<String> questions, Map<String, ChunkScorer.Query> queries) {
+        List<List<DocumentSnippetResponse>> chunkHits = new ArrayList<>();
+        List<List<DocumentSnippetResponse>> documentHits = new ArrayList<>();
+        for (int i = 0; i < questions.size(); i++) {
+            chunkHits.add(new ArrayList<>());
+            documentHits.add(new ArrayList<>());
+        }
+
+        for (QABatchSearchRepository.Hit hit : qaBatchSearchRepository.search(questions, MAX_RESULTS)) {
+            DocumentSnippetResponse snippet = textSnippet(hit.getDocumentId(), hit.getTitle(), hit.getContent(),
+                    hit.getCompressedContent(), queries.get(questions.get(hit.getQuestion())));
+            (hit.isChunk() ? chunkHits : documentHits).get(hit.getQuestion()).add(snippet);
+        }
+
+        List<AnswerResponse> answers = new ArrayList<>(questions.size());
+        for (int i = 0; i < questions.size(); i++) {
+            answers.add(AnswerResponse.builder()
+                    .question(questions.get(i))
+                    .relevantDocuments(merge(chunkHits.get(i), documentHits.get(i)))
+                    .build());
+        }
+        return answers;
+    }
+
+    // Null when the index is not loaded yet or has nothing for the question
+    private AnswerResponse answerFromIndex(String question, ChunkScorer.Query query) {
+        if (!searchIndexService.isReady()) {
+            return null;
         }
-        
+        List<SearchHit> hits = searchIndexService.search(question, MAX_RESULTS);
+        if (hits.isEmpty()) {
+            return null;
+        }
+
+        List<DocumentSnippetResponse> snippets = hits.stream()
+                .map(hit -> snippet(hit.getDocumentId(), hit.getDocumentTitle(), hit.getText(), query, hit.getScore()))
+                .collect(Collectors.toList());
         return AnswerResponse.builder()
                 .question(question)
                 .relevantDocuments(snippets)
                 .build();
     }
-    
-    private String extractSnippet(String content, String question) {
-        if (content == null || content.isEmpty()) {
-            return "";
+
+    // Mapped inside the source's transaction, chunk.getDocument() is lazy
+    private List<DocumentSnippetResponse> chunkSnippets(List<DocumentChunk> chunks, ChunkScorer.Query query) {
+        List<DocumentSnippetResponse> snippets = new ArrayList<>(chunks.size());
+        for (DocumentChunk chunk : chunks) {
+            Document document = chunk.getDocument();
+            snippets.add(snippet(document.getId(), document.getTitle(), chunk.getContent(), query, null));
         }
-        
-        // Simple snippet extraction - find a sentence containing keywords from the question
-        String[] sentences = content.split("[.!?]");
-        String[] questionWords = question.toLowerCase().split("\\s+");
-        
-        for (String sentence : sentences) {
-            String sentenceLower = sentence.toLowerCase();
-            for (String word : questionWords) {
-                if (word.length() > 3 && sentenceLower.contains(word)) {
-                    return sentence.trim() + ".";
-                }
+        return snippets;
+    }
+
+    private List<DocumentSnippetResponse> documentSnippets(List<DocumentTextView> documents, ChunkScorer.Query query) {
+        return documents.stream()
+                .map(doc -> textSnippet(doc.getId(), doc.getTitle(), doc.getContent(), doc.getContentCompressed(), query))
+                .collect(Collectors.toList());
+    }
+
+    // Scores are scaled to the best hit of their source so both lists rank on the same 0..1 range.
+    // A document already represented by one of its chunks is not listed a second time.
+    private List<DocumentSnippetResponse> merge(List<DocumentSnippetResponse> chunkHits,
+                                                List<DocumentSnippetResponse> documentHits) {
+        List<DocumentSnippetResponse> merged = new ArrayList<>(normalise(chunkHits));
+        Set<Long> coveredDocuments = chunkHits.stream()
+                .map(DocumentSnippetResponse::getDocumentId)
+                .collect(Collectors.toSet());
+        for (DocumentSnippetResponse hit : normalise(documentHits)) {
+            if (!coveredDocuments.contains(hit.getDocumentId())) {
+                merged.add(hit);
             }
         }
-        
-        // If no matching sentence found, return the first part of the content
-        int snippetLength = Math.min(content.length(), 200);
-        return content.substring(0, snippetLength) + "...";
+
+        // Stable sort: on equal scores chunk hits stay ahead of whole documents
+        merged.sort(Comparator.comparing(DocumentSnippetResponse::getRelevanceScore).reversed());
+        return merged.size() > MAX_RESULTS ? new ArrayList<>(merged.subList(0, MAX_RESULTS)) : merged;
     }
-    
-    private double calculateRelevance(String content, String question) {
-        if (content == null || question == null) {
-            return 0.0;
+
+    private List<DocumentSnippetResponse> normalise(List<DocumentSnippetResponse> hits) {
+        double best = hits.stream().mapToDouble(DocumentSnippetResponse::getRelevanceScore).max().orElse(0);
+        if (best > 0) {
+            hits.forEach(hit -> hit.setRelevanceScore(hit.getRelevanceScore() / best));
         }
-        
-        // Simple relevance calculation based on word overlap
-        String[] contentWords = content.toLowerCase().split("\\s+");
-        String[] questionWords = question.toLowerCase().split("\\s+");
-        
-        int matches = 0;
-        for (String qWord : questionWords) {
-            if (qWord.length() <= 3) continue; // Skip short words
-            
-            for (String cWord : contentWords) {
-                if (cWord.contains(qWord) || qWord.contains(cWord)) {
-                    matches++;
-                    break;
-                }
-            }
+        return hits;
+    }
+
+    // Compressed text is scored while it is inflated, the whole document is never held as a string
+    private DocumentSnippetResponse textSnippet(Long documentId, String title, String content, byte[] compressed,
+                                                ChunkScorer.Query query) {
+        if (compressed == null) {
+            return snippet(documentId, title, content, query, null);
+        }
+        try (Reader reader = contentCodec.open(compressed)) {
+            return snippet(documentId, title, chunkScorer.score(reader, query), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        
-        return (double) matches / questionWords.length;
+    }
+
+    private DocumentSnippetResponse snippet(Long documentId, String title, String content,
+                                            ChunkScorer.Query query, Double relevanceScore) {
+        return snippet(documentId, title, chunkScorer.score(content, query), relevanceScore);
+    }
+
+    private DocumentSnippetResponse snippet(Long documentId, String title, ChunkScorer.ScoredChunk scored,
+                                            Double relevanceScore) {
+        int[] offsets = scored.getHighlights();
+        List<HighlightResponse> highlights = new ArrayList<>(offsets.length / 2);
+        for (int i = 0; i < offsets.length; i += 2) {
+            highlights.add(new HighlightResponse(offsets[i], offsets[i + 1]));
+        }
+
+        return DocumentSnippetResponse.builder()
+                .documentId(documentId)
+                .documentTitle(title)
+                .snippet(scored.getSnippet())
+                .relevanceScore(relevanceScore != null ? relevanceScore : scored.getScore())
+                .highlights(highlights)
+                .build();
     }
 }
@@ -0,0 +1,153 @@
+package com.docmanagement.service;
+
+import com.docmanagement.batch.SearchIndexRebuildThrottle;
+import com.docmanagement.dto.response.SearchIndexRebuildResponse;
+import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.repository.DocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Starts the search index rebuild and reports on it. Progress comes from the batch metadata the
+// partitions commit with every chunk, so any node can report on a rebuild running elsewhere. The job
+// repository is also what keeps two rebuilds from running at once, across nodes.
+@Service
+@Slf4j
+public class SearchIndexRebuildService {
+
+    static final String TOTAL = "total";
+    static final String RUN = "run";
+    private static final String WORKER_STEP_PREFIX = "rebuildSearchIndexStep:";
+
+    private final JobLauncher jobLauncher;
+    private final Job rebuildSearchIndexJob;
+    private final JobExplorer jobExplorer;
+    private final DocumentRepository documentRepository;
+    private final SearchIndexRebuildThrottle searchIndexRebuildThrottle;
+
+    public SearchIndexRebuildService(@Qualifier("rebuildJobLauncher") JobLauncher jobLauncher,
+                                     Job rebuildSearchIndexJob,
+                                     JobExplorer jobExplorer,
+                                     DocumentRepository documentRepository,
+                                     SearchIndexRebuildThrottle searchIndexRebuildThrottle) {
+        this.jobLauncher = jobLauncher;
+        this.rebuildSearchIndexJob = rebuildSearchIndexJob;
+        this.jobExplorer = jobExplorer;
+        this.documentRepository = documentRepository;
+        this.searchIndexRebuildThrottle = searchIndexRebuildThrottle;
+    }
+
+    // Claims the rebuild and starts it in the background; false when one is already running here or on
+    // another node. Concurrent starts compute the same identifying parameters, so the job repository
+    // creates the execution for only one of them.
+    public boolean start() {
+        if (!jobExplorer.findRunningJobExecutions(rebuildSearchIndexJob.getName()).isEmpty()) {
+            return false;
+        }
+
+        // A failed or stopped rebuild is continued rather than started over
+        JobParameters jobParameters = restartableJobParameters()
+                .orElseGet(() -> new JobParametersBuilder()
+                        .addLong(RUN, nextRun())
+                        .addLong(TOTAL, documentRepository.countByStatus(DocumentStatus.COMPLETED), false)
+                        .toJobParameters());
+        try {
+            jobLauncher.run(rebuildSearchIndexJob, jobParameters);
+            return true;
+        } catch (JobExecutionAlreadyRunningException | JobInstanceAlreadyCompleteException
+                 | ConcurrencyFailureException | DataIntegrityViolationException e) {
+            log.info("Search index rebuild was started concurrently: {}", e.getMessage());
+            return false;
+        } catch (JobRestartException | JobParametersInvalidException e) {
+            throw new IllegalStateException("Could not start the search index rebuild", e);
+        }
+    }
+
+    public SearchIndexRebuildResponse getProgress() {
+        SearchIndexRebuildResponse.SearchIndexRebuildResponseBuilder progress = SearchIndexRebuildResponse.builder()
+                .documentsPerSecondLimit(searchIndexRebuildThrottle.getDocumentsPerSecond());
+        JobInstance instance = jobExplorer.getLastJobInstance(rebuildSearchIndexJob.getName());
+        List<JobExecution> executions = instance == null ? List.of() : jobExplorer.getJobExecutions(instance);
+        if (executions.isEmpty()) {
+            return progress.status("NOT_STARTED").build();
+        }
+
+        JobExecution latest = executions.stream().max(Comparator.comparing(JobExecution::getId)).get();
+        Long totalParameter = latest.getJobParameters().getLong(TOTAL);
+        long total = totalParameter == null ? 0 : totalParameter;
+        long processed = executions.stream().flatMap(SearchIndexRebuildService::workerSteps)
+                .mapToLong(StepExecution::getWriteCount).sum();
+        long failed = executions.stream().flatMap(SearchIndexRebuildService::workerSteps)
+                .mapToLong(StepExecution::getSkipCount).sum();
+        long done = processed + failed;
+
+        long doneInLatest = workerSteps(latest).mapToLong(step -> step.getWriteCount() + step.getSkipCount()).sum();
+        LocalDateTime end = latest.getEndTime() != null ? latest.getEndTime() : LocalDateTime.now();
+        double seconds = latest.getStartTime() == null ? 0
+                : Duration.between(latest.getStartTime(), end).toMillis() / 1000.0;
+        double throughput = seconds > 0 ? doneInLatest / seconds : 0;
+
+        boolean active = latest.isRunning();
+        Long eta = active && throughput > 0 ? (long) Math.ceil(Math.max(0, total - done) / throughput) : null;
+        double percent = total > 0 ? Math.min(100.0, 100.0 * done / total)
+                : latest.getStatus() == BatchStatus.COMPLETED ? 100.0 : 0.0;
+
+        return progress
+                .status(latest.getStatus().name())
+                .startTime(latest.getStartTime())
+                .endTime(latest.getEndTime())
+                .totalDocuments(total)
+                .processedDocuments(processed)
+                .failedDocuments(failed)
+                .percentComplete(percent)
+                .documentsPerSecond(throughput)
+                .etaSeconds(eta)
+                .build();
+    }
+
+    private static Stream<StepExecution> workerSteps(JobExecution execution) {
+        return execution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().startsWith(WORKER_STEP_PREFIX));
+    }
+
+    private long nextRun() {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(rebuildSearchIndexJob.getName());
+        return lastInstance == null ? 1 : lastInstance.getInstanceId() + 1;
+    }
+
+    private Optional<JobParameters> restartableJobParameters() {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(rebuildSearchIndexJob.getName());
+        if (lastInstance == null) {
+            return Optional.empty();
+        }
+        JobExecution lastExecution = jobExplorer.getLastJobExecution(lastInstance);
+        if (lastExecution == null || (lastExecution.getStatus() != BatchStatus.FAILED
+                && lastExecution.getStatus() != BatchStatus.STOPPED)) {
+            return Optional.empty();
+        }
+        log.info("Restarting search index rebuild instance {}", lastInstance.getInstanceId());
+        return Optional.of(lastExecution.getJobParameters());
+    }
+}
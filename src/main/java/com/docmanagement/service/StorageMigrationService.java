@@ -0,0 +1,115 @@
+package com.docmanagement.service;
+
+import com.docmanagement.repository.DocumentBlobRepository;
+import com.docmanagement.repository.DocumentFileView;
+import com.docmanagement.repository.DocumentRepository;
+import com.docmanagement.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StorageMigrationService {
+
+    private final DocumentRepository documentRepository;
+    private final DocumentBlobRepository documentBlobRepository;
+    private final StorageBackend storageBackend;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${document.storage.migration.batch-size:200}")
+    private int batchSize;
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    // Moves every stored file into the layout of the active storage backend. Runs online: the file is
+    // linked into its new location first, the rows are repointed in one transaction per batch, and the
+    // old path is only removed after that commit, so readers never see a missing file.
+    @Async
+    public void migrateToCurrentLayout() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Storage migration is already running");
+            return;
+        }
+
+        try {
+            long lastId = 0;
+            long migrated = 0;
+            while (true) {
+                long afterId = lastId;
+                List<DocumentFileView> files = documentRepository.findFilesAfterId(afterId, PageRequest.of(0, batchSize));
+                if (files.isEmpty()) {
+                    break;
+                }
+
+                List<Path> replaced = new ArrayList<>();
+                Integer moved = transactionTemplate.execute(status -> migrateBatch(files, replaced));
+                for (Path oldPath : replaced) {
+                    try {
+                        storageBackend.delete(oldPath);
+                    } catch (IOException e) {
+                        log.error("Error deleting migrated file: {}", oldPath, e);
+                    }
+                }
+
+                migrated += moved == null ? 0 : moved;
+                lastId = files.get(files.size() - 1).getId();
+                log.info("Storage migration progress: {} documents moved, last id {}", migrated, lastId);
+            }
+            log.info("Storage migration finished, {} documents moved", migrated);
+        } catch (Exception e) {
+            log.error("Storage migration failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int migrateBatch(List<DocumentFileView> files, List<Path> replaced) {
+        int moved = 0;
+        for (DocumentFileView file : files) {
+            Path current = Paths.get(file.getFilePath());
+            String key = file.getContentHash() != null ? file.getContentHash() : current.getFileName().toString();
+            Path target = storageBackend.resolve(key);
+            if (current.normalize().equals(target.normalize())) {
+                continue;
+            }
+
+            try {
+                if (Files.exists(current)) {
+                    storageBackend.link(current, key);
+                    replaced.add(current);
+                } else if (!Files.exists(target)) {
+                    log.warn("File for document {} is missing: {}", file.getId(), current);
+                    continue;
+                }
+            } catch (IOException e) {
+                log.error("Error migrating file for document {}: {}", file.getId(), current, e);
+                continue;
+            }
+
+            documentRepository.updateFilePath(file.getId(), target.toString());
+            if (file.getContentHash() != null) {
+                documentBlobRepository.findById(file.getContentHash())
+                        .ifPresent(blob -> blob.setPath(target.toString()));
+            }
+            moved++;
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,176 @@
+package com.docmanagement.storage;
+
+import com.docmanagement.repository.ContentDictionaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// Compressed format of a document's full text: a zlib stream, deflated against the current preset
+// dictionary when one has been trained. zlib writes the dictionary's Adler-32 into the stream
+// header, so text compressed with an older dictionary stays readable; unknown ids are looked up in
+// content_dictionaries once and kept.
+@Component
+@Slf4j
+public class ContentCodec {
+
+    private static final int FDICT = 0x20;
+
+    private final ContentDictionaryRepository contentDictionaryRepository;
+    private final boolean enabled;
+    private final int minLength;
+    private final int level;
+    private final Map<Long, byte[]> dictionaries = new ConcurrentHashMap<>();
+    private volatile byte[] currentDictionary;
+
+    public ContentCodec(ContentDictionaryRepository contentDictionaryRepository,
+                        @Value("${document.content.compression.enabled:false}") boolean enabled,
+                        @Value("${document.content.compression.min-length:1024}") int minLength,
+                        @Value("${document.content.compression.level:6}") int level) {
+        this.contentDictionaryRepository = contentDictionaryRepository;
+        this.enabled = enabled;
+        this.minLength = minLength;
+        this.level = level;
+    }
+
+    // Short texts stay plain: the zlib header and a cold dictionary would outweigh the savings
+    public boolean shouldCompress(String text) {
+        return text != null && shouldCompress(text.length());
+    }
+
+    public boolean shouldCompress(long length) {
+        return enabled && length >= minLength;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // New text is compressed against this dictionary from now on; returns its id
+    public long useDictionary(byte[] dictionary) {
+        long id = dictionaryId(dictionary);
+        dictionaries.put(id, dictionary);
+        currentDictionary = dictionary;
+        return id;
+    }
+
+    public byte[] compress(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, text.length() / 4));
+        try (Writer writer = compressTo(out)) {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Compresses text as it is written, for callers that never hold all of it; the stream is
+    // complete once the writer is closed
+    public Writer compressTo(OutputStream out) {
+        Deflater deflater = new Deflater(level);
+        byte[] dictionary = currentDictionary;
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        OutputStream deflated = new DeflaterOutputStream(out, deflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    def.end();
+                }
+            }
+        };
+        return new OutputStreamWriter(deflated, StandardCharsets.UTF_8);
+    }
+
+    // Decompresses while the reader is consumed, the full text is never held unless the caller does
+    public Reader open(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        try {
+            long dictionaryId = streamDictionaryId(compressed);
+            if (dictionaryId >= 0) {
+                // A stream written with a dictionary asks for it before producing any output
+                inflater.inflate(new byte[1]);
+                inflater.setDictionary(dictionary(dictionaryId));
+            }
+        } catch (DataFormatException | RuntimeException e) {
+            inflater.end();
+            throw new IllegalStateException("Unreadable compressed content", e);
+        }
+
+        InputStream in = new InflaterInputStream(InputStream.nullInputStream(), inflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inf.end();
+            }
+        };
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    public String decompress(byte[] compressed) {
+        return decompress(compressed, Integer.MAX_VALUE);
+    }
+
+    // Only the first maxChars characters; inflating stops there
+    public String decompress(byte[] compressed, int maxChars) {
+        StringBuilder text = new StringBuilder((int) Math.min(maxChars, compressed.length * 4L));
+        char[] buffer = new char[8192];
+        try (Reader reader = open(compressed)) {
+            int read;
+            while (text.length() < maxChars
+                    && (read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - text.length()))) >= 0) {
+                text.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    private byte[] dictionary(long id) {
+        byte[] dictionary = dictionaries.get(id);
+        if (dictionary == null) {
+            dictionary = contentDictionaryRepository.findDictionary(id)
+                    .orElseThrow(() -> new IllegalStateException("Unknown content dictionary " + id));
+            dictionaries.put(id, dictionary);
+        }
+        return dictionary;
+    }
+
+    public static long dictionaryId(byte[] dictionary) {
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        return adler.getValue();
+    }
+
+    // DICTID from the zlib header (RFC 1950), -1 when the stream was written without a dictionary
+    private static long streamDictionaryId(byte[] compressed) {
+        if (compressed.length < 6 || (compressed[1] & FDICT) == 0) {
+            return -1;
+        }
+        return ((compressed[2] & 0xFFL) << 24) | ((compressed[3] & 0xFFL) << 16)
+                | ((compressed[4] & 0xFFL) << 8) | (compressed[5] & 0xFFL);
+    }
+}
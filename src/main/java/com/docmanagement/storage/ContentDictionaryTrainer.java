@@ -0,0 +1,106 @@
+package com.docmanagement.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Builds a Deflate preset dictionary from sample texts: the word sequences that recur across
+// documents, weighted by how many bytes a back-reference to them saves. Deflate reaches back at
+// most 32KB and shorter distances are cheaper, so the most valuable phrases go at the end.
+public final class ContentDictionaryTrainer {
+
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    // Only the beginning of each sample is read, a handful of huge documents cannot dominate; callers
+    // loading samples cut them there too, so the rest is never held in memory
+    public static final int SAMPLE_PREFIX = 64 * 1024;
+    private static final int MAX_WORDS = 4;
+    private static final int MIN_PHRASE_LENGTH = 4;
+
+    private ContentDictionaryTrainer() {
+    }
+
+    public static byte[] train(List<String> samples, int maxSize) {
+        int size = Math.min(maxSize, MAX_DICTIONARY_SIZE);
+
+        // Phrase -> number of samples it occurs in; a phrase seen in a single document is noise
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (String sample : samples) {
+            for (String phrase : phrases(sample)) {
+                documentFrequency.merge(phrase, 1, Integer::sum);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : documentFrequency.entrySet()) {
+            if (entry.getValue() >= 2) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparingLong((Map.Entry<String, Integer> e) ->
+                (long) e.getValue() * e.getKey().length()).reversed());
+
+        // Best first, skipping phrases already covered by a longer one
+        List<byte[]> picked = new ArrayList<>();
+        StringBuilder covered = new StringBuilder();
+        int total = 0;
+        for (Map.Entry<String, Integer> candidate : candidates) {
+            String phrase = candidate.getKey();
+            if (covered.indexOf(phrase) >= 0) {
+                continue;
+            }
+            byte[] bytes = phrase.getBytes(StandardCharsets.UTF_8);
+            if (total + bytes.length > size) {
+                continue;
+            }
+            picked.add(bytes);
+            covered.append(phrase).append('\n');
+            total += bytes.length;
+            if (total >= size - MIN_PHRASE_LENGTH) {
+                break;
+            }
+        }
+
+        byte[] dictionary = new byte[total];
+        int offset = total;
+        for (byte[] bytes : picked) {
+            offset -= bytes.length;
+            System.arraycopy(bytes, 0, dictionary, offset, bytes.length);
+        }
+        return dictionary;
+    }
+
+    // Distinct runs of 1..MAX_WORDS words with their trailing separator, as they appear in the text
+    private static Set<String> phrases(String sample) {
+        String text = sample.length() > SAMPLE_PREFIX ? sample.substring(0, SAMPLE_PREFIX) : sample;
+        List<int[]> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                int end = i < text.length() ? i + 1 : i;
+                words.add(new int[]{start, end});
+                start = -1;
+            }
+        }
+
+        Set<String> phrases = new HashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            for (int n = 1; n <= MAX_WORDS && i + n <= words.size(); n++) {
+                int from = words.get(i)[0];
+                int to = words.get(i + n - 1)[1];
+                if (to - from >= MIN_PHRASE_LENGTH) {
+                    phrases.add(text.substring(from, to));
+                }
+            }
+        }
+        return phrases;
+    }
+}
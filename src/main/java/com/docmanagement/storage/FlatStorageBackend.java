@@ -0,0 +1,22 @@
+package com.docmanagement.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+// Legacy layout: every file directly in the storage root
+@Component
+@ConditionalOnProperty(name = "document.storage.layout", havingValue = "flat")
+public class FlatStorageBackend extends LocalStorageBackend {
+
+    public FlatStorageBackend(@Value("${document.storage.location:./document-storage}") String location) {
+        super(location);
+    }
+
+    @Override
+    public Path resolve(String key) {
+        return getRoot().resolve(key);
+    }
+}
@@ -0,0 +1,68 @@
+package com.docmanagement.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+@Slf4j
+public abstract class LocalStorageBackend implements StorageBackend {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    private final Path root;
+
+    protected LocalStorageBackend(String location) {
+        this.root = Paths.get(location);
+    }
+
+    @Override
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public Path createTempFile() throws IOException {
+        Path tempDirectory = root.resolve(TEMP_DIRECTORY);
+        Files.createDirectories(tempDirectory);
+        return tempDirectory.resolve(UUID.randomUUID().toString());
+    }
+
+    @Override
+    public Path put(Path source, String key) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    @Override
+    public Path link(Path existing, String key) throws IOException {
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            return target;
+        }
+
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, existing);
+        } catch (FileAlreadyExistsException e) {
+            return target;
+        } catch (UnsupportedOperationException | IOException e) {
+            // Hard links are not available everywhere (e.g. some network mounts), fall back to a copy
+            log.debug("Hard link not possible for {}, copying instead", existing);
+            Files.copy(existing, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
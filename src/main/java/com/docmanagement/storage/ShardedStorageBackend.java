@@ -0,0 +1,34 @@
+package com.docmanagement.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+// Two-level hex fan-out: <root>/ab/cd/abcd..., keeps every directory at a few hundred entries
+@Component
+@ConditionalOnProperty(name = "document.storage.layout", havingValue = "sharded", matchIfMissing = true)
+public class ShardedStorageBackend extends LocalStorageBackend {
+
+    private static final int PREFIX_LENGTH = 2;
+    private static final int LEVELS = 2;
+
+    public ShardedStorageBackend(@Value("${document.storage.location:./document-storage}") String location) {
+        super(location);
+    }
+
+    @Override
+    public Path resolve(String key) {
+        Path path = getRoot();
+        String prefixSource = key.toLowerCase();
+        for (int level = 0; level < LEVELS; level++) {
+            int start = level * PREFIX_LENGTH;
+            if (prefixSource.length() < start + PREFIX_LENGTH) {
+                break;
+            }
+            path = path.resolve(prefixSource.substring(start, start + PREFIX_LENGTH));
+        }
+        return path.resolve(key);
+    }
+}
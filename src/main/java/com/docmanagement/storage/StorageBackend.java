@@ -0,0 +1,23 @@
+package com.docmanagement.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface StorageBackend {
+
+    Path getRoot();
+
+    // Where the blob stored under the given key lives in this layout
+    Path resolve(String key);
+
+    // Scratch file inside the storage root, so moving it into place never crosses file systems
+    Path createTempFile() throws IOException;
+
+    // Atomically moves a fully written file into its final location for the key
+    Path put(Path source, String key) throws IOException;
+
+    // Makes an existing file available under the key without removing the original
+    Path link(Path existing, String key) throws IOException;
+
+    void delete(Path path) throws IOException;
+}
@@ -0,0 +1,60 @@
+-- Schema as previously created by Hibernate's ddl-auto. IF NOT EXISTS lets this run as a no-op on
+-- databases that already have it (baseline-on-migrate starts them at version 0).
+
+CREATE TABLE IF NOT EXISTS users (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username                VARCHAR(255) NOT NULL UNIQUE,
+    email                   VARCHAR(255) NOT NULL UNIQUE,
+    password                VARCHAR(255) NOT NULL,
+    first_name              VARCHAR(255) NOT NULL,
+    last_name               VARCHAR(255) NOT NULL,
+    enabled                 BOOLEAN NOT NULL,
+    account_non_expired     BOOLEAN NOT NULL,
+    account_non_locked      BOOLEAN NOT NULL,
+    credentials_non_expired BOOLEAN NOT NULL,
+    created_at              TIMESTAMP(6) NOT NULL,
+    updated_at              TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    role    VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS documents (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title          VARCHAR(255) NOT NULL,
+    file_name      VARCHAR(255) NOT NULL,
+    file_type      VARCHAR(255) NOT NULL,
+    file_size      BIGINT NOT NULL,
+    file_path      VARCHAR(255) NOT NULL,
+    content_hash   VARCHAR(64),
+    description    TEXT,
+    user_id        BIGINT NOT NULL REFERENCES users (id),
+    content        TEXT,
+    content_vector TSVECTOR,
+    status         VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS document_keywords (
+    document_id BIGINT NOT NULL REFERENCES documents (id),
+    keyword     VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS document_chunks (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    document_id    BIGINT NOT NULL REFERENCES documents (id),
+    chunk_order    INTEGER NOT NULL,
+    content        TEXT NOT NULL,
+    content_vector TSVECTOR
+);
+
+CREATE TABLE IF NOT EXISTS document_blobs (
+    hash       VARCHAR(64) PRIMARY KEY,
+    path       VARCHAR(255) NOT NULL,
+    size       BIGINT NOT NULL,
+    ref_count  INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
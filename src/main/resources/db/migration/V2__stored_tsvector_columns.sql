@@ -0,0 +1,14 @@
+-- content_vector becomes a stored generated column, so Postgres keeps it in sync on every write and
+-- searches no longer tokenise content per query. Replacing the column rewrites both tables once.
+
+-- A tsvector is capped at 1MB; the document-level vector covers the first 500k characters, the
+-- chunk vectors cover the full text
+ALTER TABLE documents DROP COLUMN IF EXISTS content_vector;
+ALTER TABLE documents ADD COLUMN content_vector TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('english', left(coalesce(content, ''), 500000))) STORED;
+CREATE INDEX IF NOT EXISTS idx_documents_content_vector ON documents USING GIN (content_vector);
+
+ALTER TABLE document_chunks DROP COLUMN IF EXISTS content_vector;
+ALTER TABLE document_chunks ADD COLUMN content_vector TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('english', content)) STORED;
+CREATE INDEX IF NOT EXISTS idx_document_chunks_content_vector ON document_chunks USING GIN (content_vector);
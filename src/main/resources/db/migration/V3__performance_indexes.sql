@@ -0,0 +1,30 @@
+-- Indexes for the columns the repositories filter and sort on.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Backlog claims and the batch partitioner only ever look at PENDING rows, in id order
+CREATE INDEX IF NOT EXISTS idx_documents_pending_id ON documents (id) WHERE status = 'PENDING';
+
+-- findByStatus and the filtered listing, newest first
+CREATE INDEX IF NOT EXISTS idx_documents_status_created_at ON documents (status, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_documents_user_created_at ON documents (user_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_documents_created_at ON documents (created_at DESC);
+
+-- Deduplication looks for a COMPLETED document with the same hash
+CREATE INDEX IF NOT EXISTS idx_documents_content_hash ON documents (content_hash, status);
+
+-- LOWER(title) LIKE '%...%' in the filters
+CREATE INDEX IF NOT EXISTS idx_documents_title_trgm ON documents USING GIN (lower(title) gin_trgm_ops);
+
+-- findByKeyword compares LOWER(keyword); the keyword collection is loaded by document_id
+CREATE INDEX IF NOT EXISTS idx_document_keywords_keyword_lower ON document_keywords (lower(keyword));
+CREATE INDEX IF NOT EXISTS idx_document_keywords_document_id ON document_keywords (document_id);
+
+-- Chunks are read, copied and deleted per document, in chunk order
+CREATE INDEX IF NOT EXISTS idx_document_chunks_document_order ON document_chunks (document_id, chunk_order);
+
+-- ILIKE fallback of the Q&A chunk search. documents.content gets no trigram index: it can be
+-- several MB per row and the document-level fallback only runs when no chunk matched.
+CREATE INDEX IF NOT EXISTS idx_document_chunks_content_trgm ON document_chunks USING GIN (content gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_user_roles_user_id ON user_roles (user_id);
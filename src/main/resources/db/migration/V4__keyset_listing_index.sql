@@ -0,0 +1,5 @@
+-- The cursor listing orders by (created_at DESC, id DESC); with id in the index every page is a
+-- single range scan that starts at the cursor. It also serves everything the created_at index did.
+
+CREATE INDEX IF NOT EXISTS idx_documents_created_at_id ON documents (created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_documents_created_at;
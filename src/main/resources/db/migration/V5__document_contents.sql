@@ -0,0 +1,21 @@
+-- The extracted text and its tsvector move out of documents into their own table. Every listing,
+-- filter and status update touches documents; with the text gone those rows are a few hundred bytes,
+-- so far more of them stay in shared buffers and an update no longer rewrites the wide columns.
+
+CREATE TABLE IF NOT EXISTS document_contents (
+    document_id    BIGINT PRIMARY KEY REFERENCES documents (id) ON DELETE CASCADE,
+    content        TEXT NOT NULL,
+    -- Same cap as the column it replaces, a tsvector is limited to 1MB
+    content_vector TSVECTOR GENERATED ALWAYS AS (to_tsvector('english', left(content, 500000))) STORED
+);
+
+INSERT INTO document_contents (document_id, content)
+SELECT id, content FROM documents WHERE content IS NOT NULL
+ON CONFLICT (document_id) DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_document_contents_content_vector ON document_contents USING GIN (content_vector);
+
+DROP INDEX IF EXISTS idx_documents_content_vector;
+-- Dropping only hides the columns; existing rows shrink as they are next updated, or at once with
+-- VACUUM FULL documents during a maintenance window
+ALTER TABLE documents DROP COLUMN IF EXISTS content_vector, DROP COLUMN IF EXISTS content;
@@ -0,0 +1,18 @@
+-- Optional compressed storage of the full text (document.content.compression.*). A row holds either
+-- the plain text or its zlib-compressed bytes. content_vector can no longer be generated from
+-- content, so it becomes a plain column the application writes together with the text.
+
+ALTER TABLE document_contents ALTER COLUMN content_vector DROP EXPRESSION;
+ALTER TABLE document_contents ALTER COLUMN content DROP NOT NULL;
+ALTER TABLE document_contents ADD COLUMN IF NOT EXISTS content_compressed BYTEA;
+ALTER TABLE document_contents ADD CONSTRAINT document_contents_one_format
+    CHECK ((content IS NULL) <> (content_compressed IS NULL));
+-- Already compressed, TOAST would only waste time trying again
+ALTER TABLE document_contents ALTER COLUMN content_compressed SET STORAGE EXTERNAL;
+
+-- Preset dictionaries, keyed by the Adler-32 zlib stores in each stream compressed against them
+CREATE TABLE IF NOT EXISTS content_dictionaries (
+    id         BIGINT PRIMARY KEY,
+    dictionary BYTEA NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Incremental reprocessing. A document remembers which input (its content_hash) and pipeline
+-- version produced its chunks; chunks and stored text carry the hash of their own text, so a rerun
+-- only writes what actually changed. No backfill: rows from before this migration have no hashes,
+-- which makes every existing document stale, and its chunks are replaced once on its first rerun.
+
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS processed_hash VARCHAR(64);
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS pipeline_version VARCHAR(64);
+ALTER TABLE document_chunks ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE document_contents ADD COLUMN IF NOT EXISTS text_hash VARCHAR(64);
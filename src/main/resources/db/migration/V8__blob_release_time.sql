@@ -0,0 +1,7 @@
+-- A blob whose last reference is dropped keeps its row, with ref_count 0, until the sweep deletes the
+-- row and its file after a grace period. The sweep works under the row lock that an upload of the
+-- same bytes takes too, so it can never delete a file an upload has just taken a reference on.
+
+ALTER TABLE document_blobs ADD COLUMN IF NOT EXISTS released_at TIMESTAMP(6);
+
+CREATE INDEX IF NOT EXISTS idx_document_blobs_released_at ON document_blobs (released_at) WHERE ref_count = 0;
@@ -0,0 +1,64 @@
+package com.docmanagement.batch;
+
+import com.docmanagement.repository.DocumentClaimRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentIdRangePartitionerTest {
+
+    @Mock
+    private DocumentClaimRepository documentClaimRepository;
+
+    private DocumentIdRangePartitioner partitioner;
+
+    @BeforeEach
+    void setUp() {
+        partitioner = new DocumentIdRangePartitioner("pending", documentClaimRepository::findPendingIdRange);
+    }
+
+    @Test
+    void shouldSplitPendingRangeIntoContiguousPartitions() {
+        when(documentClaimRepository.findPendingIdRange()).thenReturn(Optional.of(new long[]{1, 10}));
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(3);
+
+        assertEquals(3, partitions.size());
+        assertRange(partitions.get("partition0"), 1, 4);
+        assertRange(partitions.get("partition1"), 5, 8);
+        assertRange(partitions.get("partition2"), 9, 10);
+    }
+
+    @Test
+    void shouldNotCreateMorePartitionsThanIds() {
+        when(documentClaimRepository.findPendingIdRange()).thenReturn(Optional.of(new long[]{5, 6}));
+
+        assertEquals(2, partitioner.partition(8).size());
+    }
+
+    @Test
+    void shouldReturnOneEmptyPartitionWithoutBacklog() {
+        when(documentClaimRepository.findPendingIdRange()).thenReturn(Optional.empty());
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        assertEquals(1, partitions.size());
+        ExecutionContext context = partitions.get("partition0");
+        assertTrue(context.getLong(DocumentIdRangePartitioner.MAX_ID) < context.getLong(DocumentIdRangePartitioner.MIN_ID));
+    }
+
+    private void assertRange(ExecutionContext context, long min, long max) {
+        assertEquals(min, context.getLong(DocumentIdRangePartitioner.MIN_ID));
+        assertEquals(max, context.getLong(DocumentIdRangePartitioner.MAX_ID));
+    }
+}
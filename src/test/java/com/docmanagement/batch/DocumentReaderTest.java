@@ -0,0 +1,88 @@
+package com.docmanagement.batch;
+
+import com.docmanagement.model.Document;
+import com.docmanagement.repository.DocumentClaimRepository;
+import com.docmanagement.repository.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentReaderTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentClaimRepository documentClaimRepository;
+
+    @Test
+    void shouldPageThroughRangeByClaimingAfterLastId() {
+        DocumentReader reader = new DocumentReader(documentRepository, documentClaimRepository, 10L, 20L, 2);
+        when(documentClaimRepository.claimPending(9, 20, 2)).thenReturn(List.of(11L, 10L));
+        when(documentRepository.findAllById(List.of(11L, 10L))).thenReturn(List.of(document(11L), document(10L)));
+        when(documentClaimRepository.claimPending(11, 20, 2)).thenReturn(List.of(15L));
+        // Third read is the first of the second chunk, the fourth only tops up that chunk
+        when(documentRepository.findAllById(List.of(15L))).thenReturn(List.of(document(15L)));
+        when(documentClaimRepository.claimPending(15, 20, 1)).thenReturn(List.of());
+
+        reader.open(new ExecutionContext());
+
+        assertEquals(10L, reader.read().getId());
+        assertEquals(11L, reader.read().getId());
+        assertEquals(15L, reader.read().getId());
+        assertNull(reader.read());
+        assertNull(reader.read());
+        verify(documentClaimRepository, times(3)).claimPending(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldResumeFromSavedPosition() {
+        DocumentReader reader = new DocumentReader(documentRepository, documentClaimRepository, 10L, 20L, 5);
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(DocumentReader.LAST_ID, 17L);
+        when(documentClaimRepository.claimPending(17, 20, 5)).thenReturn(List.of(18L));
+        when(documentRepository.findAllById(List.of(18L))).thenReturn(List.of(document(18L)));
+
+        reader.open(context);
+        assertEquals(18L, reader.read().getId());
+
+        ExecutionContext saved = new ExecutionContext();
+        reader.update(saved);
+        assertEquals(18L, saved.getLong(DocumentReader.LAST_ID));
+    }
+
+    @Test
+    void emptyPartitionShouldNotQuery() {
+        DocumentReader reader = new DocumentReader(documentRepository, documentClaimRepository, 0L, -1L, 5);
+
+        reader.open(new ExecutionContext());
+
+        assertNull(reader.read());
+        verifyNoInteractions(documentClaimRepository, documentRepository);
+    }
+
+    @Test
+    void shouldSkipClaimedDocumentsThatWereDeleted() {
+        DocumentReader reader = new DocumentReader(documentRepository, documentClaimRepository, 1L, 10L, 3);
+        when(documentClaimRepository.claimPending(0, 10, 3)).thenReturn(List.of(2L));
+        when(documentRepository.findAllById(List.of(2L))).thenReturn(List.of());
+        when(documentClaimRepository.claimPending(2, 10, 3)).thenReturn(List.of(4L));
+        when(documentRepository.findAllById(List.of(4L))).thenReturn(List.of(document(4L)));
+
+        reader.open(new ExecutionContext());
+
+        assertEquals(4L, reader.read().getId());
+    }
+
+    private Document document(Long id) {
+        return Document.builder().id(id).build();
+    }
+}
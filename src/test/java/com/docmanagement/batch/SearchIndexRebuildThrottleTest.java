@@ -0,0 +1,47 @@
+package com.docmanagement.batch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchIndexRebuildThrottleTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void chunksShouldBeSpacedByTheDocumentRate() {
+        // 10 documents per chunk at 20 per second: one chunk every 500ms
+        SearchIndexRebuildThrottle throttle = new SearchIndexRebuildThrottle(jdbcTemplate, 20, 0, 1000, 10);
+        long now = System.nanoTime();
+
+        assertEquals(0, throttle.reserveChunk(now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), throttle.reserveChunk(now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), throttle.reserveChunk(now));
+        // An idle gap is not saved up for a burst later
+        assertEquals(0, throttle.reserveChunk(now + TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    @Test
+    void zeroRateShouldNotThrottle() {
+        SearchIndexRebuildThrottle throttle = new SearchIndexRebuildThrottle(jdbcTemplate, 0, 0, 1000, 10);
+
+        assertEquals(0, throttle.reserveChunk(System.nanoTime()));
+        assertEquals(0, throttle.reserveChunk(System.nanoTime()));
+        throttle.before(null);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void shouldWaitWhileTheDatabaseIsBusy() {
+        SearchIndexRebuildThrottle throttle = new SearchIndexRebuildThrottle(jdbcTemplate, 0, 5, 1, 10);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(9, 7, 3);
+
+        throttle.before(null);
+
+        verify(jdbcTemplate, times(3)).queryForObject(anyString(), eq(Integer.class));
+    }
+}
@@ -0,0 +1,132 @@
+package com.docmanagement.benchmark;
+
+import com.docmanagement.search.ChunkScorer;
+import com.docmanagement.search.TextAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Per-chunk cost of relevance scoring plus snippet extraction: the regex/contains implementation
+// QAService used before against the single-pass ChunkScorer.
+// Run with: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+//             -Dexec.args="-cp %classpath com.docmanagement.benchmark.ChunkScoringBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkScoringBenchmark {
+
+    private static final String[] WORDS = {
+            "document", "management", "system", "the", "a", "of", "processing", "search", "index",
+            "query", "answer", "question", "content", "upload", "storage", "chunk", "keyword", "text",
+            "invoice", "contract", "payment", "customer", "quarterly", "revenue", "report", "region"
+    };
+
+    private static final String QUESTION = "Which quarterly reports mention customer payments by region?";
+
+    @Param({"500", "1000", "4000"})
+    private int chunkSize;
+
+    private String[] chunks;
+    private ChunkScorer chunkScorer;
+    private ChunkScorer.Query query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        chunks = new String[64];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = prose(chunkSize, random);
+        }
+        chunkScorer = new ChunkScorer(new TextAnalyzer());
+        query = chunkScorer.prepare(QUESTION);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (String chunk : chunks) {
+            blackhole.consume(legacyRelevance(chunk, QUESTION));
+            blackhole.consume(legacySnippet(chunk, QUESTION));
+        }
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        for (String chunk : chunks) {
+            blackhole.consume(chunkScorer.score(chunk, query));
+        }
+    }
+
+    // QAService.calculateRelevance before the scorer existed
+    private static double legacyRelevance(String content, String question) {
+        String[] contentWords = content.toLowerCase().split("\\s+");
+        String[] questionWords = question.toLowerCase().split("\\s+");
+
+        int matches = 0;
+        for (String qWord : questionWords) {
+            if (qWord.length() <= 3) continue;
+
+            for (String cWord : contentWords) {
+                if (cWord.contains(qWord) || qWord.contains(cWord)) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return (double) matches / questionWords.length;
+    }
+
+    // QAService.extractSnippet before the scorer existed
+    private static String legacySnippet(String content, String question) {
+        String[] sentences = content.split("[.!?]");
+        String[] questionWords = question.toLowerCase().split("\\s+");
+
+        for (String sentence : sentences) {
+            String sentenceLower = sentence.toLowerCase();
+            for (String word : questionWords) {
+                if (word.length() > 3 && sentenceLower.contains(word)) {
+                    return sentence.trim() + ".";
+                }
+            }
+        }
+        return content.substring(0, Math.min(content.length(), 200)) + "...";
+    }
+
+    private static String prose(int length, Random random) {
+        StringBuilder text = new StringBuilder(length + 32);
+        int wordsInSentence = 0;
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            if (++wordsInSentence < 8 + random.nextInt(12)) {
+                text.append(' ');
+            } else {
+                wordsInSentence = 0;
+                text.append(". ");
+            }
+        }
+        return text.substring(0, length);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChunkScoringBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
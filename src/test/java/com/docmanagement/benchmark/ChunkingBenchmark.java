@@ -0,0 +1,119 @@
+package com.docmanagement.benchmark;
+
+import com.docmanagement.processing.BoundaryAwareChunkingStrategy;
+import com.docmanagement.processing.ChunkingStrategy;
+import com.docmanagement.processing.FixedSizeChunkingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares the old fixed-width splitter with the boundary-aware strategy on prose-like text.
+// Run with: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+//             -Dexec.args="-cp %classpath com.docmanagement.benchmark.ChunkingBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkingBenchmark {
+
+    private static final String[] WORDS = {
+            "document", "management", "system", "the", "a", "of", "processing", "search", "index",
+            "query", "answer", "question", "content", "upload", "storage", "chunk", "keyword", "text"
+    };
+
+    @Param({"100000", "1000000"})
+    private int length;
+
+    private String content;
+    private ChunkingStrategy fixed;
+    private ChunkingStrategy boundary;
+    private ChunkingStrategy boundaryWithOverlap;
+
+    @Setup
+    public void setUp() {
+        content = prose(length, new Random(42));
+        fixed = new FixedSizeChunkingStrategy(1000);
+        boundary = new BoundaryAwareChunkingStrategy(1000, 500, 1250, 0, 0);
+        boundaryWithOverlap = new BoundaryAwareChunkingStrategy(1000, 500, 1250, 100, 0);
+    }
+
+    // The splitter DocumentProcessor used before the strategies existed
+    @Benchmark
+    public List<String> legacySubstring() {
+        List<String> chunks = new ArrayList<>();
+        int chunkCount = (int) Math.ceil((double) content.length() / 1000);
+        for (int i = 0; i < chunkCount; i++) {
+            int start = i * 1000;
+            chunks.add(content.substring(start, Math.min(start + 1000, content.length())));
+        }
+        return chunks;
+    }
+
+    @Benchmark
+    public void fixedRanges(Blackhole blackhole) {
+        fixed.forEachChunk(content, (start, end) -> blackhole.consume(end - start));
+    }
+
+    @Benchmark
+    public void boundaryRanges(Blackhole blackhole) {
+        boundary.forEachChunk(content, (start, end) -> blackhole.consume(end - start));
+    }
+
+    @Benchmark
+    public void boundaryWithOverlapRanges(Blackhole blackhole) {
+        boundaryWithOverlap.forEachChunk(content, (start, end) -> blackhole.consume(end - start));
+    }
+
+    @Benchmark
+    public List<String> boundaryMaterialized() {
+        List<String> chunks = new ArrayList<>();
+        boundary.forEachChunk(content, (start, end) -> chunks.add(content.substring(start, end)));
+        return chunks;
+    }
+
+    private static String prose(int length, Random random) {
+        StringBuilder text = new StringBuilder(length + 32);
+        int wordsInSentence = 0;
+        int sentencesInParagraph = 0;
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            if (++wordsInSentence < 8 + random.nextInt(12)) {
+                text.append(' ');
+                continue;
+            }
+            wordsInSentence = 0;
+            if (++sentencesInParagraph < 3 + random.nextInt(6)) {
+                text.append(". ");
+            } else {
+                sentencesInParagraph = 0;
+                text.append(".\n\n");
+            }
+        }
+        return text.substring(0, length);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChunkingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,194 @@
+package com.docmanagement.benchmark;
+
+import com.docmanagement.search.ChunkScorer;
+import com.docmanagement.search.TextAnalyzer;
+import com.docmanagement.storage.ContentCodec;
+import com.docmanagement.storage.ContentDictionaryTrainer;
+import org.apache.tika.Tika;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Size and decode cost of the compressed content format. Half of the corpus trains the dictionary,
+// the other half is measured, so the ratio is what new documents would get. The ratios are printed
+// once per fork; the benchmarks time one pass over the measured half.
+// Run with: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+//             -Dexec.args="-cp %classpath com.docmanagement.benchmark.ContentCompressionBenchmark -p corpus=/path/to/documents"
+// Without a corpus it falls back to generated prose, which compresses far better than real text.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentCompressionBenchmark {
+
+    private static final String[] WORDS = {
+            "document", "management", "system", "the", "a", "of", "processing", "search", "index",
+            "query", "answer", "question", "content", "upload", "storage", "chunk", "keyword", "text",
+            "invoice", "contract", "payment", "customer", "quarterly", "revenue", "report", "region"
+    };
+
+    private static final String QUESTION = "Which quarterly reports mention customer payments by region?";
+
+    // Directory of documents in any format Tika can read; empty means generated text
+    @Param({""})
+    private String corpus;
+
+    private List<String> texts;
+    private List<byte[]> plain;
+    private List<byte[]> compressed;
+    private ContentCodec codec;
+    private ChunkScorer chunkScorer;
+    private ChunkScorer.Query query;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<String> documents = corpus.isEmpty() ? generated() : extract(Path.of(corpus));
+        List<String> training = new ArrayList<>();
+        texts = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            (i % 2 == 0 ? training : texts).add(documents.get(i));
+        }
+
+        // Dictionaries are registered directly, the repository is never consulted
+        ContentCodec withoutDictionary = new ContentCodec(null, true, 0, 6);
+        codec = new ContentCodec(null, true, 0, 6);
+        codec.useDictionary(ContentDictionaryTrainer.train(training, ContentDictionaryTrainer.MAX_DICTIONARY_SIZE));
+
+        plain = new ArrayList<>();
+        compressed = new ArrayList<>();
+        long plainBytes = 0;
+        long deflatedBytes = 0;
+        long dictionaryBytes = 0;
+        for (String text : texts) {
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            byte[] encoded = codec.compress(text);
+            plain.add(utf8);
+            compressed.add(encoded);
+            plainBytes += utf8.length;
+            deflatedBytes += withoutDictionary.compress(text).length;
+            dictionaryBytes += encoded.length;
+        }
+        System.out.printf("%n%d documents measured (%d trained on), %,d bytes of text%n",
+                texts.size(), training.size(), plainBytes);
+        System.out.printf("deflate:                 %,d bytes, ratio %.2f%n", deflatedBytes, (double) plainBytes / deflatedBytes);
+        System.out.printf("deflate with dictionary: %,d bytes, ratio %.2f%n", dictionaryBytes, (double) plainBytes / dictionaryBytes);
+
+        chunkScorer = new ChunkScorer(new TextAnalyzer());
+        query = chunkScorer.prepare(QUESTION);
+    }
+
+    @Benchmark
+    public void compress(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(codec.compress(text));
+        }
+    }
+
+    // Baseline: what reading a plain TEXT column costs once the bytes are in memory
+    @Benchmark
+    public void decodePlain(Blackhole blackhole) {
+        for (byte[] bytes : plain) {
+            blackhole.consume(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public void decompress(Blackhole blackhole) {
+        for (byte[] bytes : compressed) {
+            blackhole.consume(codec.decompress(bytes));
+        }
+    }
+
+    @Benchmark
+    public void snippetFromPlain(Blackhole blackhole) {
+        for (byte[] bytes : plain) {
+            blackhole.consume(chunkScorer.score(new String(bytes, StandardCharsets.UTF_8), query));
+        }
+    }
+
+    // What QAService does for a compressed document hit
+    @Benchmark
+    public void snippetWhileDecompressing(Blackhole blackhole) throws IOException {
+        for (byte[] bytes : compressed) {
+            try (Reader reader = codec.open(bytes)) {
+                blackhole.consume(chunkScorer.score(reader, query));
+            }
+        }
+    }
+
+    private static List<String> extract(Path directory) throws Exception {
+        Tika tika = new Tika();
+        tika.setMaxStringLength(5_000_000);
+        List<String> documents = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                String text = tika.parseToString(file);
+                if (!text.isBlank()) {
+                    documents.add(text);
+                }
+            }
+        }
+        if (documents.size() < 2) {
+            throw new IllegalArgumentException("Need at least two readable documents in " + directory);
+        }
+        return documents;
+    }
+
+    private static List<String> generated() {
+        Random random = new Random(42);
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            documents.add(prose(5_000 + random.nextInt(50_000), random));
+        }
+        return documents;
+    }
+
+    private static String prose(int length, Random random) {
+        StringBuilder text = new StringBuilder(length + 32);
+        int wordsInSentence = 0;
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            if (++wordsInSentence < 8 + random.nextInt(12)) {
+                text.append(' ');
+            } else {
+                wordsInSentence = 0;
+                text.append(random.nextInt(5) == 0 ? ".\n\n" : ". ");
+            }
+        }
+        return text.substring(0, length);
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(ContentCompressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
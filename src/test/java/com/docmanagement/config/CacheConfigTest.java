@@ -0,0 +1,99 @@
+package com.docmanagement.config;
+
+import com.docmanagement.dto.response.DocumentResponse;
+import com.docmanagement.service.DocumentCacheLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheConfigTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DocumentCacheLoader documentCacheLoader = mock(DocumentCacheLoader.class);
+
+    @Test
+    void cachesShouldBeBoundedBySerializedSize() {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setMaximumWeight(DataSize.ofKilobytes(10));
+        properties.getSpecs().put("questions", spec);
+
+        Cache<Object, Object> questions = nativeCache(cacheManager(properties), "questions");
+        for (int i = 0; i < 10; i++) {
+            questions.put(i, "x".repeat(2000));
+        }
+        questions.cleanUp();
+
+        // Each value serializes to 2002 bytes, so at most five fit in 10KB
+        assertTrue(questions.estimatedSize() <= 5);
+        assertTrue(questions.stats().evictionCount() >= 5);
+    }
+
+    @Test
+    void refreshableCacheShouldLoadThroughItsLoader() throws Exception {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setRefreshAfterWrite(Duration.ofMinutes(1));
+        properties.getSpecs().put(CacheConfig.DOCUMENTS_CACHE, spec);
+        DocumentResponse document = DocumentResponse.builder().id(1L).title("Report").build();
+        when(documentCacheLoader.load(any())).thenAnswer(inv -> inv.getArgument(0).equals(1L) ? document : null);
+
+        org.springframework.cache.Cache documents = cacheManager(properties).getCache(CacheConfig.DOCUMENTS_CACHE);
+
+        assertSame(document, documents.get(1L, DocumentResponse.class));
+        assertNull(documents.get("filter:42"));
+        assertEquals(1, nativeCache(documents).stats().loadSuccessCount());
+    }
+
+    @Test
+    void refreshWithoutALoaderShouldFailAtStartup() {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setRefreshAfterWrite(Duration.ofMinutes(1));
+        properties.getSpecs().put("questions", spec);
+
+        assertThrows(IllegalStateException.class, () -> cacheManager(properties));
+    }
+
+    @Test
+    void unlistedCachesShouldStillBeBoundedAndRecordStats() {
+        CacheManager cacheManager = cacheManager(new CacheSpecProperties());
+
+        Cache<Object, Object> other = nativeCache(cacheManager, "other");
+
+        assertTrue(other.policy().eviction().isPresent());
+        assertTrue(other.policy().isRecordingStats());
+        assertTrue(cacheManager.getCacheNames().containsAll(List.of("documents", "questions")));
+    }
+
+    @Test
+    void weigherShouldFallBackForValuesThatCannotBeSerialized() {
+        SerializedSizeWeigher weigher = new SerializedSizeWeigher(objectMapper);
+
+        assertEquals(SerializedSizeWeigher.FALLBACK_WEIGHT, weigher.weigh("key", new Object()));
+        assertEquals(7, weigher.weigh("key", "hello"));
+    }
+
+    private CacheManager cacheManager(CacheSpecProperties properties) {
+        return new CacheConfig().cacheManager(properties, objectMapper, documentCacheLoader);
+    }
+
+    private Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return nativeCache(cacheManager.getCache(name));
+    }
+
+    private Cache<Object, Object> nativeCache(org.springframework.cache.Cache cache) {
+        return ((CaffeineCache) cache).getNativeCache();
+    }
+}
@@ -0,0 +1,46 @@
+package com.docmanagement.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IndexVerifierTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private IndexVerifier indexVerifier;
+
+    @Test
+    void shouldReportIndexesThatAreNotInTheDatabase() {
+        List<String> present = new ArrayList<>(IndexVerifier.EXPECTED_INDEXES);
+        present.remove("idx_documents_pending_id");
+        present.add("documents_pkey");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(present);
+
+        assertEquals(Set.of("idx_documents_pending_id"), indexVerifier.findMissingIndexes());
+    }
+
+    @Test
+    void verificationFailureShouldNotPreventStartup() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertDoesNotThrow(() -> indexVerifier.verifyIndexes());
+    }
+}
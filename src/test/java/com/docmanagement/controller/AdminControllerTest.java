@@ -1,9 +1,15 @@
 package com.docmanagement.controller;
 
 import com.docmanagement.dto.response.ApiResponse;
+import com.docmanagement.dto.response.ContentDictionaryResponse;
+import com.docmanagement.dto.response.SearchIndexRebuildResponse;
 import com.docmanagement.dto.response.UserSummaryResponse;
 import com.docmanagement.model.Role;
 import com.docmanagement.security.JwtTokenProvider;
+import com.docmanagement.service.ContentDictionaryService;
+import com.docmanagement.service.DocumentService;
+import com.docmanagement.service.SearchIndexRebuildService;
+import com.docmanagement.service.StorageMigrationService;
 import com.docmanagement.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,6 +39,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -53,6 +60,18 @@ class AdminControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private StorageMigrationService storageMigrationService;
+
+    @MockBean
+    private ContentDictionaryService contentDictionaryService;
+
+    @MockBean
+    private DocumentService documentService;
+
+    @MockBean
+    private SearchIndexRebuildService searchIndexRebuildService;
+
     private UserSummaryResponse user1;
     private UserSummaryResponse user2;
     private List<UserSummaryResponse> userList;
@@ -228,4 +247,110 @@ class AdminControllerTest {
 
         verify(userService, times(1)).updateUserRoles(eq(1L), any(Set.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void migrateStorage_shouldStartMigration() throws Exception {
+        when(storageMigrationService.isRunning()).thenReturn(false);
+
+        mockMvc.perform(post("/admin/storage/migrate").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Storage migration started"));
+
+        verify(storageMigrationService, times(1)).migrateToCurrentLayout();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void migrateStorage_shouldRejectWhenAlreadyRunning() throws Exception {
+        when(storageMigrationService.isRunning()).thenReturn(true);
+
+        mockMvc.perform(post("/admin/storage/migrate").with(csrf()))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false));
+
+        verify(storageMigrationService, times(0)).migrateToCurrentLayout();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void reprocessStaleDocuments_shouldRequeueAndStartTheBatchJob() throws Exception {
+        when(documentService.requeueStaleDocuments()).thenReturn(3);
+
+        mockMvc.perform(post("/admin/documents/reprocess").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("3 documents queued for reprocessing"));
+
+        verify(documentService, times(1)).processDocumentsBatch();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void reprocessStaleDocuments_shouldNotStartTheJobWhenNothingIsStale() throws Exception {
+        when(documentService.requeueStaleDocuments()).thenReturn(0);
+
+        mockMvc.perform(post("/admin/documents/reprocess").with(csrf()))
+                .andExpect(status().isOk());
+
+        verify(documentService, times(0)).processDocumentsBatch();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void rebuildSearchIndex_shouldStartTheJob() throws Exception {
+        when(searchIndexRebuildService.start()).thenReturn(true);
+
+        mockMvc.perform(post("/admin/reindex").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Search index rebuild started"));
+
+        verify(searchIndexRebuildService, times(1)).start();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void rebuildSearchIndex_shouldRejectWhenAlreadyRunning() throws Exception {
+        when(searchIndexRebuildService.start()).thenReturn(false);
+
+        mockMvc.perform(post("/admin/reindex").with(csrf()))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getSearchIndexRebuildProgress_shouldReturnProgress() throws Exception {
+        when(searchIndexRebuildService.getProgress()).thenReturn(SearchIndexRebuildResponse.builder()
+                .status("STARTED")
+                .totalDocuments(1000)
+                .processedDocuments(250)
+                .percentComplete(25.0)
+                .documentsPerSecond(20.0)
+                .etaSeconds(38L)
+                .build());
+
+        mockMvc.perform(get("/admin/reindex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("STARTED"))
+                .andExpect(jsonPath("$.percentComplete").value(25.0))
+                .andExpect(jsonPath("$.etaSeconds").value(38));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void trainContentDictionary_shouldReturnTheNewDictionary() throws Exception {
+        when(contentDictionaryService.train(200)).thenReturn(ContentDictionaryResponse.builder()
+                .id(12345L)
+                .size(32768)
+                .samples(200)
+                .build());
+
+        mockMvc.perform(post("/admin/content/dictionary").param("samples", "200").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(12345))
+                .andExpect(jsonPath("$.size").value(32768))
+                .andExpect(jsonPath("$.samples").value(200));
+    }
+}
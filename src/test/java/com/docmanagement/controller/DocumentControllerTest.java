@@ -2,7 +2,9 @@ package com.docmanagement.controller;
 
 import com.docmanagement.dto.request.DocumentFilterRequest;
 import com.docmanagement.dto.request.DocumentUploadRequest;
+import com.docmanagement.dto.request.TotalCountMode;
 import com.docmanagement.dto.response.ApiResponse;
+import com.docmanagement.dto.response.CursorPagedResponse;
 import com.docmanagement.dto.response.DocumentResponse;
 import com.docmanagement.dto.response.PagedResponse;
 import com.docmanagement.security.JwtTokenProvider;
@@ -87,6 +89,24 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
                 .andExpect(jsonPath("$.title", is("Test Document")));
     }
 
+    @Test
+    @WithMockUser(roles = {"ADMIN", "EDITOR"})
+    void testUploadDocumentStream() throws Exception {
+        Mockito.when(documentService.uploadDocumentStream(
+                        ArgumentMatchers.any(), ArgumentMatchers.eq("test.txt"), ArgumentMatchers.isNull(), ArgumentMatchers.any()))
+                .thenReturn(documentResponse);
+
+        mockMvc.perform(post("/documents/stream")
+                .param("fileName", "test.txt")
+                .param("title", "Test Document")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("Sample content".getBytes())
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.title", is("Test Document")));
+    }
+
     @Test
     @WithMockUser
     void testGetDocumentById() throws Exception {
@@ -115,6 +135,30 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
                 .andExpect(jsonPath("$.totalElements", is(1)));
     }
 
+    @Test
+    void testGetDocumentsByCursor() throws Exception {
+        CursorPagedResponse<DocumentResponse> cursorResponse = CursorPagedResponse.<DocumentResponse>builder()
+                .content(List.of(documentResponse))
+                .size(1)
+                .nextCursor("abc")
+                .totalElements(40L)
+                .build();
+        Mockito.when(documentService.getDocumentsByCursor(ArgumentMatchers.any(DocumentFilterRequest.class),
+                        ArgumentMatchers.eq("xyz"), ArgumentMatchers.eq(TotalCountMode.ESTIMATE)))
+                .thenReturn(cursorResponse);
+
+        mockMvc.perform(get("/documents/cursor")
+                .param("cursor", "xyz")
+                .param("count", "ESTIMATE")
+                .param("size", "1")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title", is("Test Document")))
+                .andExpect(jsonPath("$.nextCursor", is("abc")))
+                .andExpect(jsonPath("$.totalElements", is(40)))
+                .andExpect(jsonPath("$.totalExact", is(false)));
+    }
+
     @Test
     @WithMockUser(roles = {"ADMIN", "EDITOR"})
     void testDeleteDocument() throws Exception {
@@ -1,5 +1,6 @@
 package com.docmanagement.controller;
 
+import com.docmanagement.dto.request.BatchQuestionRequest;
 import com.docmanagement.dto.request.QuestionRequest;
 import com.docmanagement.dto.response.AnswerResponse;
 import com.docmanagement.dto.response.DocumentSnippetResponse;
@@ -14,10 +15,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -76,4 +81,41 @@ class QAControllerTest {
                 .andExpect(jsonPath("$.relevantDocuments[1].snippet", containsString("simplifies development")))
                 .andExpect(jsonPath("$.relevantDocuments[1].relevanceScore", closeTo(0.92, 0.01)));
     }
+
+    @Test
+    void askQuestions_streamsOneAnswerPerLine() throws Exception {
+        BatchQuestionRequest request = new BatchQuestionRequest(List.of(
+                new QuestionRequest("What is Spring Boot?"), new QuestionRequest("What is Flyway?")));
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<AnswerResponse> consumer = invocation.getArgument(1);
+            consumer.accept(AnswerResponse.builder().question("What is Spring Boot?").relevantDocuments(List.of()).build());
+            consumer.accept(AnswerResponse.builder().question("What is Flyway?").relevantDocuments(List.of()).build());
+            return null;
+        }).when(qaService).answerQuestions(Mockito.anyList(), Mockito.any());
+
+        MvcResult result = mockMvc.perform(post("/qa/ask-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("What is Spring Boot?", objectMapper.readValue(lines[0], AnswerResponse.class).getQuestion());
+        assertEquals("What is Flyway?", objectMapper.readValue(lines[1], AnswerResponse.class).getQuestion());
+    }
+
+    @Test
+    void askQuestions_rejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/qa/ask-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchQuestionRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
 }
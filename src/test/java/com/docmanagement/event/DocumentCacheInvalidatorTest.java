@@ -0,0 +1,96 @@
+package com.docmanagement.event;
+
+import com.docmanagement.config.CacheConfig;
+import com.docmanagement.dto.request.DocumentFilterRequest;
+import com.docmanagement.dto.response.DocumentResponse;
+import com.docmanagement.dto.response.PagedResponse;
+import com.docmanagement.model.DocumentStatus;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentCacheInvalidatorTest {
+
+    private Cache documents;
+    private Cache pages;
+    private DocumentCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.DOCUMENTS_CACHE, CacheConfig.DOCUMENT_PAGES_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder());
+        documents = cacheManager.getCache(CacheConfig.DOCUMENTS_CACHE);
+        pages = cacheManager.getCache(CacheConfig.DOCUMENT_PAGES_CACHE);
+        invalidator = new DocumentCacheInvalidator(cacheManager);
+    }
+
+    @Test
+    void statusChangeShouldEvictTheDocumentsAndOnlyThePagesItAffects() {
+        documents.put(1L, document(1L));
+        documents.put(2L, document(2L));
+        DocumentFilterRequest showingDocument = filter(0);
+        DocumentFilterRequest otherPage = filter(1);
+        DocumentFilterRequest byStatus = filter(1);
+        byStatus.setStatus(DocumentStatus.COMPLETED);
+        DocumentFilterRequest byUpdatedAt = filter(1);
+        byUpdatedAt.setSortBy("updatedAt");
+        pages.put(showingDocument, page(1L, 3L));
+        pages.put(otherPage, page(4L));
+        pages.put(byStatus, page(4L));
+        pages.put(byUpdatedAt, page(4L));
+
+        invalidator.onDocumentLifecycle(DocumentLifecycleEvent.statusChanged(List.of(1L)));
+
+        assertNull(documents.get(1L));
+        assertNotNull(documents.get(2L));
+        assertNull(pages.get(showingDocument));
+        assertNotNull(pages.get(otherPage));
+        assertNull(pages.get(byStatus));
+        assertNull(pages.get(byUpdatedAt));
+    }
+
+    @Test
+    void uploadShouldEvictEveryPage() {
+        pages.put(filter(0), page(4L));
+        pages.put(filter(1), page(5L));
+
+        invalidator.onDocumentLifecycle(DocumentLifecycleEvent.uploaded(9L));
+
+        assertNull(pages.get(filter(0)));
+        assertNull(pages.get(filter(1)));
+    }
+
+    @Test
+    void deleteShouldEvictTheDocumentAndEveryPage() {
+        documents.put(4L, document(4L));
+        pages.put(filter(3), page(7L));
+
+        invalidator.onDocumentLifecycle(DocumentLifecycleEvent.deleted(4L));
+
+        assertNull(documents.get(4L));
+        assertNull(pages.get(filter(3)));
+    }
+
+    private DocumentFilterRequest filter(int page) {
+        DocumentFilterRequest filter = new DocumentFilterRequest();
+        filter.setPage(page);
+        return filter;
+    }
+
+    private DocumentResponse document(Long id) {
+        return DocumentResponse.builder().id(id).build();
+    }
+
+    private PagedResponse<DocumentResponse> page(Long... ids) {
+        return PagedResponse.<DocumentResponse>builder()
+                .content(Arrays.stream(ids).map(this::document).toList())
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.docmanagement.event;
+
+import com.docmanagement.config.RabbitMQConfig;
+import com.docmanagement.search.QAAnswerCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.net.ConnectException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentEventBroadcasterTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private QAAnswerCache answerCache;
+
+    private DocumentEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new DocumentEventBroadcaster(rabbitTemplate, eventPublisher, answerCache);
+    }
+
+    @Test
+    void localEventsShouldBeSentToTheFanoutWithThisNodeAsOriginAndTheirSharedGeneration() {
+        DocumentLifecycleEvent event = DocumentLifecycleEvent.statusChanged(List.of(1L, 2L));
+        when(answerCache.sharedGeneration(event)).thenReturn(6L);
+
+        broadcaster.broadcast(event);
+
+        ArgumentCaptor<DocumentLifecycleEvent> sent = ArgumentCaptor.forClass(DocumentLifecycleEvent.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.DOCUMENT_EVENTS_EXCHANGE), eq(""), sent.capture());
+        assertEquals(DocumentLifecycleEvent.Type.STATUS_CHANGED, sent.getValue().getType());
+        assertEquals(List.of(1L, 2L), sent.getValue().getDocumentIds());
+        assertNotNull(sent.getValue().getOrigin());
+        assertEquals(6L, sent.getValue().getGeneration());
+    }
+
+    @Test
+    void eventsFromOtherNodesShouldBeRepublishedButNotSentAgain() {
+        DocumentLifecycleEvent remote = new DocumentLifecycleEvent(DocumentLifecycleEvent.Type.DELETED, List.of(3L), "other-node", 4L);
+
+        broadcaster.receive(remote);
+        broadcaster.broadcast(remote);
+
+        verify(eventPublisher).publishEvent(remote);
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void ownEventsShouldNotBeAppliedTwice() {
+        broadcaster.broadcast(DocumentLifecycleEvent.deleted(3L));
+        ArgumentCaptor<DocumentLifecycleEvent> sent = ArgumentCaptor.forClass(DocumentLifecycleEvent.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.DOCUMENT_EVENTS_EXCHANGE), eq(""), sent.capture());
+
+        broadcaster.receive(sent.getValue());
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void brokerFailureShouldNotFailTheCommittedChange() {
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        assertDoesNotThrow(() -> broadcaster.broadcast(DocumentLifecycleEvent.uploaded(5L)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.docmanagement.listener;
+
+import com.docmanagement.config.RabbitMQConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentRetryHandlerTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @InjectMocks
+    private DocumentRetryHandler documentRetryHandler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(documentRetryHandler, "maxAttempts", 3);
+    }
+
+    @Test
+    void shouldScheduleRetryWithIncrementedCount() {
+        Message message = message(1);
+
+        documentRetryHandler.retryOrDeadLetter(message, new IllegalStateException("boom"));
+
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.RETRY_EXCHANGE), eq(RabbitMQConfig.DOCUMENT_ROUTING_KEY), sent.capture());
+        assertEquals(2, (Integer) sent.getValue().getMessageProperties().getHeader(DocumentRetryHandler.RETRY_COUNT_HEADER));
+        assertEquals("boom", sent.getValue().getMessageProperties().getHeader(DocumentRetryHandler.FAILURE_HEADER));
+    }
+
+    @Test
+    void shouldDeadLetterAfterLastAttempt() {
+        Message message = message(2);
+
+        assertTrue(documentRetryHandler.isLastAttempt(message));
+        documentRetryHandler.retryOrDeadLetter(message, new IllegalStateException("boom"));
+
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.DEAD_LETTER_EXCHANGE), eq(RabbitMQConfig.DEAD_LETTER_ROUTING_KEY),
+                any(Message.class));
+    }
+
+    @Test
+    void firstDeliveryShouldNotBeLastAttempt() {
+        assertFalse(documentRetryHandler.isLastAttempt(new Message(new byte[0], new MessageProperties())));
+    }
+
+    private Message message(int retries) {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(DocumentRetryHandler.RETRY_COUNT_HEADER, retries);
+        return new Message("1".getBytes(), properties);
+    }
+}
@@ -0,0 +1,218 @@
+package com.docmanagement.listener;
+
+import com.docmanagement.event.DocumentLifecycleEvent;
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.processing.IngestionPipeline;
+import com.docmanagement.repository.DocumentClaimRepository;
+import com.docmanagement.repository.DocumentRepository;
+import com.rabbitmq.client.Channel;
+import org.apache.tika.exception.TikaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RabbitMQListenerTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentClaimRepository documentClaimRepository;
+
+    @Mock
+    private IngestionPipeline ingestionPipeline;
+
+    @Mock
+    private DocumentRetryHandler documentRetryHandler;
+
+    @Mock
+    private Channel channel;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+
+    private RabbitMQListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new RabbitMQListener(documentRepository, documentClaimRepository, ingestionPipeline, documentRetryHandler,
+                TransactionOperations.withoutTransaction(), converter, eventPublisher);
+    }
+
+    @Test
+    void shouldExtractOutsideTheWriteAndPersistEachDocumentBeforeAcking() throws Exception {
+        Document first = document(1L);
+        Document second = document(2L);
+        when(documentClaimRepository.claim(eq(Set.of(1L, 2L)), anyLong())).thenReturn(List.of(1L, 2L));
+        when(documentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(ingestionPipeline.extract(first)).thenReturn("first text");
+        when(ingestionPipeline.extract(second)).thenReturn("second text");
+
+        listener.processDocuments(List.of(message(1L, 10), message(2L, 11)), channel);
+
+        InOrder inOrder = inOrder(ingestionPipeline, channel);
+        inOrder.verify(ingestionPipeline).extract(first);
+        inOrder.verify(ingestionPipeline).process(first, "first text");
+        inOrder.verify(ingestionPipeline).persist(List.of(first));
+        inOrder.verify(ingestionPipeline).extract(second);
+        inOrder.verify(ingestionPipeline).process(second, "second text");
+        inOrder.verify(ingestionPipeline).persist(List.of(second));
+        inOrder.verify(channel).basicAck(11, true);
+        verifyNoInteractions(documentRetryHandler);
+    }
+
+    @Test
+    void shouldClaimAndWriteInSeparateTransactionsWithExtractionBetween() throws Exception {
+        Document document = document(1L);
+        TransactionOperations transactions = mock(TransactionOperations.class);
+        when(transactions.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        listener = new RabbitMQListener(documentRepository, documentClaimRepository, ingestionPipeline, documentRetryHandler,
+                transactions, converter, eventPublisher);
+        when(documentClaimRepository.claim(eq(Set.of(1L)), anyLong())).thenReturn(List.of(1L));
+        when(documentRepository.findAllById(List.of(1L))).thenReturn(List.of(document));
+
+        listener.processDocuments(List.of(message(1L, 10)), channel);
+
+        InOrder inOrder = inOrder(transactions, documentClaimRepository, ingestionPipeline);
+        inOrder.verify(transactions).execute(any());
+        inOrder.verify(documentClaimRepository).claim(eq(Set.of(1L)), anyLong());
+        inOrder.verify(ingestionPipeline).extract(document);
+        inOrder.verify(transactions).execute(any());
+        inOrder.verify(ingestionPipeline).process(document, null);
+    }
+
+    @Test
+    void shouldSendFailedDocumentToRetryAndAckTheBatch() throws Exception {
+        Document good = document(1L);
+        Document bad = document(2L);
+        Message badMessage = message(2L, 11);
+        TikaException failure = new TikaException("corrupt");
+        when(documentClaimRepository.claim(eq(Set.of(1L, 2L)), anyLong())).thenReturn(List.of(1L, 2L));
+        when(documentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(good, bad));
+        lenient().when(ingestionPipeline.extract(bad)).thenThrow(failure);
+
+        listener.processDocuments(List.of(message(1L, 10), badMessage), channel);
+
+        assertEquals(DocumentStatus.PENDING, bad.getStatus());
+        verify(ingestionPipeline, never()).process(eq(bad), any());
+        verify(ingestionPipeline).discard(bad);
+        verify(ingestionPipeline).persist(List.of(good));
+        verify(ingestionPipeline).persist(List.of(bad));
+        verify(documentRetryHandler).retryOrDeadLetter(badMessage, failure);
+        verify(documentRetryHandler, never()).retryOrDeadLetter(argThat(message -> message != badMessage), any());
+        verify(channel).basicAck(11, true);
+    }
+
+    @Test
+    void shouldMarkDocumentFailedOnLastAttempt() throws Exception {
+        Document bad = document(3L);
+        Message badMessage = message(3L, 5);
+        when(documentClaimRepository.claim(eq(Set.of(3L)), anyLong())).thenReturn(List.of(3L));
+        when(documentRepository.findAllById(List.of(3L))).thenReturn(List.of(bad));
+        lenient().doThrow(new TikaException("corrupt")).when(ingestionPipeline).process(bad, null);
+        when(documentRetryHandler.isLastAttempt(badMessage)).thenReturn(true);
+
+        listener.processDocuments(List.of(badMessage), channel);
+
+        assertEquals(DocumentStatus.FAILED, bad.getStatus());
+        verify(ingestionPipeline).persist(List.of(bad));
+        verify(documentRetryHandler).retryOrDeadLetter(eq(badMessage), any());
+    }
+
+    @Test
+    void shouldKeepOtherDocumentsWhenOneWriteFails() throws Exception {
+        Document good = document(1L);
+        Document poison = document(2L);
+        Message poisonMessage = message(2L, 11);
+        when(documentClaimRepository.claim(eq(Set.of(1L, 2L)), anyLong())).thenReturn(List.of(1L, 2L));
+        when(documentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(good, poison));
+        lenient().doThrow(new DataIntegrityViolationException("broken")).when(ingestionPipeline).persist(List.of(poison));
+
+        listener.processDocuments(List.of(message(1L, 10), poisonMessage), channel);
+
+        verify(ingestionPipeline).persist(List.of(good));
+        verify(documentRepository).updateStatus(2L, DocumentStatus.PENDING);
+        verify(eventPublisher).publishEvent(DocumentLifecycleEvent.statusChanged(List.of(2L)));
+        verify(documentRetryHandler).retryOrDeadLetter(eq(poisonMessage), any(DataIntegrityViolationException.class));
+        verify(channel).basicAck(11, true);
+    }
+
+    @Test
+    void shouldRequeueWhenRetryCannotBePublished() throws Exception {
+        Document good = document(1L);
+        Document bad = document(2L);
+        Message badMessage = message(2L, 11);
+        when(documentClaimRepository.claim(eq(Set.of(1L, 2L)), anyLong())).thenReturn(List.of(1L, 2L));
+        when(documentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(good, bad));
+        lenient().doThrow(new TikaException("corrupt")).when(ingestionPipeline).process(bad, null);
+        doThrow(new AmqpException("broker down")).when(documentRetryHandler).retryOrDeadLetter(eq(badMessage), any());
+
+        listener.processDocuments(List.of(message(1L, 10), badMessage), channel);
+
+        verify(channel).basicNack(11, false, true);
+        verify(channel).basicAck(10, false);
+        verify(channel, never()).basicAck(anyLong(), eq(true));
+    }
+
+    @Test
+    void shouldSkipFinishedDocumentsAndRetryBusyOnesLater() throws Exception {
+        Message done = message(4L, 1);
+        Message busy = message(5L, 2);
+        when(documentClaimRepository.claim(eq(Set.of(4L, 5L)), anyLong())).thenReturn(List.of());
+        when(documentClaimRepository.findUnfinished(Set.of(4L, 5L))).thenReturn(List.of(5L));
+        when(documentRepository.findAllById(List.of())).thenReturn(List.of());
+
+        listener.processDocuments(List.of(done, busy), channel);
+
+        verify(ingestionPipeline, never()).extract(any());
+        verify(documentRetryHandler).retryLater(busy);
+        verify(documentRetryHandler, never()).retryLater(done);
+        verify(channel).basicAck(2, true);
+    }
+
+    @Test
+    void shouldDeadLetterUnreadableMessages() throws Exception {
+        Message garbage = new Message("not-an-id".getBytes(), properties(7));
+        listener.processDocuments(List.of(garbage), channel);
+
+        verify(documentRetryHandler).deadLetter(eq(garbage), any());
+        verify(channel).basicAck(7, true);
+    }
+
+    private Document document(Long id) {
+        return Document.builder().id(id).title("doc-" + id).status(DocumentStatus.PENDING).build();
+    }
+
+    private Message message(Long documentId, long deliveryTag) {
+        return converter.toMessage(documentId, properties(deliveryTag));
+    }
+
+    private MessageProperties properties(long deliveryTag) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return properties;
+    }
+}
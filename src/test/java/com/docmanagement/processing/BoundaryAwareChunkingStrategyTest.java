@@ -0,0 +1,93 @@
+package com.docmanagement.processing;
+
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundaryAwareChunkingStrategyTest {
+
+    @Test
+    void shouldPreferParagraphOverSentenceBreaks() {
+        BoundaryAwareChunkingStrategy strategy = new BoundaryAwareChunkingStrategy(20, 10, 30, 0, 0);
+        String text = "First paragraph.\n\nSecond one. Goes on for a while.";
+
+        List<String> chunks = split(strategy, text);
+
+        assertEquals("First paragraph.\n\n", chunks.get(0));
+        assertEquals(text, String.join("", chunks));
+    }
+
+    @Test
+    void shouldEndOnSentenceRatherThanMidWord() {
+        BoundaryAwareChunkingStrategy strategy = new BoundaryAwareChunkingStrategy(20, 10, 30, 0, 0);
+        String text = "One short sentence. Another sentence follows here.";
+
+        List<String> chunks = split(strategy, text);
+
+        assertEquals(List.of("One short sentence. ", "Another sentence follows here."), chunks);
+    }
+
+    @Test
+    void shouldCutAtMaxSizeWhenThereIsNoBoundary() {
+        BoundaryAwareChunkingStrategy strategy = new BoundaryAwareChunkingStrategy(4, 2, 6, 0, 0);
+
+        assertEquals(List.of("abcdef", "ghij"), split(strategy, "abcdefghij"));
+    }
+
+    @Test
+    void overlapShouldStartAtWordBoundary() {
+        BoundaryAwareChunkingStrategy strategy = new BoundaryAwareChunkingStrategy(20, 10, 25, 8, 0);
+        String text = "alpha beta gamma delta epsilon zeta eta theta";
+
+        List<String> chunks = split(strategy, text);
+
+        assertTrue(chunks.size() > 1);
+        for (int i = 1; i < chunks.size(); i++) {
+            String previous = chunks.get(i - 1);
+            String firstWord = chunks.get(i).split(" ")[0];
+            assertTrue(previous.contains(firstWord + " "), "chunk " + i + " should repeat a whole word");
+        }
+        assertTrue(chunks.get(chunks.size() - 1).endsWith("theta"));
+    }
+
+    @Test
+    void shouldRespectTokenBudget() {
+        BoundaryAwareChunkingStrategy strategy = new BoundaryAwareChunkingStrategy(50, 5, 100, 0, 3);
+
+        List<String> chunks = split(strategy, "one two three four five six seven");
+
+        assertEquals(List.of("one two three ", "four five six ", "seven"), chunks);
+    }
+
+    @Test
+    void shouldRejectOverlapLargerThanMinimum() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundaryAwareChunkingStrategy(20, 10, 30, 10, 0));
+    }
+
+    @Test
+    void streamingShouldMatchWholeTextChunking() throws SAXException {
+        BoundaryAwareChunkingStrategy strategy = new BoundaryAwareChunkingStrategy(30, 15, 40, 6, 0);
+        String text = "The quick brown fox jumps over the lazy dog. It was not amused.\n\n"
+                + "Then the dog chased the fox around the yard. Nobody won that race!";
+
+        List<String> streamed = new ArrayList<>();
+        ChunkingContentHandler handler = new ChunkingContentHandler(strategy, Long.MAX_VALUE, streamed::add);
+        for (int i = 0; i < text.length(); i += 7) {
+            String part = text.substring(i, Math.min(text.length(), i + 7));
+            handler.characters(part.toCharArray(), 0, part.length());
+        }
+        handler.endDocument();
+
+        assertEquals(split(strategy, text), streamed);
+    }
+
+    private List<String> split(ChunkingStrategy strategy, String text) {
+        List<String> chunks = new ArrayList<>();
+        strategy.forEachChunk(text, (start, end) -> chunks.add(text.substring(start, end)));
+        return chunks;
+    }
+}
@@ -0,0 +1,60 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkBatchWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ChunkBatchWriter chunkBatchWriter;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldInsertChunksInOneBatchedStatement() throws Exception {
+        ReflectionTestUtils.setField(chunkBatchWriter, "insertBatchSize", 100);
+        Document document = Document.builder().id(7L).build();
+        List<DocumentChunk> chunks = List.of(
+                DocumentChunk.builder().document(document).chunkOrder(0).content("first").build(),
+                DocumentChunk.builder().document(document).chunkOrder(1).content("second").contentHash("abc").build());
+
+        chunkBatchWriter.write(chunks);
+
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<DocumentChunk>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO document_chunks"), eq(chunks), eq(100), setter.capture());
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, chunks.get(1));
+        verify(ps).setLong(1, 7L);
+        verify(ps).setInt(2, 1);
+        verify(ps).setString(3, "second");
+        verify(ps).setString(4, "abc");
+    }
+
+    @Test
+    void shouldSkipEmptyBatches() {
+        chunkBatchWriter.write(List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
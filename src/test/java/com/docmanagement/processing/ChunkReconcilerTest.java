@@ -0,0 +1,107 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkReconcilerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ChunkBatchWriter chunkBatchWriter;
+
+    private final Document document = Document.builder().id(7L).build();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepUnchangedChunksInsertNewOnesAndDeleteTheRest() throws Exception {
+        // 100 "first" at 0, 101 "second" at 1, 102 from before chunk hashes existed
+        storedChunks(new long[]{100, 101, 102}, new int[]{0, 1, 2},
+                new String[]{TextHash.sha256("first"), TextHash.sha256("second"), null});
+        ChunkReconciler.Session session = new ChunkReconciler(jdbcTemplate, chunkBatchWriter).begin(7L);
+
+        session.accept(List.of(chunk(0, "second"), chunk(1, "third")));
+        ChunkReconciler.Result result = session.finish();
+
+        ArgumentCaptor<List<DocumentChunk>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(chunkBatchWriter).write(inserted.capture());
+        assertEquals(List.of("third"), inserted.getValue().stream().map(DocumentChunk::getContent).toList());
+        assertEquals(TextHash.sha256("third"), inserted.getValue().get(0).getContentHash());
+
+        assertArrayEquals(new Object[]{0, 101L}, batch("UPDATE").get(0));
+        assertEquals(List.of(100L, 102L), batch("DELETE").stream().map(args -> args[0]).sorted().toList());
+
+        assertEquals(1, result.getKept());
+        assertEquals(1, result.getMoved());
+        assertEquals(1, result.getInserted());
+        assertEquals(2, result.getDeleted());
+    }
+
+    @Test
+    void shouldMatchRepeatedTextOncePerStoredChunk() throws Exception {
+        String hash = TextHash.sha256("same");
+        storedChunks(new long[]{100}, new int[]{0}, new String[]{hash});
+        ChunkReconciler.Session session = new ChunkReconciler(jdbcTemplate, chunkBatchWriter).begin(7L);
+
+        session.accept(List.of(chunk(0, "same")));
+        session.accept(List.of(chunk(1, "same")));
+        ChunkReconciler.Result result = session.finish();
+
+        assertEquals(1, result.getKept());
+        assertEquals(1, result.getInserted());
+        assertEquals(0, result.getDeleted());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void refreshVectorsShouldRewriteOnlyKeptChunks() throws Exception {
+        storedChunks(new long[]{100}, new int[]{0}, new String[]{TextHash.sha256("kept")});
+        ChunkReconciler.Session session = new ChunkReconciler(jdbcTemplate, chunkBatchWriter).begin(7L);
+
+        session.accept(List.of(chunk(0, "kept"), chunk(1, "new")));
+        session.refreshVectors();
+
+        assertArrayEquals(new Object[]{100L}, batch("UPDATE document_chunks SET content = content").get(0));
+    }
+
+    private void storedChunks(long[] ids, int[] orders, String[] hashes) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < ids.length; i++) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(ids[i]);
+                when(rs.getInt(2)).thenReturn(orders[i]);
+                when(rs.getString(3)).thenReturn(hashes[i]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT id, chunk_order, content_hash"), any(RowCallbackHandler.class), eq(7L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> batch(String statement) {
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(statement), args.capture());
+        return args.getValue();
+    }
+
+    private DocumentChunk chunk(int order, String content) {
+        return DocumentChunk.builder().document(document).chunkOrder(order).content(content).build();
+    }
+}
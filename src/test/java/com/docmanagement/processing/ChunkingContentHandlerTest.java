@@ -0,0 +1,67 @@
+package com.docmanagement.processing;
+
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkingContentHandlerTest {
+
+    @Test
+    void shouldEmitFixedSizeChunksAcrossCharacterCallbacks() throws SAXException {
+        List<String> chunks = new ArrayList<>();
+        ChunkingContentHandler handler = new ChunkingContentHandler(4, Long.MAX_VALUE, chunks::add);
+
+        feed(handler, "abc");
+        feed(handler, "defghij");
+        assertEquals(List.of("abcd", "efgh"), chunks);
+
+        handler.endDocument();
+        assertEquals(List.of("abcd", "efgh", "ij"), chunks);
+        assertEquals(10, handler.getTotalCharacters());
+    }
+
+    @Test
+    void shouldStopAtCharacterLimit() throws SAXException {
+        List<String> chunks = new ArrayList<>();
+        ChunkingContentHandler handler = new ChunkingContentHandler(4, 6, chunks::add);
+
+        feed(handler, "abc");
+        SAXException ex = assertThrows(SAXException.class, () -> feed(handler, "defghij"));
+        assertTrue(WriteLimitReachedException.isWriteLimitReached(ex));
+
+        handler.flush();
+        assertEquals(List.of("abcd", "ef"), chunks);
+    }
+
+    @Test
+    void shouldCopyTheAcceptedTextToTheTextWriter() throws SAXException {
+        StringWriter text = new StringWriter();
+        ChunkingContentHandler handler = new ChunkingContentHandler(new FixedSizeChunkingStrategy(4), 6,
+                chunk -> { }, text);
+
+        feed(handler, "abc");
+        assertThrows(SAXException.class, () -> feed(handler, "defghij"));
+
+        assertEquals("abcdef", text.toString());
+    }
+
+    @Test
+    void flushShouldNotEmitEmptyChunks() {
+        List<String> chunks = new ArrayList<>();
+        ChunkingContentHandler handler = new ChunkingContentHandler(4, Long.MAX_VALUE, chunks::add);
+
+        handler.flush();
+
+        assertTrue(chunks.isEmpty());
+    }
+
+    private void feed(ChunkingContentHandler handler, String text) throws SAXException {
+        handler.characters(text.toCharArray(), 0, text.length());
+    }
+}
@@ -0,0 +1,119 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.storage.ContentCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentContentWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ContentCodec contentCodec;
+
+    @Test
+    void shouldStoreCompressedBytesAndIndexTheText() throws Exception {
+        byte[] compressed = {1, 2, 3};
+        when(contentCodec.shouldCompress("long text")).thenReturn(true);
+        when(contentCodec.compress("long text")).thenReturn(compressed);
+
+        PreparedStatement ps = write("long text");
+
+        verify(ps).setLong(1, 7L);
+        verify(ps).setNull(2, Types.VARCHAR);
+        verify(ps).setBytes(3, compressed);
+        verify(ps).setString(4, "long text");
+        verify(ps).setString(5, TextHash.sha256("long text"));
+    }
+
+    @Test
+    void shouldStorePlainTextWhenNotCompressing() throws Exception {
+        when(contentCodec.shouldCompress("short")).thenReturn(false);
+
+        PreparedStatement ps = write("short");
+
+        verify(ps).setString(2, "short");
+        verify(ps).setNull(3, Types.BINARY);
+        verify(contentCodec, never()).compress(any());
+    }
+
+    @Test
+    void shouldSkipTextThatIsAlreadyStored() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT text_hash"), eq(String.class), eq(7L)))
+                .thenReturn(List.of(TextHash.sha256("same text")));
+
+        assertFalse(new DocumentContentWriter(jdbcTemplate, contentCodec).write(7L, "same text", false));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+        verifyNoInteractions(contentCodec);
+    }
+
+    @Test
+    void rewriteShouldStoreTheTextEvenWhenUnchanged() {
+        new DocumentContentWriter(jdbcTemplate, contentCodec).write(7L, "same text", true);
+
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any());
+        verify(jdbcTemplate).update(startsWith("INSERT INTO document_contents"), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void streamedTextShouldBeStoredLikeTheSameTextWrittenAtOnce() throws Exception {
+        ContentCodec codec = new ContentCodec(null, true, 4, 6);
+        DocumentContentWriter writer = new DocumentContentWriter(jdbcTemplate, codec);
+        DocumentContentWriter.StreamedText text = writer.stream();
+        text.write("long ");
+        text.write("text");
+
+        assertTrue(writer.write(7L, text, false));
+
+        PreparedStatement ps = captureUpsert();
+        ArgumentCaptor<byte[]> compressed = ArgumentCaptor.forClass(byte[].class);
+        verify(ps).setNull(2, Types.VARCHAR);
+        verify(ps).setBytes(eq(3), compressed.capture());
+        assertEquals("long text", codec.decompress(compressed.getValue()));
+        verify(ps).setString(4, "long text");
+        verify(ps).setString(5, TextHash.sha256("long text"));
+    }
+
+    @Test
+    void shortStreamedTextShouldStayPlain() throws Exception {
+        DocumentContentWriter writer = new DocumentContentWriter(jdbcTemplate, new ContentCodec(null, true, 100, 6));
+        DocumentContentWriter.StreamedText text = writer.stream();
+        text.write("short");
+
+        writer.write(7L, text, false);
+
+        PreparedStatement ps = captureUpsert();
+        verify(ps).setString(2, "short");
+        verify(ps).setNull(3, Types.BINARY);
+        verify(ps).setString(5, TextHash.sha256("short"));
+    }
+
+    private PreparedStatement write(String content) throws Exception {
+        assertTrue(new DocumentContentWriter(jdbcTemplate, contentCodec).write(7L, content, false));
+        return captureUpsert();
+    }
+
+    private PreparedStatement captureUpsert() throws Exception {
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO document_contents"), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps);
+        return ps;
+    }
+}
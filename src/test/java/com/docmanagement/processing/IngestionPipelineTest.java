@@ -0,0 +1,218 @@
+package com.docmanagement.processing;
+
+import com.docmanagement.event.DocumentLifecycleEvent;
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentChunk;
+import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.repository.DocumentChunkRepository;
+import com.docmanagement.repository.DocumentRepository;
+import com.docmanagement.service.DocumentDeduplicationService;
+import com.docmanagement.service.DocumentProcessingService;
+import org.apache.tika.exception.TikaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionPipelineTest {
+
+    @Mock
+    private DocumentProcessingService documentProcessingService;
+
+    @Mock
+    private DocumentDeduplicationService documentDeduplicationService;
+
+    @Mock
+    private StreamingChunkIngestor streamingChunkIngestor;
+
+    @Mock
+    private ChunkBatchWriter chunkBatchWriter;
+
+    @Mock
+    private DocumentChunkRepository documentChunkRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentContentWriter documentContentWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final PipelineVersion pipelineVersion = new PipelineVersion(1, "fixed", 4, 0, 0, 0, 0, 1000, false);
+
+    private IngestionPipeline ingestionPipeline;
+
+    @BeforeEach
+    void setUp() {
+        ingestionPipeline = pipeline(false);
+    }
+
+    @Test
+    void shouldChunkKeywordAndWriteExtractedContent() throws Exception {
+        Document document = Document.builder().id(1L).filePath("doc.txt").build();
+        when(documentProcessingService.extractContent("doc.txt")).thenReturn("abcdefghij");
+        when(documentProcessingService.extractKeywords("abcdefghij")).thenReturn(Set.of("abcdefghij"));
+
+        ingestionPipeline.process(document);
+
+        ArgumentCaptor<List<DocumentChunk>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(chunkBatchWriter).write(chunks.capture());
+        assertEquals(List.of("abcd", "efgh", "ij"), chunks.getValue().stream().map(DocumentChunk::getContent).toList());
+        assertEquals(List.of(0, 1, 2), chunks.getValue().stream().map(DocumentChunk::getChunkOrder).toList());
+
+        verify(documentContentWriter).write(1L, "abcdefghij", false);
+        verify(documentChunkRepository, never()).deleteByDocumentId(any());
+
+        assertEquals(Set.of("abcdefghij"), document.getKeywords());
+        assertEquals(DocumentStatus.COMPLETED, document.getStatus());
+    }
+
+    @Test
+    void shouldReuseContentWithoutExtracting() throws Exception {
+        Document document = Document.builder().id(2L).filePath("doc.txt").build();
+        when(documentDeduplicationService.reuseProcessedContent(document, pipelineVersion.get())).thenReturn(true);
+
+        ingestionPipeline.process(document);
+
+        verifyNoInteractions(documentProcessingService, chunkBatchWriter, documentContentWriter);
+        assertEquals(DocumentStatus.COMPLETED, document.getStatus());
+    }
+
+    @Test
+    void shouldProcessTextExtractedAheadWithoutExtractingAgain() throws Exception {
+        Document document = Document.builder().id(7L).filePath("doc.txt").contentHash("abc").build();
+        when(documentProcessingService.extractContent("doc.txt")).thenReturn("abcdefghij");
+
+        String content = ingestionPipeline.extract(document);
+        ingestionPipeline.process(document, content);
+
+        verify(documentProcessingService, times(1)).extractContent("doc.txt");
+        verify(documentContentWriter).write(7L, "abcdefghij", false);
+        assertEquals(DocumentStatus.COMPLETED, document.getStatus());
+    }
+
+    @Test
+    void shouldNotExtractAheadWhenADuplicateCanBeCopied() throws Exception {
+        Document document = Document.builder().id(8L).filePath("doc.txt").contentHash("abc").build();
+        when(documentDeduplicationService.hasProcessedDuplicate(document, pipelineVersion.get())).thenReturn(true);
+
+        assertNull(ingestionPipeline.extract(document));
+        verifyNoInteractions(documentProcessingService);
+    }
+
+    @Test
+    void shouldStreamChunksWhenStreamingIsEnabled() throws Exception {
+        IngestionPipeline streaming = pipeline(true);
+        Document document = Document.builder().id(3L).filePath("doc.txt").build();
+        DocumentContentWriter.StreamedText text = mock(DocumentContentWriter.StreamedText.class);
+        when(documentContentWriter.stream()).thenReturn(text);
+        when(streamingChunkIngestor.ingest(eq(document), any(), eq(text))).thenReturn(Set.of("streamed"));
+
+        streaming.process(document);
+
+        verify(documentProcessingService, never()).extractContent(any());
+        verifyNoInteractions(chunkBatchWriter);
+        verify(documentContentWriter).write(3L, text, false);
+        assertEquals(Set.of("streamed"), document.getKeywords());
+    }
+
+    @Test
+    void shouldRemovePartialChunksWhenAStageFails() throws Exception {
+        Document document = Document.builder().id(4L).filePath("doc.txt")
+                .contentHash("abc").processedHash("old").pipelineVersion("0-old").build();
+        when(documentProcessingService.extractContent("doc.txt")).thenThrow(new TikaException("broken"));
+
+        assertThrows(TikaException.class, () -> ingestionPipeline.process(document));
+
+        verify(documentChunkRepository).deleteByDocumentId(4L);
+        verifyNoInteractions(chunkBatchWriter);
+        assertEquals(DocumentStatus.PROCESSING, document.getStatus());
+        assertNull(document.getProcessedHash());
+        assertNull(document.getPipelineVersion());
+        ingestionPipeline.getStages().forEach(stage -> assertEquals(0, stage.getInFlight()));
+    }
+
+    @Test
+    void shouldRecordWhatTheChunksWereProducedFrom() throws Exception {
+        Document document = Document.builder().id(6L).filePath("doc.txt").contentHash("abc").build();
+        when(documentProcessingService.extractContent("doc.txt")).thenReturn("abcdefghij");
+
+        ingestionPipeline.process(document);
+
+        assertEquals("abc", document.getProcessedHash());
+        assertEquals(pipelineVersion.get(), document.getPipelineVersion());
+    }
+
+    @Test
+    void shouldSkipDocumentsUnchangedSinceTheirLastRun() throws Exception {
+        Document document = Document.builder().id(7L).filePath("doc.txt")
+                .contentHash("abc").processedHash("abc").pipelineVersion(pipelineVersion.get())
+                .status(DocumentStatus.PENDING).build();
+
+        ingestionPipeline.process(document);
+
+        verifyNoInteractions(documentProcessingService, documentDeduplicationService, chunkBatchWriter,
+                documentContentWriter, documentChunkRepository, jdbcTemplate);
+        assertEquals(DocumentStatus.COMPLETED, document.getStatus());
+    }
+
+    @Test
+    void shouldRerunWhenThePipelineVersionChanged() throws Exception {
+        Document document = Document.builder().id(8L).filePath("doc.txt")
+                .contentHash("abc").processedHash("abc").pipelineVersion("0-old").build();
+        when(documentProcessingService.extractContent("doc.txt")).thenReturn("abcdefghij");
+
+        ingestionPipeline.process(document);
+
+        verify(documentProcessingService).extractContent("doc.txt");
+        assertEquals(pipelineVersion.get(), document.getPipelineVersion());
+    }
+
+    @Test
+    void rebuildShouldRewriteEverythingAndKeepTheStatus() throws Exception {
+        Document document = Document.builder().id(9L).filePath("doc.txt").status(DocumentStatus.COMPLETED)
+                .contentHash("abc").processedHash("abc").pipelineVersion(pipelineVersion.get()).build();
+        when(documentProcessingService.extractContent("doc.txt")).thenReturn("abcdefghij");
+
+        ingestionPipeline.rebuild(document);
+
+        verify(documentContentWriter).write(9L, "abcdefghij", true);
+        verifyNoInteractions(documentDeduplicationService);
+        assertEquals(DocumentStatus.COMPLETED, document.getStatus());
+    }
+
+    @Test
+    void persistShouldSaveDocuments() throws Exception {
+        Document document = Document.builder().id(5L).build();
+
+        ingestionPipeline.persist(List.of(document));
+
+        verify(documentRepository).saveAll(List.of(document));
+        verify(eventPublisher).publishEvent(DocumentLifecycleEvent.statusChanged(List.of(5L)));
+    }
+
+    private IngestionPipeline pipeline(boolean streaming) {
+        return new IngestionPipeline(documentProcessingService, documentDeduplicationService, streamingChunkIngestor,
+                new FixedSizeChunkingStrategy(4), new ChunkReconciler(jdbcTemplate, chunkBatchWriter),
+                documentChunkRepository, documentRepository, documentContentWriter, pipelineVersion, eventPublisher,
+                streaming, 1, 1, 1, 1, 1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.docmanagement.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkScorerTest {
+
+    private final ChunkScorer chunkScorer = new ChunkScorer(new TextAnalyzer());
+
+    @Test
+    void scoreShouldPickTheSentenceMatchingMostTerms() {
+        ChunkScorer.Query query = chunkScorer.prepare("Which reports cover quarterly revenue?");
+        String content = "Revenue is tracked monthly. Quarterly reports cover revenue by region! Headcount is flat.";
+
+        ChunkScorer.ScoredChunk scored = chunkScorer.score(content, query);
+
+        assertEquals("Quarterly reports cover revenue by region!", scored.getSnippet());
+        assertEquals(1.0, scored.getScore());
+        // quarterly, reports, cover, revenue
+        assertArrayEquals(new int[]{0, 9, 10, 17, 18, 23, 24, 31}, scored.getHighlights());
+    }
+
+    @Test
+    void scoreShouldMatchStemmedForms() {
+        ChunkScorer.Query query = chunkScorer.prepare("processing invoices");
+
+        ChunkScorer.ScoredChunk scored = chunkScorer.score("Each invoice is processed nightly", query);
+
+        assertEquals("Each invoice is processed nightly.", scored.getSnippet());
+        assertEquals(1.0, scored.getScore());
+        assertArrayEquals(new int[]{5, 12, 16, 25}, scored.getHighlights());
+    }
+
+    @Test
+    void scoreShouldFallBackToTheStartOfTheChunk() {
+        ChunkScorer.Query query = chunkScorer.prepare("kubernetes");
+        String content = "x".repeat(300);
+
+        ChunkScorer.ScoredChunk scored = chunkScorer.score(content, query);
+
+        assertEquals("x".repeat(200) + "...", scored.getSnippet());
+        assertEquals(0.0, scored.getScore());
+        assertEquals(0, scored.getHighlights().length);
+    }
+
+    @Test
+    void scoreShouldCountPartialMatches() {
+        ChunkScorer.Query query = chunkScorer.prepare("capital of France and Germany");
+
+        ChunkScorer.ScoredChunk scored = chunkScorer.score("Paris is the capital of France.", query);
+
+        assertEquals(2.0 / 3, scored.getScore(), 1e-9);
+    }
+
+    @Test
+    void scoreFromReaderShouldMatchScoreFromString() throws IOException {
+        ChunkScorer.Query query = chunkScorer.prepare("Which reports cover quarterly revenue?");
+        String[] contents = {
+                "Revenue is tracked monthly. Quarterly reports cover revenue by region! Headcount is flat.",
+                "  Leading space. Revenue   reports are quarterly  ",
+                "x".repeat(300),
+                ""
+        };
+
+        for (String content : contents) {
+            ChunkScorer.ScoredChunk expected = chunkScorer.score(content, query);
+            ChunkScorer.ScoredChunk streamed = chunkScorer.score(new StringReader(content), query);
+
+            assertEquals(expected.getSnippet(), streamed.getSnippet());
+            assertEquals(expected.getScore(), streamed.getScore());
+            assertArrayEquals(expected.getHighlights(), streamed.getHighlights());
+        }
+    }
+
+    @Test
+    void scoreFromReaderShouldCutRunawaySentences() throws IOException {
+        ChunkScorer.Query query = chunkScorer.prepare("revenue");
+        String content = "word ".repeat(2000) + "revenue " + "word ".repeat(2000);
+
+        ChunkScorer.ScoredChunk scored = chunkScorer.score(new StringReader(content), query);
+
+        assertEquals(1.0, scored.getScore());
+        assertTrue(scored.getSnippet().length() < 4200);
+        assertTrue(scored.getSnippet().contains("revenue"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.docmanagement.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final TextAnalyzer textAnalyzer = new TextAnalyzer();
+
+    @Test
+    void searchShouldRankChunksByBm25() {
+        InvertedIndex index = new InvertedIndex(textAnalyzer);
+        index.replaceDocument(document(1L, "Geography",
+                "Paris is the capital of France.", "France borders Spain and Italy."));
+        index.replaceDocument(document(2L, "Cooking", "Bread needs flour, water and salt."));
+
+        List<SearchHit> hits = index.search("What is the capital of France?", 5);
+
+        assertEquals(2, hits.size());
+        assertEquals(11L, hits.get(0).getChunkId());
+        assertEquals("Geography", hits.get(0).getDocumentTitle());
+        assertEquals(12L, hits.get(1).getChunkId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void searchShouldReturnOnlyTheTopHits() {
+        InvertedIndex index = new InvertedIndex(textAnalyzer);
+        for (long id = 1; id <= 20; id++) {
+            index.replaceDocument(new SourceDocument(id, "Doc " + id, List.of(
+                    new IndexedChunk(id * 10, "report " + "filler ".repeat((int) id)))));
+        }
+
+        List<SearchHit> hits = index.search("report", 3);
+
+        // Shorter chunks score higher for the same term frequency
+        assertEquals(List.of(1L, 2L, 3L), hits.stream().map(SearchHit::getDocumentId).toList());
+    }
+
+    @Test
+    void replaceAndRemoveShouldDropOldChunks() {
+        InvertedIndex index = new InvertedIndex(textAnalyzer);
+        index.replaceDocument(document(1L, "Old", "Quarterly revenue grew."));
+        index.replaceDocument(document(1L, "New", "Headcount stayed flat."));
+
+        assertTrue(index.search("revenue", 5).isEmpty());
+        assertEquals("New", index.search("headcount", 5).get(0).getDocumentTitle());
+
+        index.removeDocument(1L);
+
+        assertTrue(index.search("headcount", 5).isEmpty());
+        assertEquals(0, index.chunkCount());
+    }
+
+    @Test
+    void replaceWithTheSameChunksShouldNotReanalyze() {
+        AtomicInteger analyzed = new AtomicInteger();
+        InvertedIndex index = new InvertedIndex(new TextAnalyzer() {
+            @Override
+            public List<String> analyze(CharSequence text) {
+                analyzed.incrementAndGet();
+                return super.analyze(text);
+            }
+        });
+        index.replaceDocument(document(1L, "Report", "Quarterly revenue grew.", "Costs fell."));
+        index.replaceDocument(document(1L, "Report", "Quarterly revenue grew.", "Costs fell."));
+
+        assertEquals(2, analyzed.get());
+        assertEquals(2, index.chunkCount());
+
+        index.replaceDocument(new SourceDocument(1L, "Report", List.of(
+                new IndexedChunk(11L, "Quarterly revenue grew."), new IndexedChunk(13L, "Margins improved."))));
+
+        assertEquals(4, analyzed.get());
+        assertTrue(index.search("costs", 5).isEmpty());
+        assertEquals(13L, index.search("margins", 5).get(0).getChunkId());
+    }
+
+    @Test
+    void compactionShouldKeepLiveDocumentsSearchable() {
+        InvertedIndex index = new InvertedIndex(textAnalyzer);
+        for (long id = 1; id <= 3000; id++) {
+            index.replaceDocument(document(id, "Doc " + id, "invoice number " + id));
+        }
+        for (long id = 1; id <= 2000; id++) {
+            index.removeDocument(id);
+        }
+
+        assertEquals(1000, index.chunkCount());
+        List<SearchHit> hits = index.search("invoice 2500", 1);
+        assertEquals(2500L, hits.get(0).getDocumentId());
+    }
+
+    @Test
+    void segmentShouldRoundTrip() throws Exception {
+        InvertedIndex index = new InvertedIndex(textAnalyzer);
+        index.replaceDocument(document(1L, "Geography", "Paris is the capital of France."));
+        index.replaceDocument(document(2L, "Cooking", "Bread needs flour."));
+        index.replaceDocument(document(3L, "Removed", "France again."));
+        index.removeDocument(3L);
+
+        IndexSegmentStore store = new IndexSegmentStore(tempDir);
+        store.write(index, 1234L);
+        Optional<IndexSegmentStore.Segment> segment = store.read(textAnalyzer);
+
+        assertTrue(segment.isPresent());
+        assertEquals(1234L, segment.get().getCheckpointMillis());
+        InvertedIndex loaded = segment.get().getIndex();
+        assertEquals(2, loaded.chunkCount());
+        assertEquals(11L, loaded.search("capital france", 5).get(0).getChunkId());
+        assertEquals(1, loaded.search("france", 5).size());
+        assertEquals("Cooking", loaded.search("flour", 5).get(0).getDocumentTitle());
+    }
+
+    @Test
+    void readShouldIgnoreMissingSegment() throws Exception {
+        assertTrue(new IndexSegmentStore(tempDir).read(textAnalyzer).isEmpty());
+    }
+
+    private SourceDocument document(long id, String title, String... chunks) {
+        List<IndexedChunk> indexed = new ArrayList<>();
+        for (int i = 0; i < chunks.length; i++) {
+            indexed.add(new IndexedChunk(id * 10 + i + 1, chunks[i]));
+        }
+        return new SourceDocument(id, title, indexed);
+    }
+}
@@ -0,0 +1,154 @@
+package com.docmanagement.search;
+
+import com.docmanagement.dto.response.AnswerResponse;
+import com.docmanagement.dto.response.DocumentSnippetResponse;
+import com.docmanagement.event.DocumentLifecycleEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QAAnswerCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final QAAnswerCache answerCache = new QAAnswerCache(
+            new ConcurrentMapCacheManager(QAAnswerCache.CACHE_NAME), new TextAnalyzer(), new ObjectMapper(),
+            mock(ObjectProvider.class), false, 600);
+
+    @Test
+    void keyShouldIgnoreCaseWordOrderPunctuationAndInflection() {
+        assertEquals(answerCache.key("What is the quarterly revenue?"), answerCache.key("revenue, Quarterly"));
+        assertEquals(answerCache.key("processing invoices"), answerCache.key("Invoice processed"));
+        assertNotEquals(answerCache.key("quarterly revenue"), answerCache.key("quarterly headcount"));
+    }
+
+    @Test
+    void getShouldReturnTheAnswerForTheQuestionAsAsked() {
+        answerCache.put(answerCache.key("quarterly revenue"), answer("quarterly revenue", false));
+
+        Optional<AnswerResponse> cached = answerCache.get(answerCache.key("Quarterly revenue?"), "Quarterly revenue?");
+
+        assertTrue(cached.isPresent());
+        assertEquals("Quarterly revenue?", cached.get().getQuestion());
+        assertEquals(7L, cached.get().getRelevantDocuments().get(0).getDocumentId());
+    }
+
+    @Test
+    void invalidateShouldMakeEarlierAnswersUnreachable() {
+        String key = answerCache.key("quarterly revenue");
+        answerCache.put(key, answer("quarterly revenue", false));
+
+        answerCache.invalidate();
+
+        assertTrue(answerCache.get(answerCache.key("quarterly revenue"), "quarterly revenue").isEmpty());
+        // An answer computed under the old generation is not served as current either
+        answerCache.put(key, answer("quarterly revenue", false));
+        assertTrue(answerCache.get(answerCache.key("quarterly revenue"), "quarterly revenue").isEmpty());
+    }
+
+    @Test
+    void putShouldSkipPartialAnswers() {
+        String key = answerCache.key("quarterly revenue");
+
+        answerCache.put(key, answer("quarterly revenue", true));
+
+        assertTrue(answerCache.get(key, "quarterly revenue").isEmpty());
+    }
+
+    @Test
+    void onlyTheOriginatingNodeShouldBumpTheSharedGenerationAndOnlyOnce() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.increment("qa:index-generation")).thenReturn(6L);
+        QAAnswerCache sharedCache = sharedCache(redisTemplate);
+
+        DocumentLifecycleEvent local = DocumentLifecycleEvent.statusChanged(List.of(1L));
+        assertEquals(6L, sharedCache.sharedGeneration(local));
+        assertEquals(6L, sharedCache.sharedGeneration(local));
+        DocumentLifecycleEvent remote = new DocumentLifecycleEvent(DocumentLifecycleEvent.Type.DELETED, List.of(2L),
+                "other-node", 7L);
+        assertEquals(7L, sharedCache.sharedGeneration(remote));
+
+        verify(values, times(1)).increment("qa:index-generation");
+    }
+
+    @Test
+    void answersShouldBeSharedUnderTheGenerationThisNodeHasApplied() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get("qa:index-generation")).thenReturn("5");
+        QAAnswerCache sharedCache = sharedCache(redisTemplate);
+
+        sharedCache.put(sharedCache.key("quarterly revenue"), answer("quarterly revenue", false));
+        verify(values).set(startsWith("qa:answer:5:"), anyString(), any(Duration.class));
+
+        // Another node bumped to 6 for a change this node's index has not applied yet: its answers
+        // stay under 5 until the change's event has been applied here
+        when(values.get("qa:index-generation")).thenReturn("6");
+        sharedCache.put(sharedCache.key("quarterly headcount"), answer("quarterly headcount", false));
+        verify(values, times(2)).set(startsWith("qa:answer:5:"), anyString(), any(Duration.class));
+        verify(values, never()).set(startsWith("qa:answer:6:"), anyString(), any(Duration.class));
+
+        sharedCache.invalidate(6L);
+        sharedCache.put(sharedCache.key("quarterly revenue"), answer("quarterly revenue", false));
+        verify(values).set(startsWith("qa:answer:6:"), anyString(), any(Duration.class));
+        // The generation was read once, at startup
+        verify(values, times(1)).get("qa:index-generation");
+    }
+
+    @Test
+    void nothingShouldBeSharedWhileTheSharedGenerationIsUnknown() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get("qa:index-generation")).thenThrow(new IllegalStateException("redis down"));
+        QAAnswerCache sharedCache = sharedCache(redisTemplate);
+
+        String key = sharedCache.key("quarterly revenue");
+        sharedCache.put(key, answer("quarterly revenue", false));
+
+        assertTrue(sharedCache.get(key, "quarterly revenue").isPresent());
+        verify(values, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private QAAnswerCache sharedCache(StringRedisTemplate redisTemplate) {
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(redisTemplate);
+        return new QAAnswerCache(new ConcurrentMapCacheManager(QAAnswerCache.CACHE_NAME), new TextAnalyzer(),
+                new ObjectMapper(), provider, true, 600);
+    }
+
+    private AnswerResponse answer(String question, boolean partial) {
+        return AnswerResponse.builder()
+                .question(question)
+                .relevantDocuments(List.of(DocumentSnippetResponse.builder()
+                        .documentId(7L)
+                        .documentTitle("Finance")
+                        .snippet("Quarterly revenue grew.")
+                        .relevanceScore(1.0)
+                        .build()))
+                .partial(partial)
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.docmanagement.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QAQueryExecutorTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final QAQueryExecutor qaQueryExecutor =
+            new QAQueryExecutor(executor, TransactionOperations.withoutTransaction());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void executeShouldRunSourcesConcurrently() {
+        // Each source waits for the other, so they only finish if they run at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        QueryResults<String> results = qaQueryExecutor.execute(List.of(
+                source("chunks", 2000, () -> awaitOther(bothStarted, "chunk")),
+                source("documents", 2000, () -> awaitOther(bothStarted, "document"))));
+
+        assertTrue(results.isComplete());
+        assertEquals(List.of("chunk"), results.get(0));
+        assertEquals(List.of("document"), results.get(1));
+    }
+
+    @Test
+    void executeShouldReturnWhatIsReadyWhenADeadlinePasses() {
+        CountDownLatch never = new CountDownLatch(1);
+        long started = System.nanoTime();
+
+        QueryResults<String> results = qaQueryExecutor.execute(List.of(
+                source("chunks", 2000, () -> List.of("chunk")),
+                source("documents", 100, () -> {
+                    await(never, 5000);
+                    return List.of("document");
+                })));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 2000);
+        assertFalse(results.isComplete());
+        assertEquals(List.of("chunk"), results.get(0));
+        assertTrue(results.get(1).isEmpty());
+    }
+
+    @Test
+    void executeShouldUseTheFallbackWhenTheQueryFails() {
+        QueryResults<String> results = qaQueryExecutor.execute(List.of(
+                new QuerySource<String>("chunks", Duration.ofSeconds(2),
+                        () -> {
+                            throw new IllegalStateException("full-text search failed");
+                        },
+                        () -> List.of("fallback"))));
+
+        assertTrue(results.isComplete());
+        assertEquals(List.of("fallback"), results.get(0));
+    }
+
+    @Test
+    void executeShouldTreatAFailedSourceAsEmpty() {
+        QueryResults<String> results = qaQueryExecutor.execute(List.of(
+                source("chunks", 2000, () -> {
+                    throw new IllegalStateException("database down");
+                }),
+                source("documents", 2000, () -> List.of("document"))));
+
+        assertFalse(results.isComplete());
+        assertTrue(results.get(0).isEmpty());
+        assertEquals(List.of("document"), results.get(1));
+    }
+
+    @Test
+    void executeShouldTreatASourceRejectedBySaturatedExecutorAsEmpty() {
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            QAQueryExecutor executor = new QAQueryExecutor(saturated, TransactionOperations.withoutTransaction());
+            long started = System.nanoTime();
+
+            QueryResults<String> results = executor.execute(List.of(
+                    source("chunks", 300, () -> {
+                        await(release, 5000);
+                        return List.of("chunk");
+                    }),
+                    source("documents", 2000, () -> List.of("document"))));
+
+            // Bounded by the first deadline, not by the rejected source running on this thread
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 2000);
+            assertFalse(results.isComplete());
+            assertTrue(results.get(0).isEmpty());
+            assertTrue(results.get(1).isEmpty());
+        } finally {
+            release.countDown();
+            saturated.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeEachShouldHandOverResultsInCompletionOrder() {
+        CountDownLatch lateReported = new CountDownLatch(1);
+        List<QuerySource<String>> sources = List.of(
+                source("slow", 2000, () -> {
+                    await(lateReported, 1000);
+                    return List.of("slow");
+                }),
+                source("fast", 2000, () -> List.of("fast")),
+                source("late", 100, () -> {
+                    await(new CountDownLatch(1), 5000);
+                    return List.of("late");
+                }));
+        List<String> seen = new ArrayList<>();
+
+        qaQueryExecutor.executeEach(sources, (source, result) -> {
+            seen.add(source.getName() + "=" + result);
+            if (source.getName().equals("late")) {
+                lateReported.countDown();
+            }
+        });
+
+        assertEquals(List.of("fast=[fast]", "late=null", "slow=[slow]"), seen);
+    }
+
+    private static QuerySource<String> source(String name, long deadlineMillis, Supplier<List<String>> query) {
+        return new QuerySource<>(name, Duration.ofMillis(deadlineMillis), query, null);
+    }
+
+    private static List<String> awaitOther(CountDownLatch latch, String result) {
+        latch.countDown();
+        await(latch, 1000);
+        return latch.getCount() == 0 ? List.of(result) : List.of();
+    }
+
+    private static void await(CountDownLatch latch, long millis) {
+        try {
+            latch.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
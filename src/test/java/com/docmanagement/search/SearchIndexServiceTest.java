@@ -0,0 +1,111 @@
+package com.docmanagement.search;
+
+import com.docmanagement.event.DocumentLifecycleEvent;
+import com.docmanagement.repository.SearchIndexSourceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchIndexServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SearchIndexSourceRepository sourceRepository = mock(SearchIndexSourceRepository.class);
+    private final QAAnswerCache answerCache = mock(QAAnswerCache.class);
+
+    @Test
+    void reconcileShouldApplyChangesWhoseEventNeverArrived() {
+        SearchIndexService service = service();
+        when(sourceRepository.findCompletedDocumentIds()).thenReturn(Set.of(1L));
+        when(sourceRepository.findDocuments(List.of(1L))).thenReturn(List.of(document(1L, "quarterly revenue")));
+        service.loadAndCatchUp();
+        assertEquals(1, service.search("revenue", 10).size());
+
+        // Document 1 was deleted and 2 completed on another node whose broadcast failed
+        when(sourceRepository.findCompletedDocumentIds()).thenReturn(Set.of(2L));
+        when(sourceRepository.findDocuments(List.of(2L))).thenReturn(List.of(document(2L, "annual headcount")));
+        service.scheduleReconcile();
+
+        assertTrue(service.search("revenue", 10).isEmpty());
+        assertEquals(2L, service.search("headcount", 10).get(0).getDocumentId());
+        verify(answerCache).invalidate();
+    }
+
+    @Test
+    void reconcileShouldLeaveTheAnswerCacheAloneWhenNothingWasMissed() {
+        SearchIndexService service = service();
+        when(sourceRepository.findCompletedDocumentIds()).thenReturn(Set.of(1L));
+        when(sourceRepository.findDocuments(List.of(1L))).thenReturn(List.of(document(1L, "quarterly revenue")));
+        service.loadAndCatchUp();
+
+        service.scheduleReconcile();
+
+        verify(answerCache, never()).invalidate();
+    }
+
+    @Test
+    void anEventsSharedGenerationShouldCountAsAppliedOnceTheIndexHasIt() {
+        SearchIndexService service = service();
+        when(sourceRepository.findCompletedDocumentIds()).thenReturn(Set.of());
+        service.loadAndCatchUp();
+        DocumentLifecycleEvent event = new DocumentLifecycleEvent(DocumentLifecycleEvent.Type.STATUS_CHANGED,
+                List.of(3L), "other-node", 8L);
+        when(answerCache.sharedGeneration(event)).thenReturn(8L);
+        when(sourceRepository.findDocuments(List.of(3L))).thenReturn(List.of(document(3L, "annual headcount")));
+
+        service.onDocumentLifecycle(event);
+
+        assertEquals(3L, service.search("headcount", 10).get(0).getDocumentId());
+        verify(answerCache).invalidate(8L);
+    }
+
+    @Test
+    void searchShouldReadTheTextOfTheHitsAndSkipChunksThatAreGone() {
+        SearchIndexService service = service();
+        when(sourceRepository.findCompletedDocumentIds()).thenReturn(Set.of(1L, 2L));
+        when(sourceRepository.findDocuments(any())).thenReturn(List.of(
+                document(1L, "quarterly revenue"), document(2L, "annual revenue")));
+        service.loadAndCatchUp();
+        doReturn(Map.of(10L, "Quarterly revenue grew.")).when(sourceRepository).findChunkContents(any());
+
+        List<SearchHit> hits = service.search("revenue", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("Quarterly revenue grew.", hits.get(0).getText());
+        verify(sourceRepository).findChunkContents(argThat(ids -> Set.copyOf(ids).equals(Set.of(10L, 20L))));
+    }
+
+    private SearchIndexService service() {
+        when(sourceRepository.findCompletedIdsUpdatedSince(anyLong(), any(), anyInt())).thenReturn(List.of());
+        when(sourceRepository.findChunkContents(any())).thenAnswer(invocation -> {
+            Map<Long, String> contents = new HashMap<>();
+            invocation.<Collection<Long>>getArgument(0).forEach(id -> contents.put(id, "chunk " + id));
+            return contents;
+        });
+        return new SearchIndexService(sourceRepository, new TextAnalyzer(), answerCache, Runnable::run,
+                true, tempDir.toString(), 60);
+    }
+
+    private SourceDocument document(long id, String text) {
+        return new SourceDocument(id, "Document " + id, List.of(new IndexedChunk(id * 10, text)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.docmanagement.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextAnalyzerTest {
+
+    private final TextAnalyzer textAnalyzer = new TextAnalyzer();
+
+    @Test
+    void analyzeShouldLowercaseSplitAndDropStopWords() {
+        assertEquals(List.of("capital", "france"), textAnalyzer.analyze("What is the Capital of FRANCE?"));
+    }
+
+    @Test
+    void analyzeShouldStemPluralsAndVerbForms() {
+        assertEquals(List.of("process", "process", "process", "document", "query"),
+                textAnalyzer.analyze("processing processed processes documents queries"));
+    }
+
+    @Test
+    void analyzeShouldKeepWordsThatOnlyLookInflected() {
+        assertEquals(List.of("paris", "status", "class", "speed"), textAnalyzer.analyze("Paris status class speed"));
+    }
+
+    @Test
+    void analyzeShouldHandleEmptyInput() {
+        assertTrue(textAnalyzer.analyze("").isEmpty());
+        assertTrue(textAnalyzer.analyze(null).isEmpty());
+    }
+}
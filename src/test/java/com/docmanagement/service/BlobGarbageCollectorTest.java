@@ -0,0 +1,70 @@
+package com.docmanagement.service;
+
+import com.docmanagement.model.DocumentBlob;
+import com.docmanagement.repository.DocumentBlobRepository;
+import com.docmanagement.storage.ShardedStorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BlobGarbageCollectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DocumentBlobRepository documentBlobRepository;
+    private BlobGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        documentBlobRepository = mock(DocumentBlobRepository.class);
+        collector = new BlobGarbageCollector(documentBlobRepository, new ShardedStorageBackend(tempDir.toString()),
+                TransactionOperations.withoutTransaction(), 60, 200);
+    }
+
+    @Test
+    void sweepShouldDeleteBlobsUnreferencedPastTheGracePeriod() throws IOException {
+        Path blobPath = Files.writeString(tempDir.resolve("abc"), "content");
+        DocumentBlob blob = blob(blobPath, 0, LocalDateTime.now().minusHours(2));
+        when(documentBlobRepository.findReleasedBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of("abc"));
+        when(documentBlobRepository.findByHashForUpdate("abc")).thenReturn(Optional.of(blob));
+
+        assertEquals(1, collector.sweep());
+
+        assertFalse(Files.exists(blobPath));
+        verify(documentBlobRepository).delete(blob);
+    }
+
+    @Test
+    void sweepShouldKeepABlobAnUploadTookBackBeforeTheLock() throws IOException {
+        Path blobPath = Files.writeString(tempDir.resolve("abc"), "content");
+        when(documentBlobRepository.findReleasedBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of("abc"));
+        // Listed as released, but by the time its row is locked a new document references it
+        when(documentBlobRepository.findByHashForUpdate("abc")).thenReturn(Optional.of(blob(blobPath, 1, null)));
+
+        assertEquals(0, collector.sweep());
+
+        assertTrue(Files.exists(blobPath));
+        verify(documentBlobRepository, never()).delete(any());
+    }
+
+    private static DocumentBlob blob(Path path, int refCount, LocalDateTime releasedAt) {
+        return DocumentBlob.builder().hash("abc").path(path.toString()).size(7L)
+                .refCount(refCount).releasedAt(releasedAt).build();
+    }
+}
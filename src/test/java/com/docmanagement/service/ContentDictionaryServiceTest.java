@@ -0,0 +1,58 @@
+package com.docmanagement.service;
+
+import com.docmanagement.repository.ContentDictionaryRepository;
+import com.docmanagement.storage.ContentCodec;
+import com.docmanagement.storage.ContentDictionaryTrainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContentDictionaryServiceTest {
+
+    @Mock
+    private ContentDictionaryRepository contentDictionaryRepository;
+
+    @Mock
+    private ContentCodec contentCodec;
+
+    @InjectMocks
+    private ContentDictionaryService contentDictionaryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(contentDictionaryService, "dictionarySize", 32768);
+        ReflectionTestUtils.setField(contentDictionaryService, "maxTrainingSamples", 100);
+    }
+
+    @Test
+    void trainShouldCapTheSamplesAndReadOnlyThePrefixOfEach() {
+        byte[] compressed = {1, 2, 3};
+        doAnswer(invocation -> {
+            BiConsumer<String, byte[]> consumer = invocation.getArgument(2);
+            consumer.accept("the supplier shall deliver the goods", null);
+            consumer.accept(null, compressed);
+            return null;
+        }).when(contentDictionaryRepository).forEachRecentContent(anyInt(), anyInt(), any());
+        when(contentCodec.decompress(compressed, ContentDictionaryTrainer.SAMPLE_PREFIX))
+                .thenReturn("the supplier shall deliver the invoice");
+
+        assertEquals(2, contentDictionaryService.train(1_000_000).getSamples());
+
+        verify(contentDictionaryRepository).forEachRecentContent(eq(100), eq(ContentDictionaryTrainer.SAMPLE_PREFIX), any());
+    }
+}
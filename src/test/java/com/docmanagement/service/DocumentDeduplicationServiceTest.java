@@ -0,0 +1,76 @@
+package com.docmanagement.service;
+
+import com.docmanagement.model.Document;
+import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.repository.DocumentChunkRepository;
+import com.docmanagement.repository.DocumentContentRepository;
+import com.docmanagement.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DocumentDeduplicationServiceTest {
+
+    private DocumentRepository documentRepository;
+    private DocumentChunkRepository documentChunkRepository;
+    private DocumentContentRepository documentContentRepository;
+    private DocumentDeduplicationService documentDeduplicationService;
+
+    @BeforeEach
+    void setUp() {
+        documentRepository = mock(DocumentRepository.class);
+        documentChunkRepository = mock(DocumentChunkRepository.class);
+        documentContentRepository = mock(DocumentContentRepository.class);
+        documentDeduplicationService = new DocumentDeduplicationService(documentRepository, documentChunkRepository,
+                documentContentRepository);
+    }
+
+    @Test
+    void reuseProcessedContent_shouldCopyContentKeywordsAndChunks() {
+        Document source = Document.builder()
+                .id(1L)
+                .contentHash("abc")
+                .keywords(Set.of("shared", "content"))
+                .status(DocumentStatus.COMPLETED)
+                .build();
+        Document document = Document.builder()
+                .id(2L)
+                .contentHash("abc")
+                .build();
+        when(documentRepository.findFirstByContentHashAndStatusAndPipelineVersionAndIdNot("abc", DocumentStatus.COMPLETED, "v1", 2L))
+                .thenReturn(Optional.of(source));
+
+        assertTrue(documentDeduplicationService.reuseProcessedContent(document, "v1"));
+
+        assertEquals(Set.of("shared", "content"), document.getKeywords());
+
+        verify(documentContentRepository).copyContent(1L, 2L);
+        InOrder chunks = inOrder(documentChunkRepository);
+        chunks.verify(documentChunkRepository).deleteByDocumentId(2L);
+        chunks.verify(documentChunkRepository).copyChunks(1L, 2L);
+    }
+
+    @Test
+    void reuseProcessedContent_shouldReturnFalseWhenBytesAreNew() {
+        Document document = Document.builder().id(2L).contentHash("new").build();
+        when(documentRepository.findFirstByContentHashAndStatusAndPipelineVersionAndIdNot("new", DocumentStatus.COMPLETED, "v1", 2L))
+                .thenReturn(Optional.empty());
+
+        assertFalse(documentDeduplicationService.reuseProcessedContent(document, "v1"));
+        verify(documentChunkRepository, never()).copyChunks(any(), any());
+        verifyNoInteractions(documentContentRepository);
+    }
+
+    @Test
+    void reuseProcessedContent_shouldSkipDocumentsWithoutHash() {
+        assertFalse(documentDeduplicationService.reuseProcessedContent(Document.builder().id(3L).build(), "v1"));
+        verifyNoInteractions(documentRepository);
+    }
+}
@@ -4,25 +4,37 @@ import org.apache.tika.exception.TikaException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class DocumentProcessingServiceTest {
 
     private DocumentProcessingService documentProcessingService;
+    private ThreadPoolTaskExecutor extractionExecutor;
     private File tempFile;
 
     @BeforeEach
     void setUp() {
-        documentProcessingService = new DocumentProcessingService();
+        extractionExecutor = new ThreadPoolTaskExecutor();
+        extractionExecutor.setCorePoolSize(1);
+        extractionExecutor.setMaxPoolSize(1);
+        extractionExecutor.setQueueCapacity(1);
+        extractionExecutor.initialize();
+        documentProcessingService = new DocumentProcessingService(extractionExecutor, 1, 1000);
     }
 
     @AfterEach
     void cleanUp() {
+        extractionExecutor.shutdown();
         if (tempFile != null && tempFile.exists()) {
             tempFile.delete();
         }
@@ -72,4 +84,105 @@ class DocumentProcessingServiceTest {
             documentProcessingService.extractContent(invalidFilePath);
         });
     }
+
+    @Test
+    void testExtractContent_shouldCapExtractedCharacters() throws IOException, TikaException {
+        tempFile = File.createTempFile("test-doc", ".txt");
+        Files.writeString(tempFile.toPath(), "This document is much longer than the configured character limit.");
+        DocumentProcessingService cappedService = new DocumentProcessingService(extractionExecutor, 1, 20);
+
+        String extractedContent = cappedService.extractContent(tempFile.getAbsolutePath());
+
+        assertTrue(extractedContent.length() <= 20);
+    }
+
+    @Test
+    void testExtractContent_whenEveryPermitIsHeld_shouldFailInsteadOfBlocking() throws Exception {
+        CountDownLatch parsing = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        DocumentProcessingService hanging = hangingService(parsing, unblock);
+        Thread first = new Thread(() -> assertThrows(TikaException.class, () -> hanging.extractContent("first")));
+        first.start();
+        parsing.await();
+
+        try {
+            // The only permit is held by a parse that ignores interrupts
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThrows(TikaException.class, () -> hanging.extractContent("second")));
+        } finally {
+            unblock.countDown();
+            first.join();
+        }
+    }
+
+    @Test
+    void testExtractContent_whenParseHangs_shouldTimeOutAndKeepTheWorkerUntilItExits() throws Exception {
+        tempFile = File.createTempFile("test-doc", ".txt");
+        Files.writeString(tempFile.toPath(), "Short text.");
+        CountDownLatch parsing = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        DocumentProcessingService hanging = hangingService(parsing, unblock);
+
+        try {
+            TikaException ex = assertThrows(TikaException.class, () -> hanging.extractContent("stuck"));
+            assertTrue(ex.getMessage().contains("timed out"));
+
+            // The stuck parse still occupies the only worker, so no second thread is started for this one
+            TikaException busy = assertThrows(TikaException.class,
+                    () -> hanging.extractContent(tempFile.getAbsolutePath()));
+            assertTrue(busy.getMessage().contains("No extraction worker free"));
+        } finally {
+            unblock.countDown();
+        }
+
+        assertTrue(hanging.extractContent(tempFile.getAbsolutePath()).contains("Short text"));
+    }
+
+    // One permit; parsing "first", "second" or "stuck" blocks until unblock, ignoring interrupts
+    private DocumentProcessingService hangingService(CountDownLatch parsing, CountDownLatch unblock) {
+        return new DocumentProcessingService(extractionExecutor, 1, 1000) {
+            @Override
+            String parse(String filePath) throws IOException, TikaException {
+                if (!Set.of("first", "second", "stuck").contains(filePath)) {
+                    return super.parse(filePath);
+                }
+                parsing.countDown();
+                boolean interrupted = false;
+                while (unblock.getCount() > 0) {
+                    try {
+                        unblock.await();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return "";
+            }
+        };
+    }
+
+    @Test
+    void testStreamChunks_shouldDeliverTextInChunksOnCallingThread() throws IOException, TikaException {
+        tempFile = File.createTempFile("test-doc", ".txt");
+        Files.writeString(tempFile.toPath(), "0123456789".repeat(25));
+        Thread caller = Thread.currentThread();
+        List<String> chunks = new ArrayList<>();
+
+        documentProcessingService.streamChunks(tempFile.getAbsolutePath(), 100, chunk -> {
+            assertSame(caller, Thread.currentThread());
+            chunks.add(chunk);
+        });
+
+        assertTrue(chunks.size() >= 3);
+        assertEquals(100, chunks.get(0).length());
+        assertTrue(String.join("", chunks).contains("0123456789".repeat(25)));
+    }
+
+    @Test
+    void testStreamChunks_withInvalidFile_shouldThrowIOException() {
+        assertThrows(IOException.class, () ->
+                documentProcessingService.streamChunks("non_existing_file_123.txt", 100, chunk -> { }));
+    }
 }
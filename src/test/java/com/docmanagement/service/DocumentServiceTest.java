@@ -3,26 +3,44 @@ package com.docmanagement.service;
 import com.docmanagement.config.RabbitMQConfig;
 import com.docmanagement.dto.request.DocumentFilterRequest;
 import com.docmanagement.dto.request.DocumentUploadRequest;
+import com.docmanagement.dto.request.TotalCountMode;
 import com.docmanagement.dto.response.DocumentResponse;
+import com.docmanagement.event.DocumentLifecycleEvent;
 import com.docmanagement.model.Document;
 import com.docmanagement.model.DocumentStatus;
 import com.docmanagement.model.User;
+import com.docmanagement.processing.PipelineVersion;
+import com.docmanagement.repository.DocumentChunkRepository;
+import com.docmanagement.repository.DocumentClaimRepository;
+import com.docmanagement.repository.DocumentCursor;
 import com.docmanagement.repository.DocumentRepository;
+import com.docmanagement.repository.DocumentSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -46,6 +64,24 @@ class DocumentServiceTest {
     @Mock
     private Job processDocumentsJob;
 
+    @Mock
+    private JobExplorer jobExplorer;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private DocumentChunkRepository documentChunkRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DocumentClaimRepository documentClaimRepository;
+
+    @Mock
+    private PipelineVersion pipelineVersion;
+
     private User testUser;
 
     @BeforeEach
@@ -85,18 +121,50 @@ class DocumentServiceTest {
                 .build();
 
         when(documentRepository.save(any(Document.class))).thenReturn(document);
+        when(fileStorageService.store(any())).thenAnswer(invocation -> new FileStorageService.StoredFile(
+                Path.of("a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e"),
+                file.getSize(), "a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e", false));
 
         DocumentResponse response = documentService.uploadDocument(file, request);
 
         assertNotNull(response);
         assertEquals("Test Doc", response.getTitle());
         verify(rabbitTemplate).convertAndSend(RabbitMQConfig.DOCUMENT_EXCHANGE, RabbitMQConfig.DOCUMENT_ROUTING_KEY, document.getId());
-        verify(documentRepository).updateContentVector(document.getId());
+        verify(eventPublisher).publishEvent(DocumentLifecycleEvent.uploaded(document.getId()));
 
         // Cleanup temp file
         Files.deleteIfExists(Path.of(document.getFilePath()));
     }
 
+    @Test
+    void uploadDocumentStream_shouldRecordStreamedSizeAndDigest() throws IOException {
+        DocumentUploadRequest request = DocumentUploadRequest.builder()
+                .title("Streamed Doc")
+                .build();
+        ByteArrayInputStream body = new ByteArrayInputStream("Hello World".getBytes());
+
+        when(fileStorageService.store(body)).thenAnswer(invocation -> new FileStorageService.StoredFile(
+                Path.of("document-storage", "a5", "91", "a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e"),
+                11L, "a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e", false));
+        when(documentRepository.save(any(Document.class))).thenAnswer(invocation -> {
+            Document saved = invocation.getArgument(0);
+            saved.setId(101L);
+            return saved;
+        });
+
+        DocumentResponse response = documentService.uploadDocumentStream(body, "report.pdf", null, request);
+
+        ArgumentCaptor<Document> captor = ArgumentCaptor.forClass(Document.class);
+        verify(documentRepository).save(captor.capture());
+        Document saved = captor.getValue();
+        assertEquals(11L, saved.getFileSize());
+        assertEquals("a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e", saved.getContentHash());
+        assertEquals("application/pdf", saved.getFileType());
+        assertTrue(saved.getFilePath().endsWith("a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e"));
+        assertEquals(11L, response.getFileSize());
+        verify(rabbitTemplate).convertAndSend(RabbitMQConfig.DOCUMENT_EXCHANGE, RabbitMQConfig.DOCUMENT_ROUTING_KEY, 101L);
+    }
+
     @Test
     void getDocumentById_shouldReturnResponse() {
         Document doc = Document.builder()
@@ -135,24 +203,78 @@ class DocumentServiceTest {
         request.setPage(0);
         request.setSize(10);
 
-        Document doc = Document.builder()
-                .id(1L)
-                .title("Java Basics")
-                .uploadedBy(testUser)
-                .filePath("test.txt")
-                .fileType("text/plain")
-                .fileSize(100L)
-                .status(DocumentStatus.PENDING)
-                .build();
+        DocumentSummary doc = new DocumentSummary(1L, "Java Basics", "test.txt", "text/plain", 100L, null,
+                DocumentStatus.PENDING, null, null, testUser.getId(), testUser.getUsername(), null, null);
 
-        Page<Document> docPage = new PageImpl<>(Collections.singletonList(doc));
-        when(documentRepository.findByKeyword(eq("java"), any(Pageable.class))).thenReturn(docPage);
+        Page<DocumentSummary> docPage = new PageImpl<>(Collections.singletonList(doc));
+        when(documentRepository.findByFilters(eq(request), any(Pageable.class))).thenReturn(docPage);
+        when(documentRepository.findKeywordsByDocumentIds(List.of(1L))).thenReturn(Map.of(1L, Set.of("java")));
 
         var paged = documentService.getDocuments(request);
 
         assertNotNull(paged);
         assertEquals(1, paged.getContent().size());
         assertEquals("Java Basics", paged.getContent().get(0).getTitle());
+        assertEquals(Set.of("java"), paged.getContent().get(0).getKeywords());
+        assertEquals(testUser.getUsername(), paged.getContent().get(0).getUploadedBy().getUsername());
+        verify(documentRepository).findKeywordsByDocumentIds(List.of(1L));
+        verify(documentRepository, never()).findByKeyword(any(), any());
+    }
+
+    @Test
+    void getDocumentsByCursor_shouldReturnNextCursorWhenMoreRowsExist() {
+        DocumentFilterRequest request = new DocumentFilterRequest();
+        request.setSize(2);
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123456000);
+        when(documentRepository.findByFiltersAfter(request, null, 3)).thenReturn(List.of(
+                listed(9L, now), listed(8L, now), listed(7L, now.minusSeconds(1))));
+
+        var page = documentService.getDocumentsByCursor(request, null, TotalCountMode.NONE);
+
+        assertEquals(List.of(9L, 8L), page.getContent().stream().map(DocumentResponse::getId).toList());
+        assertFalse(page.isLast());
+        assertNull(page.getTotalElements());
+        DocumentCursor next = DocumentCursor.decode(page.getNextCursor());
+        assertEquals(now, next.getCreatedAt());
+        assertEquals(8L, next.getId());
+        verify(documentRepository, never()).countByFilters(any());
+    }
+
+    @Test
+    void getDocumentsByCursor_shouldContinueAfterTheCursorAndCountOnRequest() {
+        DocumentFilterRequest request = new DocumentFilterRequest();
+        request.setSize(2);
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        String cursor = new DocumentCursor(now, 8L).encode();
+        when(documentRepository.findByFiltersAfter(eq(request), argThat(c -> c.getId() == 8L && c.getCreatedAt().equals(now)), eq(3)))
+                .thenReturn(List.of(listed(7L, now.minusSeconds(1))));
+        when(documentRepository.countByFilters(request)).thenReturn(3L);
+        when(documentRepository.estimateCountByFilters(request)).thenReturn(2900L);
+
+        var exact = documentService.getDocumentsByCursor(request, cursor, TotalCountMode.EXACT);
+        var estimated = documentService.getDocumentsByCursor(request, cursor, TotalCountMode.ESTIMATE);
+
+        assertEquals(1, exact.getContent().size());
+        assertTrue(exact.isLast());
+        assertNull(exact.getNextCursor());
+        assertEquals(3L, exact.getTotalElements());
+        assertTrue(exact.isTotalExact());
+        assertEquals(2900L, estimated.getTotalElements());
+        assertFalse(estimated.isTotalExact());
+    }
+
+    @Test
+    void getDocumentsByCursor_shouldRejectMalformedCursor() {
+        DocumentFilterRequest request = new DocumentFilterRequest();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> documentService.getDocumentsByCursor(request, "not-a-cursor", TotalCountMode.NONE));
+        verify(documentRepository, never()).findByFiltersAfter(any(), any(), anyInt());
+    }
+
+    private DocumentSummary listed(Long id, LocalDateTime createdAt) {
+        return new DocumentSummary(id, "Doc " + id, null, null, null, null, DocumentStatus.COMPLETED,
+                createdAt, createdAt, testUser.getId(), testUser.getUsername(), null, null);
     }
 
     @Test
@@ -171,10 +293,61 @@ class DocumentServiceTest {
         assertFalse(Files.exists(Path.of("delete-test.txt")));
     }
 
+    @Test
+    void deleteDocument_shouldReleaseSharedBlob() {
+        Document doc = Document.builder()
+                .id(2L)
+                .filePath("document-storage/abc123")
+                .contentHash("abc123")
+                .build();
+
+        when(documentRepository.findById(2L)).thenReturn(Optional.of(doc));
+
+        documentService.deleteDocument(2L);
+
+        verify(fileStorageService).release("abc123");
+        verify(documentChunkRepository).deleteByDocumentId(2L);
+        verify(documentRepository).delete(doc);
+        verify(eventPublisher).publishEvent(DocumentLifecycleEvent.deleted(2L));
+    }
+
     @Test
     void processDocumentsBatch_shouldRunJob() throws Exception {
         documentService.processDocumentsBatch();
 
         verify(jobLauncher).run(eq(processDocumentsJob), any());
     }
+
+    @Test
+    void requeueStaleDocuments_shouldRequeueForTheCurrentPipelineVersion() {
+        when(pipelineVersion.get()).thenReturn("2-abc");
+        when(documentClaimRepository.requeueStale("2-abc")).thenReturn(List.of(3L, 5L, 8L, 13L));
+
+        assertEquals(4, documentService.requeueStaleDocuments());
+        verify(eventPublisher).publishEvent(DocumentLifecycleEvent.statusChanged(List.of(3L, 5L, 8L, 13L)));
+    }
+
+    @Test
+    void requeueStaleDocuments_shouldStayQuietWhenNothingIsStale() {
+        when(pipelineVersion.get()).thenReturn("2-abc");
+        when(documentClaimRepository.requeueStale("2-abc")).thenReturn(List.of());
+
+        assertEquals(0, documentService.requeueStaleDocuments());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void processDocumentsBatch_shouldRestartFailedRun() throws Exception {
+        JobParameters previous = new JobParametersBuilder().addLong("time", 42L).toJobParameters();
+        JobInstance instance = new JobInstance(7L, "processDocumentsJob");
+        JobExecution execution = new JobExecution(instance, previous);
+        execution.setStatus(BatchStatus.FAILED);
+        when(processDocumentsJob.getName()).thenReturn("processDocumentsJob");
+        when(jobExplorer.getLastJobInstance("processDocumentsJob")).thenReturn(instance);
+        when(jobExplorer.getLastJobExecution(instance)).thenReturn(execution);
+
+        documentService.processDocumentsBatch();
+
+        verify(jobLauncher).run(processDocumentsJob, previous);
+    }
 }
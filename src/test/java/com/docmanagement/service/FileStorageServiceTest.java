@@ -0,0 +1,186 @@
+package com.docmanagement.service;
+
+import com.docmanagement.model.DocumentBlob;
+import com.docmanagement.repository.DocumentBlobRepository;
+import com.docmanagement.storage.ShardedStorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class FileStorageServiceTest {
+
+    private static final String HELLO_WORLD_SHA256 = "a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e";
+
+    @TempDir
+    Path tempDir;
+
+    private DocumentBlobRepository documentBlobRepository;
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        documentBlobRepository = mock(DocumentBlobRepository.class);
+        fileStorageService = new FileStorageService(documentBlobRepository, new ShardedStorageBackend(tempDir.toString()));
+        ReflectionTestUtils.setField(fileStorageService, "maxUploadSize", 1024L * 1024L);
+    }
+
+    @Test
+    void write_shouldWriteFileAndComputeSizeAndDigest() throws IOException {
+        byte[] content = "Hello World".getBytes(StandardCharsets.UTF_8);
+        Path target = tempDir.resolve("hello.txt");
+
+        FileStorageService.StoredFile storedFile = fileStorageService.write(new ByteArrayInputStream(content), target);
+
+        assertEquals(target, storedFile.getPath());
+        assertEquals(content.length, storedFile.getSize());
+        assertEquals(HELLO_WORLD_SHA256, storedFile.getSha256());
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    void write_shouldHandleInputsLargerThanTheBuffer() throws IOException {
+        byte[] content = new byte[200 * 1024 + 7];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path target = tempDir.resolve("large.bin");
+
+        FileStorageService.StoredFile storedFile = fileStorageService.write(new ByteArrayInputStream(content), target);
+
+        assertEquals(content.length, storedFile.getSize());
+        assertEquals(content.length, Files.size(target));
+    }
+
+    @Test
+    void write_shouldRejectOversizedUploadAndRemovePartialFile() {
+        ReflectionTestUtils.setField(fileStorageService, "maxUploadSize", 10L);
+        Path target = tempDir.resolve("too-big.txt");
+
+        assertThrows(MaxUploadSizeExceededException.class, () ->
+                fileStorageService.write(new ByteArrayInputStream("Hello World".getBytes()), target));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void store_shouldCreateBlobNamedByHash() throws IOException {
+        when(documentBlobRepository.findByHashForUpdate(HELLO_WORLD_SHA256)).thenReturn(Optional.empty());
+
+        FileStorageService.StoredFile storedFile = fileStorageService.store(
+                new ByteArrayInputStream("Hello World".getBytes()));
+
+        assertEquals(tempDir.resolve("a5").resolve("91").resolve(HELLO_WORLD_SHA256), storedFile.getPath());
+        assertFalse(storedFile.isDeduplicated());
+        assertTrue(Files.exists(storedFile.getPath()));
+
+        verify(documentBlobRepository).addReference(HELLO_WORLD_SHA256, storedFile.getPath().toString(), 11L);
+        verify(documentBlobRepository, never()).save(any());
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    void store_shouldRestoreAMissingBlobFileOnTheLockedRow() throws IOException {
+        DocumentBlob blob = DocumentBlob.builder()
+                .hash(HELLO_WORLD_SHA256)
+                .path(tempDir.resolve("gone").toString())
+                .size(11L)
+                .refCount(1)
+                .build();
+        when(documentBlobRepository.findByHashForUpdate(HELLO_WORLD_SHA256)).thenReturn(Optional.of(blob));
+
+        FileStorageService.StoredFile storedFile = fileStorageService.store(
+                new ByteArrayInputStream("Hello World".getBytes()));
+
+        ArgumentCaptor<DocumentBlob> captor = ArgumentCaptor.forClass(DocumentBlob.class);
+        verify(documentBlobRepository).save(captor.capture());
+        assertEquals(2, captor.getValue().getRefCount());
+        assertEquals(storedFile.getPath().toString(), captor.getValue().getPath());
+        verify(documentBlobRepository, never()).addReference(any(), any(), anyLong());
+    }
+
+    @Test
+    void store_shouldReuseExistingBlobAndTakeReference() throws IOException {
+        Path blobPath = Files.writeString(tempDir.resolve(HELLO_WORLD_SHA256), "Hello World");
+        DocumentBlob blob = DocumentBlob.builder()
+                .hash(HELLO_WORLD_SHA256)
+                .path(blobPath.toString())
+                .size(11L)
+                .refCount(1)
+                .build();
+        when(documentBlobRepository.findByHashForUpdate(HELLO_WORLD_SHA256)).thenReturn(Optional.of(blob));
+
+        FileStorageService.StoredFile storedFile = fileStorageService.store(
+                new ByteArrayInputStream("Hello World".getBytes()));
+
+        assertTrue(storedFile.isDeduplicated());
+        assertEquals(blobPath, storedFile.getPath());
+        assertEquals(2, blob.getRefCount());
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    void release_shouldOnlyMarkTheBlobReleasedWhenTheLastReferenceIsDropped() throws IOException {
+        Path blobPath = Files.writeString(tempDir.resolve("abc"), "content");
+        DocumentBlob blob = DocumentBlob.builder().hash("abc").path(blobPath.toString()).size(7L).refCount(1).build();
+        when(documentBlobRepository.findByHashForUpdate("abc")).thenReturn(Optional.of(blob));
+
+        fileStorageService.release("abc");
+
+        // Row and file are left to BlobGarbageCollector
+        verify(documentBlobRepository).save(blob);
+        verify(documentBlobRepository, never()).delete(any());
+        assertEquals(0, blob.getRefCount());
+        assertNotNull(blob.getReleasedAt());
+        assertTrue(Files.exists(blobPath));
+    }
+
+    @Test
+    void store_shouldTakeAReleasedBlobBackInsteadOfWritingItAgain() throws IOException {
+        Path blobPath = Files.writeString(tempDir.resolve("abc"), "Hello World");
+        DocumentBlob blob = DocumentBlob.builder().hash(HELLO_WORLD_SHA256).path(blobPath.toString()).size(11L)
+                .refCount(0).releasedAt(LocalDateTime.now()).build();
+        when(documentBlobRepository.findByHashForUpdate(HELLO_WORLD_SHA256)).thenReturn(Optional.of(blob));
+
+        FileStorageService.StoredFile storedFile = fileStorageService.store(
+                new ByteArrayInputStream("Hello World".getBytes()));
+
+        assertTrue(storedFile.isDeduplicated());
+        assertEquals(1, blob.getRefCount());
+        assertNull(blob.getReleasedAt());
+    }
+
+    @Test
+    void release_shouldKeepBlobWhileStillReferenced() throws IOException {
+        Path blobPath = Files.writeString(tempDir.resolve("abc"), "content");
+        DocumentBlob blob = DocumentBlob.builder().hash("abc").path(blobPath.toString()).size(7L).refCount(2).build();
+        when(documentBlobRepository.findByHashForUpdate("abc")).thenReturn(Optional.of(blob));
+
+        fileStorageService.release("abc");
+
+        verify(documentBlobRepository, never()).delete(any());
+        assertEquals(1, blob.getRefCount());
+        assertTrue(Files.exists(blobPath));
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -6,12 +6,27 @@ import com.docmanagement.dto.response.DocumentSnippetResponse;
 import com.docmanagement.model.Document;
 import com.docmanagement.model.DocumentChunk;
 import com.docmanagement.repository.DocumentChunkRepository;
-import com.docmanagement.repository.DocumentRepository;
+import com.docmanagement.repository.DocumentContentRepository;
+import com.docmanagement.repository.DocumentTextView;
+import com.docmanagement.repository.QABatchSearchRepository;
+import com.docmanagement.search.ChunkScorer;
+import com.docmanagement.search.QAAnswerCache;
+import com.docmanagement.search.QAQueryExecutor;
+import com.docmanagement.search.SearchHit;
+import com.docmanagement.search.SearchIndexService;
+import com.docmanagement.search.TextAnalyzer;
+import com.docmanagement.storage.ContentCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,15 +35,33 @@ import static org.mockito.Mockito.*;
 
 class QAServiceTest {
 
-    private DocumentRepository documentRepository;
     private DocumentChunkRepository documentChunkRepository;
+    private DocumentContentRepository documentContentRepository;
+    private SearchIndexService searchIndexService;
+    private QABatchSearchRepository qaBatchSearchRepository;
+    private QAAnswerCache answerCache;
+    private ContentCodec contentCodec;
     private QAService qaService;
 
     @BeforeEach
     void setUp() {
-        documentRepository = mock(DocumentRepository.class);
         documentChunkRepository = mock(DocumentChunkRepository.class);
-        qaService = new QAService(documentRepository, documentChunkRepository);
+        documentContentRepository = mock(DocumentContentRepository.class);
+        searchIndexService = mock(SearchIndexService.class);
+        qaBatchSearchRepository = mock(QABatchSearchRepository.class);
+        TextAnalyzer textAnalyzer = new TextAnalyzer();
+        contentCodec = new ContentCodec(null, true, 0, 6);
+        answerCache = new QAAnswerCache(new ConcurrentMapCacheManager(QAAnswerCache.CACHE_NAME), textAnalyzer,
+                new ObjectMapper(), mock(ObjectProvider.class), false, 600);
+        // Sources run on the calling thread, so the deadlines never fire
+        qaService = new QAService(documentChunkRepository, documentContentRepository, searchIndexService,
+                new ChunkScorer(textAnalyzer),
+                new QAQueryExecutor(Runnable::run, TransactionOperations.withoutTransaction()),
+                qaBatchSearchRepository, answerCache, contentCodec);
+        ReflectionTestUtils.setField(qaService, "chunkDeadlineMillis", 1000L);
+        ReflectionTestUtils.setField(qaService, "documentDeadlineMillis", 1000L);
+        ReflectionTestUtils.setField(qaService, "batchSize", 2);
+        ReflectionTestUtils.setField(qaService, "batchDeadlineMillis", 1000L);
     }
 
     @Test
@@ -70,13 +103,10 @@ class QAServiceTest {
         when(documentChunkRepository.searchByContentSimple(eq(question), any(PageRequest.class)))
                 .thenReturn(Collections.emptyList());
 
-        Document document = Document.builder()
-                .id(2L)
-                .title("AI Fundamentals")
-                .content("Machine learning is a subset of AI that allows systems to learn from data.")
-                .build();
+        DocumentTextView document = text(2L, "AI Fundamentals",
+                "Machine learning is a subset of AI that allows systems to learn from data.");
 
-        when(documentRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
+        when(documentContentRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
                 .thenReturn(List.of(document));
 
         AnswerResponse response = qaService.answerQuestion(request);
@@ -95,9 +125,9 @@ class QAServiceTest {
                 .thenReturn(Collections.emptyList());
         when(documentChunkRepository.searchByContentSimple(eq(question), any(PageRequest.class)))
                 .thenReturn(Collections.emptyList());
-        when(documentRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
+        when(documentContentRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
                 .thenReturn(Collections.emptyList());
-        when(documentRepository.searchByContentSimple(eq(question), any(PageRequest.class)))
+        when(documentContentRepository.searchByContentSimple(eq(question), any(PageRequest.class)))
                 .thenReturn(Collections.emptyList());
 
         AnswerResponse response = qaService.answerQuestion(request);
@@ -105,4 +135,195 @@ class QAServiceTest {
         assertEquals(question, response.getQuestion());
         assertTrue(response.getRelevantDocuments().isEmpty());
     }
+
+    @Test
+    void testAnswerQuestion_FromSearchIndex() {
+        String question = "What is the capital of France?";
+        QuestionRequest request = new QuestionRequest(question);
+
+        when(searchIndexService.isReady()).thenReturn(true);
+        when(searchIndexService.search(question, 5)).thenReturn(List.of(
+                new SearchHit(10L, 1L, "Geography", "The capital of France is Paris.", 2.5)));
+
+        AnswerResponse response = qaService.answerQuestion(request);
+
+        assertEquals(1, response.getRelevantDocuments().size());
+        DocumentSnippetResponse snippet = response.getRelevantDocuments().get(0);
+        assertEquals(1L, snippet.getDocumentId());
+        assertEquals("Geography", snippet.getDocumentTitle());
+        assertEquals(2.5, snippet.getRelevanceScore());
+        assertEquals("The capital of France is Paris.", snippet.getSnippet());
+        assertEquals(2, snippet.getHighlights().size());
+        assertEquals(4, snippet.getHighlights().get(0).getStart());
+        assertEquals(11, snippet.getHighlights().get(0).getEnd());
+        verifyNoInteractions(documentChunkRepository, documentContentRepository);
+    }
+
+    @Test
+    void testAnswerQuestion_MergesChunksAndDocumentsByNormalisedScore() {
+        String question = "quarterly revenue report";
+        QuestionRequest request = new QuestionRequest(question);
+
+        DocumentTextView covered = text(1L, "Finance", "Quarterly revenue report.");
+        DocumentTextView other = text(2L, "Sales", "The revenue report is late.");
+        DocumentChunk chunk = DocumentChunk.builder()
+                .content("Quarterly revenue grew.")
+                .document(Document.builder().id(1L).title("Finance").build())
+                .build();
+
+        when(documentChunkRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
+                .thenReturn(List.of(chunk));
+        when(documentContentRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
+                .thenReturn(List.of(covered, other));
+
+        AnswerResponse response = qaService.answerQuestion(request);
+
+        // Document 1 is already represented by its chunk. Document 2 matches 2 of 3 terms and is
+        // scaled against the best hit of its source (document 1, all terms).
+        assertEquals(List.of(1L, 2L), response.getRelevantDocuments().stream()
+                .map(DocumentSnippetResponse::getDocumentId).toList());
+        assertEquals("Quarterly revenue grew.", response.getRelevantDocuments().get(0).getSnippet());
+        assertEquals(2.0 / 3, response.getRelevantDocuments().get(1).getRelevanceScore(), 1e-9);
+        assertFalse(response.isPartial());
+    }
+
+    @Test
+    void testAnswerQuestion_FallsBackToSimpleSearchPerSource() {
+        String question = "invoice";
+        QuestionRequest request = new QuestionRequest(question);
+
+        DocumentTextView document = text(3L, "Billing", "Invoice 42 is overdue.");
+
+        when(documentChunkRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
+                .thenThrow(new RuntimeException("full-text search unavailable"));
+        when(documentContentRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
+                .thenThrow(new RuntimeException("full-text search unavailable"));
+        when(documentContentRepository.searchByContentSimple(eq(question), any(PageRequest.class)))
+                .thenReturn(List.of(document));
+
+        AnswerResponse response = qaService.answerQuestion(request);
+
+        assertEquals(1, response.getRelevantDocuments().size());
+        assertEquals(3L, response.getRelevantDocuments().get(0).getDocumentId());
+        verify(documentChunkRepository).searchByContentSimple(eq(question), any(PageRequest.class));
+    }
+
+    @Test
+    void testAnswerQuestions_DeduplicatesAndBatchesDatabaseSearches() {
+        when(qaBatchSearchRepository.search(List.of("revenue report", "invoice"), 5)).thenReturn(List.of(
+                new QABatchSearchRepository.Hit(0, true, 1L, "Finance", "The revenue report is out."),
+                new QABatchSearchRepository.Hit(1, false, 2L, "Billing", "Invoice 42 is overdue.")));
+        when(qaBatchSearchRepository.search(List.of("headcount"), 5)).thenReturn(List.of());
+
+        List<AnswerResponse> answers = new ArrayList<>();
+        qaService.answerQuestions(List.of(new QuestionRequest("revenue report"), new QuestionRequest("invoice"),
+                new QuestionRequest("revenue report"), new QuestionRequest("headcount")), answers::add);
+
+        assertEquals(List.of("revenue report", "invoice", "headcount"),
+                answers.stream().map(AnswerResponse::getQuestion).toList());
+        assertEquals(1L, answers.get(0).getRelevantDocuments().get(0).getDocumentId());
+        assertEquals(2L, answers.get(1).getRelevantDocuments().get(0).getDocumentId());
+        assertTrue(answers.get(2).getRelevantDocuments().isEmpty());
+        assertFalse(answers.get(2).isPartial());
+        verify(qaBatchSearchRepository, times(2)).search(anyList(), eq(5));
+    }
+
+    @Test
+    void testAnswerQuestions_UsesTheIndexAndMarksFailedBatchesPartial() {
+        when(searchIndexService.isReady()).thenReturn(true);
+        when(searchIndexService.search("capital of France", 5)).thenReturn(List.of(
+                new SearchHit(10L, 1L, "Geography", "The capital of France is Paris.", 2.5)));
+        when(qaBatchSearchRepository.search(List.of("unknown topic"), 5))
+                .thenThrow(new RuntimeException("database down"));
+
+        List<AnswerResponse> answers = new ArrayList<>();
+        qaService.answerQuestions(List.of(new QuestionRequest("unknown topic"),
+                new QuestionRequest("capital of France")), answers::add);
+
+        // The index answer does not wait for the database batch
+        assertEquals("capital of France", answers.get(0).getQuestion());
+        assertEquals(1L, answers.get(0).getRelevantDocuments().get(0).getDocumentId());
+        assertEquals("unknown topic", answers.get(1).getQuestion());
+        assertTrue(answers.get(1).isPartial());
+    }
+
+    @Test
+    void testAnswerQuestion_ServesRephrasedQuestionFromCacheUntilInvalidated() {
+        Document document = Document.builder().id(1L).title("Geography").build();
+        DocumentChunk chunk = DocumentChunk.builder()
+                .content("The capital of France is Paris.")
+                .document(document)
+                .build();
+        when(documentChunkRepository.searchByContentFullText(anyString(), any(PageRequest.class)))
+                .thenReturn(List.of(chunk));
+
+        qaService.answerQuestion(new QuestionRequest("What is the capital of France?"));
+        AnswerResponse cached = qaService.answerQuestion(new QuestionRequest("capital france"));
+
+        assertEquals("capital france", cached.getQuestion());
+        assertEquals(1L, cached.getRelevantDocuments().get(0).getDocumentId());
+        verify(documentChunkRepository, times(1)).searchByContentFullText(anyString(), any(PageRequest.class));
+
+        answerCache.invalidate();
+        qaService.answerQuestion(new QuestionRequest("capital france"));
+
+        verify(documentChunkRepository, times(2)).searchByContentFullText(anyString(), any(PageRequest.class));
+    }
+
+    @Test
+    void testAnswerQuestions_ServesCachedAnswersWithoutSearching() {
+        when(qaBatchSearchRepository.search(List.of("revenue report"), 5)).thenReturn(List.of(
+                new QABatchSearchRepository.Hit(0, true, 1L, "Finance", "The revenue report is out.")));
+
+        qaService.answerQuestions(List.of(new QuestionRequest("revenue report")), answer -> { });
+        List<AnswerResponse> answers = new ArrayList<>();
+        qaService.answerQuestions(List.of(new QuestionRequest("Revenue reports?")), answers::add);
+
+        assertEquals("Revenue reports?", answers.get(0).getQuestion());
+        assertEquals(1L, answers.get(0).getRelevantDocuments().get(0).getDocumentId());
+        verify(qaBatchSearchRepository, times(1)).search(anyList(), eq(5));
+    }
+
+    @Test
+    void testAnswerQuestion_ScoresCompressedDocumentsWhileDecompressing() {
+        String question = "overdue invoice";
+        byte[] compressed = contentCodec.compress("Payment terms are 30 days. Invoice 42 is overdue. Contact billing.");
+        DocumentTextView document = text(4L, "Billing", null, compressed);
+
+        when(documentContentRepository.searchByContentFullText(eq(question), any(PageRequest.class)))
+                .thenReturn(List.of(document));
+
+        AnswerResponse response = qaService.answerQuestion(new QuestionRequest(question));
+
+        assertEquals(1, response.getRelevantDocuments().size());
+        assertEquals("Invoice 42 is overdue.", response.getRelevantDocuments().get(0).getSnippet());
+    }
+
+    private static DocumentTextView text(Long id, String title, String content) {
+        return text(id, title, content, null);
+    }
+
+    private static DocumentTextView text(Long id, String title, String content, byte[] compressed) {
+        return new DocumentTextView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getContent() {
+                return content;
+            }
+
+            @Override
+            public byte[] getContentCompressed() {
+                return compressed;
+            }
+        };
+    }
 }
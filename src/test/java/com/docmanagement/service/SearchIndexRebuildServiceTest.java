@@ -0,0 +1,163 @@
+package com.docmanagement.service;
+
+import com.docmanagement.batch.SearchIndexRebuildThrottle;
+import com.docmanagement.dto.response.SearchIndexRebuildResponse;
+import com.docmanagement.model.DocumentStatus;
+import com.docmanagement.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexRebuildServiceTest {
+
+    @Mock
+    private JobLauncher jobLauncher;
+
+    @Mock
+    private Job rebuildSearchIndexJob;
+
+    @Mock
+    private JobExplorer jobExplorer;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private SearchIndexRebuildThrottle searchIndexRebuildThrottle;
+
+    private SearchIndexRebuildService service;
+
+    private final JobInstance instance = new JobInstance(3L, "rebuildSearchIndexJob");
+
+    @BeforeEach
+    void setUp() {
+        service = new SearchIndexRebuildService(jobLauncher, rebuildSearchIndexJob, jobExplorer, documentRepository,
+                searchIndexRebuildThrottle);
+        when(rebuildSearchIndexJob.getName()).thenReturn("rebuildSearchIndexJob");
+    }
+
+    @Test
+    void startShouldRecordHowManyDocumentsThereAreToRebuild() throws Exception {
+        when(documentRepository.countByStatus(DocumentStatus.COMPLETED)).thenReturn(1200L);
+
+        assertTrue(service.start());
+
+        ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+        verify(jobLauncher).run(eq(rebuildSearchIndexJob), parameters.capture());
+        assertEquals(1200L, parameters.getValue().getLong(SearchIndexRebuildService.TOTAL));
+        assertEquals(1L, parameters.getValue().getLong(SearchIndexRebuildService.RUN));
+    }
+
+    @Test
+    void startShouldRefuseWhileARebuildIsRunningOnAnyNode() {
+        when(jobExplorer.findRunningJobExecutions("rebuildSearchIndexJob"))
+                .thenReturn(Set.of(execution(1L, total(500), BatchStatus.STARTED)));
+
+        assertFalse(service.start());
+
+        verifyNoInteractions(jobLauncher);
+    }
+
+    @Test
+    void startShouldRefuseWhenAnotherNodeClaimedTheSameRunFirst() throws Exception {
+        JobExecution completed = execution(1L, total(500), BatchStatus.COMPLETED);
+        when(jobExplorer.getLastJobInstance("rebuildSearchIndexJob")).thenReturn(instance);
+        when(jobExplorer.getLastJobExecution(instance)).thenReturn(completed);
+        when(jobLauncher.run(eq(rebuildSearchIndexJob), any()))
+                .thenThrow(new JobExecutionAlreadyRunningException("already running"));
+
+        assertFalse(service.start());
+
+        ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+        verify(jobLauncher).run(eq(rebuildSearchIndexJob), parameters.capture());
+        assertEquals(4L, parameters.getValue().getLong(SearchIndexRebuildService.RUN));
+    }
+
+    @Test
+    void startShouldContinueAFailedRebuild() throws Exception {
+        JobParameters previous = total(500);
+        JobExecution failed = execution(1L, previous, BatchStatus.FAILED);
+        when(jobExplorer.getLastJobInstance("rebuildSearchIndexJob")).thenReturn(instance);
+        when(jobExplorer.getLastJobExecution(instance)).thenReturn(failed);
+
+        assertTrue(service.start());
+
+        verify(jobLauncher).run(rebuildSearchIndexJob, previous);
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void progressShouldCountEveryRunAndEstimateFromTheCurrentOne() {
+        JobParameters parameters = total(1000);
+        JobExecution first = execution(1L, parameters, BatchStatus.FAILED);
+        worker(first, "rebuildSearchIndexStep:partition0", 300, 2);
+        JobExecution second = execution(2L, parameters, BatchStatus.STARTED);
+        second.setStartTime(LocalDateTime.now().minusSeconds(10));
+        worker(second, "rebuildSearchIndexStep:partition1", 200, 0);
+        worker(second, "rebuildSearchIndexStep.manager", 0, 0);
+        when(jobExplorer.getLastJobInstance("rebuildSearchIndexJob")).thenReturn(instance);
+        when(jobExplorer.getJobExecutions(instance)).thenReturn(List.of(second, first));
+        when(searchIndexRebuildThrottle.getDocumentsPerSecond()).thenReturn(20.0);
+
+        SearchIndexRebuildResponse progress = service.getProgress();
+
+        assertEquals("STARTED", progress.getStatus());
+        assertEquals(1000, progress.getTotalDocuments());
+        assertEquals(500, progress.getProcessedDocuments());
+        assertEquals(2, progress.getFailedDocuments());
+        assertEquals(50.2, progress.getPercentComplete(), 0.01);
+        // 200 documents in about 10 seconds, 498 left
+        assertEquals(20.0, progress.getDocumentsPerSecond(), 0.5);
+        assertTrue(progress.getEtaSeconds() >= 24 && progress.getEtaSeconds() <= 26);
+        assertEquals(20.0, progress.getDocumentsPerSecondLimit());
+    }
+
+    @Test
+    void progressShouldSayWhenNothingRanYet() {
+        assertEquals("NOT_STARTED", service.getProgress().getStatus());
+    }
+
+    private static JobParameters total(long total) {
+        return new JobParametersBuilder()
+                .addLong("time", 42L)
+                .addLong(SearchIndexRebuildService.TOTAL, total, false)
+                .toJobParameters();
+    }
+
+    private JobExecution execution(long id, JobParameters parameters, BatchStatus status) {
+        JobExecution execution = new JobExecution(instance, id, parameters);
+        execution.setStatus(status);
+        execution.setStartTime(LocalDateTime.now().minusMinutes(5));
+        if (status != BatchStatus.STARTED) {
+            execution.setEndTime(LocalDateTime.now().minusMinutes(1));
+        }
+        return execution;
+    }
+
+    private static void worker(JobExecution execution, String name, long written, long skipped) {
+        StepExecution step = execution.createStepExecution(name);
+        step.setWriteCount(written);
+        step.setProcessSkipCount(skipped);
+    }
+}
@@ -0,0 +1,110 @@
+package com.docmanagement.storage;
+
+import com.docmanagement.repository.ContentDictionaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContentCodecTest {
+
+    private static final String TEXT = "This agreement is made between the customer and the supplier. " +
+            "The supplier shall deliver the goods described in the schedule. Zürich, 2024.";
+
+    private ContentDictionaryRepository contentDictionaryRepository;
+    private ContentCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        contentDictionaryRepository = mock(ContentDictionaryRepository.class);
+        codec = new ContentCodec(contentDictionaryRepository, true, 100, 6);
+    }
+
+    @Test
+    void compressedTextShouldRoundTripWithoutDictionary() throws IOException {
+        byte[] compressed = codec.compress(TEXT);
+
+        assertEquals(TEXT, codec.decompress(compressed));
+        try (Reader reader = codec.open(compressed)) {
+            char[] buffer = new char[4];
+            assertEquals(4, reader.read(buffer));
+            assertEquals("This", new String(buffer));
+        }
+    }
+
+    @Test
+    void decompressShouldStopAfterTheRequestedPrefix() {
+        byte[] compressed = codec.compress(TEXT.repeat(100));
+
+        assertEquals(TEXT.substring(0, 50), codec.decompress(compressed, 50));
+        assertEquals(TEXT.repeat(100), codec.decompress(compressed, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void dictionaryShouldShrinkTextThatSharesItsPhrases() {
+        byte[] plain = codec.compress(TEXT);
+        codec.useDictionary(ContentDictionaryTrainer.train(List.of(TEXT, TEXT.replace("2024", "2023")), 32768));
+
+        byte[] withDictionary = codec.compress(TEXT);
+
+        assertTrue(withDictionary.length < plain.length / 2);
+        assertEquals(TEXT, codec.decompress(withDictionary));
+        assertEquals(TEXT, codec.decompress(plain));
+    }
+
+    @Test
+    void olderDictionariesShouldBeLoadedFromTheRepository() {
+        byte[] dictionary = "the customer and the supplier shall deliver the goods".getBytes(StandardCharsets.UTF_8);
+        codec.useDictionary(dictionary);
+        byte[] compressed = codec.compress(TEXT);
+
+        ContentCodec restarted = new ContentCodec(contentDictionaryRepository, true, 100, 6);
+        when(contentDictionaryRepository.findDictionary(ContentCodec.dictionaryId(dictionary)))
+                .thenReturn(Optional.of(dictionary));
+
+        assertEquals(TEXT, restarted.decompress(compressed));
+        assertEquals(TEXT, restarted.decompress(compressed));
+        verify(contentDictionaryRepository, times(1)).findDictionary(anyLong());
+    }
+
+    @Test
+    void unknownDictionaryShouldFail() {
+        codec.useDictionary("unrelated dictionary".getBytes(StandardCharsets.UTF_8));
+        byte[] compressed = codec.compress(TEXT);
+        when(contentDictionaryRepository.findDictionary(anyLong())).thenReturn(Optional.empty());
+
+        ContentCodec other = new ContentCodec(contentDictionaryRepository, true, 100, 6);
+
+        assertThrows(IllegalStateException.class, () -> other.open(compressed));
+    }
+
+    @Test
+    void shouldCompressOnlyLongTextsWhenEnabled() {
+        assertTrue(codec.shouldCompress(TEXT));
+        assertFalse(codec.shouldCompress("short"));
+        assertFalse(new ContentCodec(contentDictionaryRepository, false, 100, 6).shouldCompress(TEXT));
+    }
+
+    @Test
+    void trainerShouldKeepPhrasesSharedByDocumentsWithinTheSizeLimit() {
+        List<String> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            samples.add("Invoice number " + i + " is payable within thirty days. Unique" + i + " remark.");
+        }
+
+        byte[] dictionary = ContentDictionaryTrainer.train(samples, 64);
+        String text = new String(dictionary, StandardCharsets.UTF_8);
+
+        assertTrue(dictionary.length <= 64);
+        assertTrue(text.contains("payable within thirty days"), text);
+        assertFalse(text.contains("Unique3"));
+    }
+}
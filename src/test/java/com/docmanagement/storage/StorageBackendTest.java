@@ -0,0 +1,62 @@
+package com.docmanagement.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageBackendTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sharded_shouldFanOutByTwoLevelHexPrefix() {
+        ShardedStorageBackend backend = new ShardedStorageBackend(tempDir.toString());
+
+        assertEquals(tempDir.resolve("ab").resolve("cd").resolve("abcdef0123"), backend.resolve("abcdef0123"));
+    }
+
+    @Test
+    void sharded_shouldOnlyFanOutAsDeepAsTheKeyAllows() {
+        ShardedStorageBackend backend = new ShardedStorageBackend(tempDir.toString());
+
+        assertEquals(tempDir.resolve("ab").resolve("abc"), backend.resolve("abc"));
+    }
+
+    @Test
+    void flat_shouldResolveDirectlyUnderRoot() {
+        FlatStorageBackend backend = new FlatStorageBackend(tempDir.toString());
+
+        assertEquals(tempDir.resolve("abcdef0123"), backend.resolve("abcdef0123"));
+    }
+
+    @Test
+    void put_shouldMoveTempFileIntoShardDirectory() throws IOException {
+        ShardedStorageBackend backend = new ShardedStorageBackend(tempDir.toString());
+        Path temp = backend.createTempFile();
+        Files.writeString(temp, "content");
+
+        Path stored = backend.put(temp, "abcdef");
+
+        assertFalse(Files.exists(temp));
+        assertEquals("content", Files.readString(stored));
+        assertEquals(backend.resolve("abcdef"), stored);
+    }
+
+    @Test
+    void link_shouldExposeExistingFileUnderNewLayoutAndKeepOriginal() throws IOException {
+        Path legacy = Files.writeString(tempDir.resolve("0f1e2d3c.txt"), "legacy");
+        ShardedStorageBackend backend = new ShardedStorageBackend(tempDir.toString());
+
+        Path linked = backend.link(legacy, "0f1e2d3c.txt");
+
+        assertEquals(tempDir.resolve("0f").resolve("1e").resolve("0f1e2d3c.txt"), linked);
+        assertTrue(Files.exists(legacy));
+        assertEquals("legacy", Files.readString(linked));
+    }
+}